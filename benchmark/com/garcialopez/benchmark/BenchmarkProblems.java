@@ -0,0 +1,124 @@
+package com.garcialopez.benchmark;
+
+import com.garcialopez.metaheuristic.NRandom;
+import com.garcialopez.metaheuristic.Population;
+import com.garcialopez.optimizationmodel.CNOP;
+import com.garcialopez.optimizationmodel.Constraints;
+
+/**
+ * BenchmarkProblems class gives the benchmarks access to the integrated CNOPs,
+ * both in their hand-coded version and in the version evaluated by the parser.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+final class BenchmarkProblems {
+
+    /**
+     * Hand-coded evaluation, the one of the classes in the cnops package.
+     */
+    static final String HAND_CODED = "handCoded";
+
+    /**
+     * Evaluation of the objective function and constraints as text with
+     * ParseCNOP.
+     */
+    static final String PARSER = "parser";
+
+    /**
+     * Seed of the random numbers, so that all the benchmarks are repeatable.
+     */
+    static final long SEED = 20230501L;
+
+    private BenchmarkProblems() {
+    }
+
+    /**
+     * Creates an integrated CNOP.
+     *
+     * @param name the name of the class in the package com.garcialopez.cnops.
+     * @param evaluation {@link #HAND_CODED} or {@link #PARSER}.
+     * @return the CNOP.
+     */
+    static CNOP create(String name, String evaluation) {
+        CNOP cnop;
+        try {
+            cnop = (CNOP) Class.forName("com.garcialopez.cnops." + name)
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Unknown CNOP: " + name, e);
+        }
+
+        switch (evaluation) {
+            case HAND_CODED:
+                return cnop;
+            case PARSER:
+                return parsed(cnop);
+            default:
+                throw new IllegalArgumentException("Unknown evaluation: " + evaluation);
+        }
+    }
+
+    /**
+     * Creates a CNOP with the objective function and constraints of an
+     * integrated CNOP, evaluated with {@link CNOP#parserCNOP()} as a CNOP given
+     * by the user.
+     *
+     * @param cnop the integrated CNOP.
+     * @return the CNOP evaluated with the parser.
+     */
+    private static CNOP parsed(CNOP cnop) {
+        CNOP parsed = new ParsedCNOP(cnop.getVariableRange());
+        parsed.setIsContinuousVariable(cnop.isContinuousVariable());
+        parsed.setNameProblem(cnop.getNameProblem());
+        parsed.setBestKnownValue(cnop.getBestKnownValue());
+        parsed.setType(cnop.getType());
+        parsed.setFunction(cnop.getFunction());
+        parsed.setOrderVariables(String.join(";", cnop.getOrderVariables()));
+
+        Constraints constraints = new Constraints();
+        for (String[] constraint : cnop.getConstraintsInequality()) {
+            constraints.add(String.join(" ", constraint));
+        }
+        for (String[] constraint : cnop.getConstraintsEquality()) {
+            constraints.add(String.join(" ", constraint));
+        }
+        parsed.setConstraints(constraints);
+        parsed.parserCNOP();
+        return parsed;
+    }
+
+    /**
+     * CNOP given as text that keeps the variable ranges of an integrated CNOP,
+     * which are already converted and cannot be set again as text.
+     */
+    private static final class ParsedCNOP extends CNOP {
+
+        private final double[][] variableRange;
+
+        ParsedCNOP(double[][] variableRange) {
+            this.variableRange = variableRange;
+        }
+
+        @Override
+        public double[][] getVariableRange() {
+            return this.variableRange;
+        }
+    }
+
+    /**
+     * Creates a random population for a CNOP, always the same for the same
+     * CNOP and size. The population is not evaluated.
+     *
+     * @param cnop the CNOP.
+     * @param size the number of individuals.
+     * @return the population.
+     */
+    static double[][] population(CNOP cnop, int size) {
+        return Population.startPopulation(cnop, size, true, new NRandom(SEED));
+    }
+
+}
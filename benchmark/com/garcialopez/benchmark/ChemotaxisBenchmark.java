@@ -0,0 +1,80 @@
+package com.garcialopez.benchmark;
+
+import com.garcialopez.metaheuristic.Population;
+import com.garcialopez.metaheuristic.tsmbfoa.ProcessTSMBFOA;
+import com.garcialopez.metaheuristic.tsmbfoa.TSMBFOA;
+import com.garcialopez.optimizationmodel.CNOP;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one generation of the chemotaxis of the TS-MBFOA (Sb * Nc
+ * evaluations). The population is restarted in each iteration, so that all the
+ * iterations measure a population at a similar stage.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChemotaxisBenchmark {
+
+    @Param({"TensionCompressionSpring", "PressureVessel", "G01_CEC2006", "G07_CEC2006"})
+    public String problem;
+
+    @Param({BenchmarkProblems.HAND_CODED, BenchmarkProblems.PARSER})
+    public String evaluation;
+
+    @Param({"20", "50"})
+    public int sb;
+
+    @Param({"false", "true"})
+    public boolean synchronous;
+
+    private CNOP cnop;
+    private TSMBFOA tsmbfoa;
+    private ProcessTSMBFOA process;
+
+    @Setup
+    public void setUp() {
+        this.cnop = BenchmarkProblems.create(this.problem, this.evaluation);
+
+        this.tsmbfoa = new TSMBFOA(this.cnop, false);
+        this.tsmbfoa.setSb(this.sb);
+        this.tsmbfoa.setNc(24);
+        this.tsmbfoa.setSynchronousChemotaxis(this.synchronous);
+        this.process = new ProcessTSMBFOA();
+    }
+
+    @Setup(Level.Iteration)
+    public void startPopulation() {
+        double[][] individuals = BenchmarkProblems.population(this.cnop, this.sb);
+        individuals = this.cnop.evaluateObjectiveFunction(individuals);
+        this.tsmbfoa.setIndividuals(Population.sortPopulation(individuals));
+    }
+
+    @Benchmark
+    public Population chemotaxis() {
+        this.process.chemotaxis(this.cnop, this.tsmbfoa);
+        return this.tsmbfoa.getPopulation();
+    }
+
+}
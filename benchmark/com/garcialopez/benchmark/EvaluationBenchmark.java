@@ -0,0 +1,67 @@
+package com.garcialopez.benchmark;
+
+import com.garcialopez.optimizationmodel.CNOP;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time to evaluate one individual (objective function and sum of
+ * constraint violations) of each integrated CNOP, with the hand-coded
+ * evaluation and with the parser.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    private static final int SIZE = 64;
+
+    @Param({"DesignReinforcedConcreteBeam", "G01_CEC2006", "G02_CEC2006",
+        "G03_CEC2006", "G04_CEC2006", "G05_CEC2006", "G06_CEC2006",
+        "G07_CEC2006", "G08_CEC2006", "G09_CEC2006", "G10_CEC2006",
+        "G11_CEC2006", "G12_CEC2006", "G13_CEC2006", "G15_CEC2006",
+        "G17_CEC2006", "G18_CEC2006", "G21_CEC2006", "G22_CEC2006",
+        "G23_CEC2006", "G24_CEC2006", "PressureVessel",
+        "ProcessSynthesisKocis98", "ProcessSynthesisYuan88",
+        "QuadraticallyConstrainedQuadraticProgram", "TensionCompressionSpring"})
+    public String problem;
+
+    @Param({BenchmarkProblems.HAND_CODED, BenchmarkProblems.PARSER})
+    public String evaluation;
+
+    private CNOP cnop;
+    private double[][] individuals;
+
+    @Setup
+    public void setUp() {
+        this.cnop = BenchmarkProblems.create(this.problem, this.evaluation);
+        this.individuals = BenchmarkProblems.population(this.cnop, SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public double[][] evaluateObjectiveFunction() {
+        return this.cnop.evaluateObjectiveFunction(this.individuals);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.garcialopez.benchmark;
+
+import com.garcialopez.metaheuristic.tsmbfoa.TSMBFOA;
+import com.garcialopez.optimizationmodel.CNOP;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a complete execution of {@link TSMBFOA#run()} with the parameters
+ * of the README (Sb = 14, Nc = 7, 20000 evaluations).
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class RunBenchmark {
+
+    @Param({"TensionCompressionSpring", "PressureVessel", "G01_CEC2006", "G07_CEC2006"})
+    public String problem;
+
+    @Param({BenchmarkProblems.HAND_CODED, BenchmarkProblems.PARSER})
+    public String evaluation;
+
+    @Param({"1"})
+    public int executions;
+
+    private CNOP cnop;
+
+    @Setup
+    public void setUp() {
+        this.cnop = BenchmarkProblems.create(this.problem, this.evaluation);
+    }
+
+    @Benchmark
+    public double[] run() {
+        TSMBFOA tsmbfoa = new TSMBFOA(this.cnop, false);
+        tsmbfoa.setSb(14);
+        tsmbfoa.setNc(7);
+        tsmbfoa.setStepSize(0.0005);
+        tsmbfoa.setScalingFactor(1.95);
+        tsmbfoa.setBacteriaReproduce(1);
+        tsmbfoa.setRepcycle(100);
+        tsmbfoa.setEvaluations(20000);
+        tsmbfoa.setExecutions(this.executions);
+        tsmbfoa.setSeed(BenchmarkProblems.SEED);
+
+        tsmbfoa.run();
+        return tsmbfoa.getStatistic();
+    }
+
+}
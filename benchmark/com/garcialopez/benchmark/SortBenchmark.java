@@ -0,0 +1,67 @@
+package com.garcialopez.benchmark;
+
+import com.garcialopez.metaheuristic.Population;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Population#sortPopulation(double[][])} for several
+ * population sizes. Half of the individuals are feasible.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+
+    private static final int NUMBER_VARIABLES = 10;
+
+    @Param({"10", "50", "100", "500", "1000"})
+    public int sb;
+
+    private double[][] unsorted;
+    private double[][] individuals;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        int sizeValues = NUMBER_VARIABLES * 2 + 2;
+
+        this.unsorted = new double[this.sb][sizeValues];
+        for (double[] individual : this.unsorted) {
+            for (int j = 0; j < sizeValues - 2; j++) {
+                individual[j] = random.nextDouble();
+            }
+            individual[sizeValues - 2] = random.nextGaussian() * 100;
+            individual[sizeValues - 1] = random.nextBoolean() ? 0 : random.nextDouble() * 10;
+        }
+        this.individuals = new double[this.sb][];
+    }
+
+    @Benchmark
+    public double[][] sortPopulation() {
+        // the rows are shared, only the order is restored
+        System.arraycopy(this.unsorted, 0, this.individuals, 0, this.sb);
+        return Population.sortPopulation(this.individuals);
+    }
+
+}
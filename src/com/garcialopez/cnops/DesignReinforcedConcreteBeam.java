@@ -65,27 +65,17 @@ public class DesignReinforcedConcreteBeam extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = 29.4 * x[0] + 18 * x[1];
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[1];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = -(x[0]) + (0.2458 * (Math.pow(x[0], 2.0) / x[1])) + 6;
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {">"};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
@@ -2,6 +2,7 @@ package com.garcialopez.cnops;
 
 import com.garcialopez.optimizationmodel.CNOP;
 import com.garcialopez.optimizationmodel.Constraints;
+import com.garcialopez.optimizationmodel.EvaluationBatch;
 
 /**
  * G01_CEC2006 class that creates a test CNOP. This CNOP has as objective
@@ -87,8 +88,8 @@ public class G01_CEC2006 extends CNOP {
 
             x[indexFO] = 5 * s1 - 5 * s2 - s3;
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[9];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = 2.0 * x[0] + 2.0 * x[1] + x[9] + x[10] - 10.0;
@@ -101,25 +102,63 @@ public class G01_CEC2006 extends CNOP {
             constraintsIneq[7] = -2.0 * x[5] - x[6] + x[10];
             constraintsIneq[8] = -2.0 * x[7] - x[8] + x[11];
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0, 0, 0, 0, 0, 0, 0, 0, 0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<=", "<=", "<=", "<=", "<=", "<=", "<=", "<=", "<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
         return values;
     } // close evaluateObjectiveFunction
 
+    /**
+     * Evaluates all the candidates of a batch with a single loop over the
+     * columns of the variables. Overrides the base class method.
+     *
+     * @param batch The candidates to evaluate.
+     */
+    @Override
+    public void evaluateBatch(EvaluationBatch batch) {
+
+        double[] x = batch.getVariables();
+        double[] fo = batch.getObjectiveFunction();
+        double[] svr = batch.getSumConstraintViolation();
+        int c = batch.getCapacity();
+
+        for (int i = 0; i < batch.getSize(); i++) {
+
+            double x1 = x[i];
+            double x2 = x[c + i];
+            double x3 = x[2 * c + i];
+            double x4 = x[3 * c + i];
+            double x5 = x[4 * c + i];
+            double x6 = x[5 * c + i];
+            double x7 = x[6 * c + i];
+            double x8 = x[7 * c + i];
+            double x9 = x[8 * c + i];
+            double x10 = x[9 * c + i];
+            double x11 = x[10 * c + i];
+            double x12 = x[11 * c + i];
+            double x13 = x[12 * c + i];
+
+            double s1 = x1 + x2 + x3 + x4;
+            double s2 = x1 * x1 + x2 * x2 + x3 * x3 + x4 * x4;
+            double s3 = x5 + x6 + x7 + x8 + x9 + x10 + x11 + x12 + x13;
+
+            fo[i] = 5 * s1 - 5 * s2 - s3;
+
+            svr[i] = Math.max(0, 2.0 * x1 + 2.0 * x2 + x10 + x11 - 10.0)
+                    + Math.max(0, 2.0 * x1 + 2.0 * x3 + x10 + x12 - 10.0)
+                    + Math.max(0, 2.0 * x2 + 2.0 * x3 + x11 + x12 - 10.0)
+                    + Math.max(0, -8.0 * x1 + x10)
+                    + Math.max(0, -8.0 * x2 + x11)
+                    + Math.max(0, -8.0 * x3 + x12)
+                    + Math.max(0, -2.0 * x4 - x5 + x10)
+                    + Math.max(0, -2.0 * x6 - x7 + x11)
+                    + Math.max(0, -2.0 * x8 - x9 + x12);
+
+        }//close for 
+    } // close evaluateBatch
 }
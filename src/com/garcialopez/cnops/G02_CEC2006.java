@@ -87,28 +87,18 @@ public class G02_CEC2006 extends CNOP {
 
             x[indexFO] = -Math.abs(dividend / divisor);
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[2];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.                                               
             constraintsIneq[0] = 0.75 - prodC;
             constraintsIneq[1] = sumC - 7.5 * 20;
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0, 0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<=", "<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
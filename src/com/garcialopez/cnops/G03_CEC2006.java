@@ -71,28 +71,18 @@ public class G03_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = - Math.pow(Math.sqrt(10), 10) * p1;
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = {};
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.            
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {};
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = new double[1];
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             constraintsEqua[0] = s1C - 1.;
 
-            double[] rightSideEqua = {0};
-
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
@@ -75,8 +75,8 @@ public class G04_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = 5.3578547 * (x[2] * x[2]) + 0.8356891 * x[0] * x[4] + 37.293239 * x[0] - 40792.141;
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[6];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = 85.334407 + 0.0056858 * x[1] * x[4] + 0.0006262 * x[0] * x[3] - 0.0022053 * x[2] * x[4] - 92;
@@ -86,21 +86,11 @@ public class G04_CEC2006 extends CNOP {
             constraintsIneq[4] = 9.300961 + 0.0047026 * x[2] * x[4] + 0.0012547 * x[0] * x[2] + 0.0019085 * x[2] * x[3] - 25;
             constraintsIneq[5] = -9.300961 - 0.0047026 * x[2] * x[4] - 0.0012547 * x[0] * x[2] - 0.0019085 * x[2] * x[3] + 20;
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0, 0, 0, 0, 0, 0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<=", "<=", "<=", "<=", "<=", "<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
@@ -70,32 +70,21 @@ public class G05_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = 3.0 * x[0] + 0.000001 * Math.pow(x[0], 3) + 2.0 * x[1] + (0.000002 / 3.0) * Math.pow(x[1], 3);
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[2];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = -x[3] + x[2] - 0.55;
             constraintsIneq[1] = -x[2] + x[3] - 0.55;
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0, 0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<=", "<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = new double[3];
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
             constraintsEqua[0] = 1000.0 * Math.sin(-x[2] - 0.25) + 1000.0 * Math.sin(-x[3] - 0.25) + 894.8 - x[0];
             constraintsEqua[1] = 1000.0 * Math.sin(x[2] - 0.25) + 1000.0 * Math.sin(x[2] - x[3] - 0.25) + 894.8 - x[1];
             constraintsEqua[2] = 1000.0 * Math.sin(x[3] - 0.25) + 1000.0 * Math.sin(x[3] - x[2] - 0.25) + 1294.8;
 
-            double[] rightSideEqua = {0, 0, 0};
-
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
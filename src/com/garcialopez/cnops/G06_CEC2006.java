@@ -2,6 +2,7 @@ package com.garcialopez.cnops;
 
 import com.garcialopez.optimizationmodel.CNOP;
 import com.garcialopez.optimizationmodel.Constraints;
+import com.garcialopez.optimizationmodel.EvaluationBatch;
 
 /**
  * G06_CEC2006 class that creates a test CNOP. This CNOP has as objective
@@ -64,32 +65,50 @@ public class G06_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = Math.pow((x[0] - 10),3) + Math.pow((x[1] - 20),3);
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[2];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = -Math.pow((x[0] - 5),2) - Math.pow((x[1] - 5),2) + 100;
             constraintsIneq[1] = Math.pow((x[0] - 6),2) + Math.pow((x[1] - 5),2) - 82.81;
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0, 0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<=", "<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
         return values;
     } // close evaluateObjectiveFunction
 
+    /**
+     * Evaluates all the candidates of a batch with a single loop over the
+     * columns of the variables. Overrides the base class method.
+     *
+     * @param batch The candidates to evaluate.
+     */
+    @Override
+    public void evaluateBatch(EvaluationBatch batch) {
+
+        double[] x = batch.getVariables();
+        double[] fo = batch.getObjectiveFunction();
+        double[] svr = batch.getSumConstraintViolation();
+        int c = batch.getCapacity();
+
+        for (int i = 0; i < batch.getSize(); i++) {
+
+            double x1 = x[i];
+            double x2 = x[c + i];
+
+            fo[i] = (x1 - 10) * (x1 - 10) * (x1 - 10) + (x2 - 20) * (x2 - 20) * (x2 - 20);
+
+            double g1 = -(x1 - 5) * (x1 - 5) - (x2 - 5) * (x2 - 5) + 100;
+            double g2 = (x1 - 6) * (x1 - 6) + (x2 - 5) * (x2 - 5) - 82.81;
+
+            svr[i] = Math.max(0, g1) + Math.max(0, g2);
+
+        }//close for 
+    } // close evaluateBatch
 }
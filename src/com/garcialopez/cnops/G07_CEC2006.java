@@ -79,8 +79,8 @@ public class G07_CEC2006 extends CNOP {
                     + 4. * Math.pow((x[3] - 5), 2) + Math.pow((x[4] - 3), 2) + 2. * Math.pow((x[5] - 1), 2) + 5. * Math.pow(x[6], 2)
                     + 7. * Math.pow((x[7] - 11), 2) + 2. * Math.pow((x[8] - 10), 2) + Math.pow((x[9] - 7), 2) + 45.;
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[8];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = -105. + 4. * x[0] + 5. * x[1] - 3. * x[6] + 9. * x[7];
@@ -92,21 +92,11 @@ public class G07_CEC2006 extends CNOP {
             constraintsIneq[6] = 0.5 * (x[0] - 8.0) * (x[0] - 8.0) + 2.0 * (x[1] - 4.0) * (x[1] - 4.0) + (3.0 * (x[4] * x[4])) - x[5] - 30.0;
             constraintsIneq[7] = -3.0 * x[0] + 6.0 * x[1] + 12.0 * (x[8] - 8.0) * (x[8] - 8.0) - 7.0 * x[9];
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0, 0, 0, 0, 0, 0, 0, 0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<=", "<=", "<=", "<=", "<=", "<=", "<=", "<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
@@ -72,8 +72,8 @@ public class G09_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = Math.pow((x[0] - 10),2) + 5. * Math.pow((x[1] - 12),2) + Math.pow(x[2],4) + 3. * Math.pow((x[3] - 11),2) + 10. * Math.pow(x[4],6)  + 7. * Math.pow(x[5],2) + Math.pow(x[6],4) - 4. * x[5] * x[6] - 10.0 * x[5] - 8. * x[6];
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[4];                                    
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();                                    
             
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = -127.0 + 2. * x[0] * x[0] + 3.0 * (Math.pow(x[1],4)) + x[2] + 4.0 * x[3] * x[3] + 5.0 * x[4];
@@ -81,21 +81,11 @@ public class G09_CEC2006 extends CNOP {
             constraintsIneq[2] = -196. + 23. * x[0] + Math.pow(x[1],2) + 6. * Math.pow(x[5],2) - 8. * x[6];
             constraintsIneq[3] = 4. * Math.pow(x[0],2) + Math.pow(x[1],2) - 3. * x[0] * x[1] + 2. * Math.pow(x[2],2) + 5. * x[5] - 11. * x[6];
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0, 0, 0, 0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<=", "<=", "<=", "<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
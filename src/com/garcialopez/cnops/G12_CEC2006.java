@@ -63,12 +63,10 @@ public class G12_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = - (100.0 - Math.pow(x[0] - 5.0, 2) - Math.pow(x[1] - 5.0, 2) - Math.pow(x[2] - 5.0, 2)) / 100.0;
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[1];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.            
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
             double g = Math.pow((x[0] - 1.0),2) + Math.pow((x[1] - 1.0),2) + Math.pow((x[2] - 1.0),2)- 0.0625;
 
             for (int p = 1; p <= 9; p++) {
@@ -84,20 +82,12 @@ public class G12_CEC2006 extends CNOP {
             }
             
             constraintsIneq[0] = g;
-            
-            double[] rightSideIneq = {0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<="};
 
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
@@ -67,29 +67,18 @@ public class G13_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = Math.exp((x[0] * x[1] * x[2] * x[3] * x[4]));            
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = {};           
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();           
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = new double[3];            
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();            
             
             constraintsEqua[0] = x[0] * x[0] + x[1] * x[1] + x[2] * x[2] + x[3] * x[3] + x[4] * x[4] - 10.0;
             constraintsEqua[1] = x[1] * x[2] - 5.0 * x[3] * x[4];
             constraintsEqua[2] = Math.pow(x[0],3) + Math.pow(x[1],3) + 1.0;
-            
-            double[] rightSideEqua = {0, 0, 0};
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
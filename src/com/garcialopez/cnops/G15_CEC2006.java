@@ -65,28 +65,18 @@ public class G15_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = 1000 - (x[0] * x[0]) - 2 * (x[1] * x[1]) - (x[2] * x[2]) - x[0] * x[1] - x[0] * x[2];
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = {};
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.            
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {};
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = new double[2];
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
             constraintsEqua[0] = (x[0] * x[0]) + (x[1] * x[1]) + (x[2] * x[2]) - 25;
             constraintsEqua[1] = 8 * x[0] + 14 * x[1] + 7 * x[2] - 56;
 
-            double[] rightSideEqua = {0, 0};
-
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
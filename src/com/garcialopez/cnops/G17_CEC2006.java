@@ -73,38 +73,26 @@ public class G17_CEC2006 extends CNOP {
             } else if (x[1] >= 200 && x[1] < 1000) {
                 f2 = 30 * x[1];
             }
-            
-            
+
             // Include the coding of the objective function, where each variable
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = f1 + f2;
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = {};
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = new double[4];
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
           
             constraintsEqua[0] = -1. * x[0] + 300.-((x[2]*x[3])/131.078) * Math.cos(1.48477 - x[5]) + ((0.90798*x[2]*x[2])/131.078)*Math.cos(1.47588);
             constraintsEqua[1] = -1. * x[1] - ((x[2]*x[3])/131.078)*Math.cos(1.48477+x[5])+((0.90798*x[3]*x[3])/131.078)*Math.cos(1.47588);
             constraintsEqua[2] = -1. * x[4] - ((x[2]*x[3])/131.078)*Math.sin(1.48477+x[5])+((0.90798*x[3]*x[3])/131.078)*Math.sin(1.47588);
             constraintsEqua[3] = 200.0 - ((x[2]*x[3])/131.078)*Math.sin(1.48477-x[5])+((0.90798*x[2]*x[2])/131.078)*Math.sin(1.47588);
-            
-            double[] rightSideEqua = {0,0,0,0};
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
@@ -74,34 +74,23 @@ public class G21_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = x[0];
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[1];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = -x[0] + 35.0 * Math.pow(x[1],0.6) + 35.0 * Math.pow(x[2],0.6);                                 
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = new double[5];
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
             
             constraintsEqua[0] = (-300.0 * x[2]) + (7500.0 * x[4]) - (7500 * x[5]) -(25.0 * x[3] * x[4]) + (25.0 * x[3] * x[5]) + x[2] * x[3];                                 
             constraintsEqua[1] = 100.0 * x[1] + 155.365 * x[3] + 2500.0 * x[6] - x[1] * x[3] - 25.0 * x[3] * x[6] - 15536.5;                                                       
             constraintsEqua[2] = -x[4] + Math.log(-x[3] + 900.0);
             constraintsEqua[3] = -x[5] + Math.log(x[3] + 300.0);
             constraintsEqua[4] = -x[6] + Math.log(-2 * x[3] + 700.0);
-            
-            double[] rightSideEqua = {0,0,0,0,0};
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
@@ -101,53 +101,90 @@ public class G22_CEC2006 extends CNOP {
 
             // Include the coding of the objective function, where each variable
             // is represented by x from position 0 to the number of variables. 
-            x[indexFO] = x[0];
+            x[indexFO] = this.evaluateObjective(x);
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[1];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
-            constraintsIneq[0] = -x[0] + Math.pow(x[1],0.6) + Math.pow(x[2],0.6) + Math.pow(x[3],0.6);            
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = new double[19];
-            constraintsEqua[0] = x[4] - 100000.0 * x[7] + 1.0 * Math.pow(10,7);
-            constraintsEqua[1] = x[5] + 100000.0 * x[7] - 100000.0 * x[8];
-            constraintsEqua[2] = x[6] + 100000.0 * x[8] - 5.0 * Math.pow(10,7);
-            constraintsEqua[3] = x[4] + 100000.0 * x[9] - 3.3 * Math.pow(10,7);
-            constraintsEqua[4] = x[5] + 100000.0 * x[10] - 4.4 * Math.pow(10,7);
-            constraintsEqua[5] = x[6] + 100000.0 * x[11] - 6.6 * Math.pow(10,7);
-            constraintsEqua[6] = x[4] - 120.0 * x[1] * x[12];
-            constraintsEqua[7] = x[5] - 80.0 * x[2] * x[13];
-            constraintsEqua[8] = x[6] - 40.0 * x[3] * x[14];
-            constraintsEqua[9] = x[7] - x[10] + x[15];
-            constraintsEqua[10] = x[8] - x[11] + x[16];
-            constraintsEqua[11] = -x[17] + Math.log(x[9] - 100.0);
-            constraintsEqua[12] = -x[18] + Math.log(-x[7] + 300.0);
-            constraintsEqua[13] = -x[19] + Math.log(x[15]);
-            constraintsEqua[14] = -x[20] + Math.log(-x[8] + 400.0);
-            constraintsEqua[15] = -x[21] + Math.log(x[16]);
-            constraintsEqua[16] = -x[7] - x[9] + x[12] * x[17] - x[12] * x[18] + 400.0;
-            constraintsEqua[17] = x[7] - x[8] - x[10] + x[13] * x[19] - x[13] * x[20] + 400.0;
-            constraintsEqua[18] = x[8] - x[11] - 4.60517 * x[14] + x[14] * x[21] + 100.0;             
-            
-            double[] rightSideEqua = {0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0};
+            constraintsIneq[0] = this.evaluateConstraint(0, x);
+
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
+            for (int i = 0; i < constraintsEqua.length; i++) {
+                constraintsEqua[i] = this.evaluateConstraint(i + 1, x);
+            }
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
         return values;
     } // close evaluateObjectiveFunction
 
+    /**
+     * Returns true: most constraints depend on 2 to 4 variables, so a change of
+     * a few variables only evaluates some of them again.
+     *
+     * @return true.
+     */
+    @Override
+    public boolean isIncrementalEvaluation() {
+        return true;
+    }
+
+    @Override
+    public double evaluateObjective(double[] x) {
+        return x[0];
+    }
+
+    @Override
+    public double evaluateConstraint(int index, double[] x) {
+        switch (index) {
+            case 0:
+                return -x[0] + Math.pow(x[1], 0.6) + Math.pow(x[2], 0.6) + Math.pow(x[3], 0.6);
+            case 1:
+                return x[4] - 100000.0 * x[7] + 1.0 * Math.pow(10, 7);
+            case 2:
+                return x[5] + 100000.0 * x[7] - 100000.0 * x[8];
+            case 3:
+                return x[6] + 100000.0 * x[8] - 5.0 * Math.pow(10, 7);
+            case 4:
+                return x[4] + 100000.0 * x[9] - 3.3 * Math.pow(10, 7);
+            case 5:
+                return x[5] + 100000.0 * x[10] - 4.4 * Math.pow(10, 7);
+            case 6:
+                return x[6] + 100000.0 * x[11] - 6.6 * Math.pow(10, 7);
+            case 7:
+                return x[4] - 120.0 * x[1] * x[12];
+            case 8:
+                return x[5] - 80.0 * x[2] * x[13];
+            case 9:
+                return x[6] - 40.0 * x[3] * x[14];
+            case 10:
+                return x[7] - x[10] + x[15];
+            case 11:
+                return x[8] - x[11] + x[16];
+            case 12:
+                return -x[17] + Math.log(x[9] - 100.0);
+            case 13:
+                return -x[18] + Math.log(-x[7] + 300.0);
+            case 14:
+                return -x[19] + Math.log(x[15]);
+            case 15:
+                return -x[20] + Math.log(-x[8] + 400.0);
+            case 16:
+                return -x[21] + Math.log(x[16]);
+            case 17:
+                return -x[7] - x[9] + x[12] * x[17] - x[12] * x[18] + 400.0;
+            case 18:
+                return x[7] - x[8] - x[10] + x[13] * x[19] - x[13] * x[20] + 400.0;
+            case 19:
+                return x[8] - x[11] - 4.60517 * x[14] + x[14] * x[21] + 100.0;
+            default:
+                throw new IndexOutOfBoundsException("Constraint " + index);
+        }
+    }
+
 }
@@ -73,33 +73,22 @@ public class G23_CEC2006 extends CNOP {
             // is represented by x from position 0 to the number of variables. 
             x[indexFO] = - 9.0 * x[4] - 15.0 * x[7] + 6.0 * x[0] + 16.0 * x[1] + 10.0 * (x[5] + x[6]);
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[2];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = x[8] * x[2] + 0.02 * x[5] - 0.025 * x[4];
             constraintsIneq[1] = x[8] * x[3] + 0.02 * x[6] - 0.015 * x[7];
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0, 0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<=", "<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = new double[4];
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
             constraintsEqua[0] = x[0] + x[1] - x[2] - x[3];
             constraintsEqua[1] = 0.03 * x[0] + 0.01 * x[1] - x[8] * (x[2] + x[3]);
             constraintsEqua[2] = x[2] + x[5] - x[4];
             constraintsEqua[3] = x[3] + x[6] - x[7];
-            
-            double[] rightSideEqua = {0,0,0,0};
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
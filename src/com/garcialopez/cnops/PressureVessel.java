@@ -2,6 +2,7 @@ package com.garcialopez.cnops;
 
 import com.garcialopez.optimizationmodel.CNOP;
 import com.garcialopez.optimizationmodel.Constraints;
+import com.garcialopez.optimizationmodel.EvaluationBatch;
 
 /**
  * PressureVessel class that creates a test CNOP. This CNOP has as objective
@@ -69,8 +70,8 @@ public class PressureVessel extends CNOP {
                     + 3.1661 * Math.pow(x[0], 2) * x[3]
                     + 19.84 * Math.pow(x[0], 2) * x[2];
 
-            //Create a vector of size n inequality constraints (if applicable)
-            double[] constraintsIneq = new double[4];
+            //Get the vector of inequality constraints (if applicable)
+            double[] constraintsIneq = this.getInequalityValues();
 
             //In each position of the vector, evaluate the constraint.
             constraintsIneq[0] = -x[0] + 0.0193 * x[2];
@@ -78,25 +79,50 @@ public class PressureVessel extends CNOP {
             constraintsIneq[2] = -Math.PI * Math.pow(x[2], 2) * x[3] - (4.0 / 3.0) * Math.PI * Math.pow(x[2], 3) + 1296000;
             constraintsIneq[3] = x[3] - 240 - 0;
 
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the right side of the inequality constraints.
-            double[] rightSideIneq = {0, 0, 0, 0};
-
-            // Create a vector of size n according to the number of inequality 
-            // constraints for save the comparator of the inequality constraints.
-            String[] comparatorIneq = {"<=", "<=", "<=", "<="};
-
-            // Perform the previous steps, except for the comparator vector, 
-            // in case there are equality constraints.
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
+            // Get the vector of equality constraints (if applicable)
+            double[] constraintsEqua = this.getEqualityValues();
 
             // Assign SVR
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }//close for 
 
         return values;
     } // close evaluateObjectiveFunction
 
+    /**
+     * Evaluates all the candidates of a batch with a single loop over the
+     * columns of the variables. Overrides the base class method.
+     *
+     * @param batch The candidates to evaluate.
+     */
+    @Override
+    public void evaluateBatch(EvaluationBatch batch) {
+
+        double[] x = batch.getVariables();
+        double[] fo = batch.getObjectiveFunction();
+        double[] svr = batch.getSumConstraintViolation();
+        int c = batch.getCapacity();
+
+        for (int i = 0; i < batch.getSize(); i++) {
+
+            double x1 = x[i];
+            double x2 = x[c + i];
+            double x3 = x[2 * c + i];
+            double x4 = x[3 * c + i];
+
+            fo[i] = 0.6224 * x1 * x3 * x4
+                    + 1.7781 * x2 * x3 * x3
+                    + 3.1661 * x1 * x1 * x4
+                    + 19.84 * x1 * x1 * x3;
+
+            double g1 = -x1 + 0.0193 * x3;
+            double g2 = -x2 + 0.00954 * x3;
+            double g3 = -Math.PI * x3 * x3 * x4 - (4.0 / 3.0) * Math.PI * x3 * x3 * x3 + 1296000;
+            double g4 = x4 - 240;
+
+            svr[i] = Math.max(0, g1) + Math.max(0, g2) + Math.max(0, g3) + Math.max(0, g4);
+
+        }//close for 
+    } // close evaluateBatch
 }
@@ -62,18 +62,14 @@ public class ProcessSynthesisKocis98 extends CNOP {
 
             x[indexFO] = x[1] + 2.0 * x[0];
 
-            double[] constraintsIneq = new double[2];
+            double[] constraintsIneq = this.getInequalityValues();
 
             constraintsIneq[0] = -Math.pow(x[0], 2) - x[1] + 1.25;
             constraintsIneq[1] = x[0] + x[1];
 
-            double[] rightSideIneq = {0, 1.6};
-            String[] comparatorIneq = {"<=", "<="};
+            double[] constraintsEqua = this.getEqualityValues();
 
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
-
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }
 
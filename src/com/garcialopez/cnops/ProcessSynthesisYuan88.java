@@ -79,7 +79,7 @@ public class ProcessSynthesisYuan88 extends CNOP {
                     + Math.pow(x[1] - 2.0, 2)
                     + Math.pow(x[2] - 3.0, 2);
 
-            double[] constraintsIneq = new double[9];
+            double[] constraintsIneq = this.getInequalityValues();
 
             constraintsIneq[0] = x[3] + x[4] + x[5] + x[0] + x[1] + x[2];
             constraintsIneq[1] = Math.pow(x[5], 2) + Math.pow(x[0], 2) + Math.pow(x[1], 2) + Math.pow(x[2], 2);
@@ -91,13 +91,9 @@ public class ProcessSynthesisYuan88 extends CNOP {
             constraintsIneq[7] = Math.pow(x[5], 2) + Math.pow(x[2], 2);
             constraintsIneq[8] = Math.pow(x[4], 2) + Math.pow(x[2], 2);
 
-            double[] rightSideIneq = {5, 5.5, 1.2, 1.8, 2.5, 1.2, 1.64, 4.25, 4.64};
-            String[] comparatorIneq = {"<=", "<=", "<=", "<=", "<=", "<=", "<=", "<=", "<="};
+            double[] constraintsEqua = this.getEqualityValues();
 
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
-
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }
 
@@ -2,6 +2,7 @@ package com.garcialopez.cnops;
 
 import com.garcialopez.optimizationmodel.CNOP;
 import com.garcialopez.optimizationmodel.Constraints;
+import com.garcialopez.optimizationmodel.EvaluationBatch;
 
 /**
  * TensionCompressionSpring class that creates a test CNOP. This CNOP has as
@@ -64,24 +65,51 @@ public class TensionCompressionSpring extends CNOP {
 
             x[indexFO] = (x[2] + 2) * x[1] * Math.pow(x[0], 2);
 
-            double[] constraintsIneq = new double[4];
+            double[] constraintsIneq = this.getInequalityValues();
 
             constraintsIneq[0] = 1.0 - (Math.pow(x[1], 3) * x[2]) / (71785.0 * Math.pow(x[0], 4));
             constraintsIneq[1] = ((4.0 * (Math.pow(x[1], 2)) - x[0] * x[1]) / (12566.0 * (x[1] * (Math.pow(x[0], 3)) - (Math.pow(x[0], 4))))) + (1.0 / (5108.0 * (Math.pow(x[0], 2)))) - 1.0;
             constraintsIneq[2] = 1.0 - (140.45 * x[0] / ((Math.pow(x[1], 2)) * x[2]));
             constraintsIneq[3] = ((x[1] + x[0]) / 1.5) - 1.0;
 
-            double[] rightSideIneq = {0, 0, 0, 0};
-            String[] comparatorIneq = {"<=", "<=", "<=", "<="};
+            double[] constraintsEqua = this.getEqualityValues();
 
-            double[] constraintsEqua = {};
-            double[] rightSideEqua = {};
-
-            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua, rightSideIneq, rightSideEqua, comparatorIneq);
+            x[indexSVR] = this.getSumConstraintViolation(constraintsIneq, constraintsEqua);
 
         }
 
         return values;
     }
 
+    /**
+     * Evaluates all the candidates of a batch with a single loop over the
+     * columns of the variables. Overrides the base class method.
+     *
+     * @param batch The candidates to evaluate.
+     */
+    @Override
+    public void evaluateBatch(EvaluationBatch batch) {
+
+        double[] x = batch.getVariables();
+        double[] fo = batch.getObjectiveFunction();
+        double[] svr = batch.getSumConstraintViolation();
+        int c = batch.getCapacity();
+
+        for (int i = 0; i < batch.getSize(); i++) {
+
+            double d = x[i];
+            double D = x[c + i];
+            double N = x[2 * c + i];
+
+            fo[i] = (N + 2) * D * d * d;
+
+            double g1 = 1.0 - (D * D * D * N) / (71785.0 * d * d * d * d);
+            double g2 = ((4.0 * D * D - d * D) / (12566.0 * (D * d * d * d - d * d * d * d))) + (1.0 / (5108.0 * d * d)) - 1.0;
+            double g3 = 1.0 - (140.45 * d / (D * D * N));
+            double g4 = ((D + d) / 1.5) - 1.0;
+
+            svr[i] = Math.max(0, g1) + Math.max(0, g2) + Math.max(0, g3) + Math.max(0, g4);
+
+        }
+    }
 }
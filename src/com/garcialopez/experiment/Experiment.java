@@ -0,0 +1,568 @@
+package com.garcialopez.experiment;
+
+import com.garcialopez.cnops.DesignReinforcedConcreteBeam;
+import com.garcialopez.cnops.G01_CEC2006;
+import com.garcialopez.cnops.G02_CEC2006;
+import com.garcialopez.cnops.G03_CEC2006;
+import com.garcialopez.cnops.G04_CEC2006;
+import com.garcialopez.cnops.G05_CEC2006;
+import com.garcialopez.cnops.G06_CEC2006;
+import com.garcialopez.cnops.G07_CEC2006;
+import com.garcialopez.cnops.G08_CEC2006;
+import com.garcialopez.cnops.G09_CEC2006;
+import com.garcialopez.cnops.G10_CEC2006;
+import com.garcialopez.cnops.G11_CEC2006;
+import com.garcialopez.cnops.G12_CEC2006;
+import com.garcialopez.cnops.G13_CEC2006;
+import com.garcialopez.cnops.G15_CEC2006;
+import com.garcialopez.cnops.G17_CEC2006;
+import com.garcialopez.cnops.G18_CEC2006;
+import com.garcialopez.cnops.G21_CEC2006;
+import com.garcialopez.cnops.G22_CEC2006;
+import com.garcialopez.cnops.G23_CEC2006;
+import com.garcialopez.cnops.G24_CEC2006;
+import com.garcialopez.cnops.PressureVessel;
+import com.garcialopez.cnops.ProcessSynthesisKocis98;
+import com.garcialopez.cnops.ProcessSynthesisYuan88;
+import com.garcialopez.cnops.QuadraticallyConstrainedQuadraticProgram;
+import com.garcialopez.cnops.TensionCompressionSpring;
+import com.garcialopez.metaheuristic.NRandom;
+import com.garcialopez.metaheuristic.Population;
+import com.garcialopez.metaheuristic.Statistics;
+import com.garcialopez.metaheuristic.results.ResultWriter;
+import com.garcialopez.metaheuristic.tsmbfoa.TSMBFOA;
+import com.garcialopez.optimizationmodel.CNOP;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Experiment class runs TSMBFOA on a suite of problems with several
+ * configurations of its parameters, for example to tune the parameters with
+ * all the integrated CNOPs.
+ * <br>
+ * Each execution of each problem with each configuration is an independent
+ * task. All the tasks are scheduled on a work-stealing pool with one thread
+ * per core, the most expensive first, so that the long executions do not
+ * remain alone at the end. The cost of a task is estimated with its
+ * evaluations and the time of an evaluation of its problem, measured before
+ * the experiment starts.
+ * <br>
+ * Each execution has its own seed, derived from the seed of the experiment.
+ * The execution <i>i</i> of all the problems and configurations uses the same
+ * seed, so the configurations are compared with the same random numbers and
+ * the results do not depend on the number of threads. The configurations
+ * must not change the seed, the executions nor the workers, which are set by
+ * the experiment.
+ * <br>
+ * Example:
+ * <pre>
+ * Experiment experiment = new Experiment();
+ * experiment.addIntegratedProblems();
+ * experiment.addConfiguration("Nc=24", tsmbfoa -&gt; tsmbfoa.setNc(24));
+ * experiment.addConfiguration("Nc=12", tsmbfoa -&gt; tsmbfoa.setNc(12));
+ * experiment.setExecutions(30);
+ * List&lt;ExperimentResult&gt; results = experiment.run();
+ * Experiment.writeTable(results, Paths.get("results.csv"));
+ * </pre>
+ * With an output directory, the convergence and the best individual of every
+ * execution are also written to one file per problem and configuration, see
+ * {@link ResultWriter}, to be processed later without keeping them in memory.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class Experiment {
+
+    private final List<CNOP> problems = new ArrayList<>();
+    private final Map<String, Consumer<TSMBFOA>> configurations = new LinkedHashMap<>();
+    private int executions = 30;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private Long seed = null;
+    private boolean debug = false;
+    private Path outputDirectory;
+
+    /**
+     * Adds a problem to the suite. The problem is shared by all its
+     * executions, each one evaluates its own copy.
+     *
+     * @param cnop the problem
+     */
+    public void addProblem(CNOP cnop) {
+        this.problems.add(cnop);
+    }
+
+    /**
+     * Adds all the CNOPs integrated in the package
+     * {@code com.garcialopez.cnops} to the suite.
+     */
+    public void addIntegratedProblems() {
+        this.addProblem(new G01_CEC2006());
+        this.addProblem(new G02_CEC2006());
+        this.addProblem(new G03_CEC2006());
+        this.addProblem(new G04_CEC2006());
+        this.addProblem(new G05_CEC2006());
+        this.addProblem(new G06_CEC2006());
+        this.addProblem(new G07_CEC2006());
+        this.addProblem(new G08_CEC2006());
+        this.addProblem(new G09_CEC2006());
+        this.addProblem(new G10_CEC2006());
+        this.addProblem(new G11_CEC2006());
+        this.addProblem(new G12_CEC2006());
+        this.addProblem(new G13_CEC2006());
+        this.addProblem(new G15_CEC2006());
+        this.addProblem(new G17_CEC2006());
+        this.addProblem(new G18_CEC2006());
+        this.addProblem(new G21_CEC2006());
+        this.addProblem(new G22_CEC2006());
+        this.addProblem(new G23_CEC2006());
+        this.addProblem(new G24_CEC2006());
+        this.addProblem(new DesignReinforcedConcreteBeam());
+        this.addProblem(new PressureVessel());
+        this.addProblem(new ProcessSynthesisKocis98());
+        this.addProblem(new ProcessSynthesisYuan88());
+        this.addProblem(new QuadraticallyConstrainedQuadraticProgram());
+        this.addProblem(new TensionCompressionSpring());
+    }
+
+    /**
+     * Returns the problems of the suite.
+     *
+     * @return the problems
+     */
+    public List<CNOP> getProblems() {
+        return problems;
+    }
+
+    /**
+     * Adds a configuration of the parameters. Each execution creates a new
+     * TSMBFOA with the default parameters and applies the configuration to
+     * it. Without configurations the problems are solved with the default
+     * parameters.
+     *
+     * @param name the name of the configuration in the results
+     * @param settings the function that sets the parameters of the TSMBFOA
+     */
+    public void addConfiguration(String name, Consumer<TSMBFOA> settings) {
+        this.configurations.put(name, settings);
+    }
+
+    /**
+     * Returns the number of executions of each problem with each
+     * configuration.
+     *
+     * @return the executions
+     */
+    public int getExecutions() {
+        return executions;
+    }
+
+    /**
+     * Assigns the number of executions of each problem with each
+     * configuration.
+     *
+     * @param executions the executions to set
+     */
+    public void setExecutions(int executions) {
+        this.executions = executions;
+    }
+
+    /**
+     * Returns the number of threads of the pool.
+     *
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Assigns the number of threads of the pool, by default one per core.
+     *
+     * @param parallelism the parallelism to set
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the seed of the experiment.
+     *
+     * @return the seed, null if the results are different in each run
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Assigns the seed of the experiment, so that its results can be
+     * repeated.
+     *
+     * @param seed the seed to set, null for different results in each run
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns whether the progress of the experiment is shown.
+     *
+     * @return true if the progress is shown
+     */
+    public boolean isDebug() {
+        return debug;
+    }
+
+    /**
+     * Assigns whether the progress of the experiment is shown, one line each
+     * time an execution finishes. The default is false. The runs of the
+     * executions are always quiet, see {@link TSMBFOA#setQuiet(boolean)}.
+     *
+     * @param debug true to show the progress
+     */
+    public void setDebug(boolean debug) {
+        this.debug = debug;
+    }
+
+    /**
+     * Returns the directory where the results of the executions are written.
+     *
+     * @return the directory, null if the results are not written
+     */
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    /**
+     * Assigns the directory where the results of the executions are written,
+     * one file per problem and configuration named
+     * {@code <problem>_<configuration>.results}, which is read with
+     * {@link com.garcialopez.metaheuristic.results.ResultReader}. The
+     * directory is created if it does not exist. With null (the default) the
+     * results are not written.
+     *
+     * @param outputDirectory the directory to set
+     */
+    public void setOutputDirectory(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Runs all the executions of the suite and calculates the statistics of
+     * each problem with each configuration.
+     *
+     * @return the results, by problem and then by configuration, in the order
+     * in which they were added
+     */
+    public List<ExperimentResult> run() {
+        if (this.problems.isEmpty()) {
+            throw new IllegalStateException("The experiment has no problems.");
+        }
+        if (this.executions < 1 || this.parallelism < 1) {
+            throw new IllegalStateException("The executions and the parallelism must be at least 1.");
+        }
+
+        Map<String, Consumer<TSMBFOA>> settings = new LinkedHashMap<>(this.configurations);
+        if (settings.isEmpty()) {
+            settings.put("Default", tsmbfoa -> {
+            });
+        }
+        List<String> names = new ArrayList<>(settings.keySet());
+        List<Consumer<TSMBFOA>> configs = new ArrayList<>(settings.values());
+
+        // The same seeds are used with every problem and configuration
+        NRandom master = (this.seed != null) ? new NRandom(this.seed) : new NRandom();
+        long[] seeds = new long[this.executions];
+        for (int e = 0; e < seeds.length; e++) {
+            seeds[e] = master.getGenerator().nextLong();
+        }
+
+        // One task per execution, the most expensive first
+        String[] statisticsName = null;
+        List<Task> tasks = new ArrayList<>();
+        ResultWriter[][] writers = (this.outputDirectory != null)
+                ? new ResultWriter[this.problems.size()][configs.size()]
+                : null;
+        for (int p = 0; p < this.problems.size(); p++) {
+            double nanosPerEvaluation = this.measureEvaluation(this.problems.get(p));
+            for (int c = 0; c < configs.size(); c++) {
+                TSMBFOA sample = this.create(this.problems.get(p), configs.get(c), seeds[0]);
+                double cost = sample.getEvaluations() * nanosPerEvaluation;
+                statisticsName = sample.getStatisticsName();
+                if (writers != null) {
+                    writers[p][c] = this.createWriter(this.problems.get(p), names.get(c), sample);
+                }
+                for (int e = 0; e < this.executions; e++) {
+                    tasks.add(new Task(p, c, e, cost));
+                }
+            }
+        }
+        tasks.sort(Comparator.comparingDouble((Task task) -> task.cost).reversed());
+
+        ExecutionOutcome[][][] outcomes = new ExecutionOutcome[this.problems.size()][configs.size()][this.executions];
+        AtomicInteger finished = new AtomicInteger();
+
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Task task : tasks) {
+                futures.add(pool.submit(() -> {
+                    TSMBFOA tsmbfoa = this.create(this.problems.get(task.problem),
+                            configs.get(task.configuration), seeds[task.execution]);
+                    if (writers != null) {
+                        tsmbfoa.addListener(writers[task.problem][task.configuration].forExecution(task.execution));
+                    }
+                    tsmbfoa.run();
+                    outcomes[task.problem][task.configuration][task.execution] = new ExecutionOutcome(tsmbfoa);
+                    int count = finished.incrementAndGet();
+                    if (this.debug) {
+                        System.out.println("Experiment: " + count + " of "
+                                + tasks.size() + " executions completed.");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The experiment was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("An execution of the experiment failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (writers != null) {
+                this.closeWriters(writers);
+            }
+        }
+
+        List<ExperimentResult> results = new ArrayList<>();
+        for (int p = 0; p < this.problems.size(); p++) {
+            for (int c = 0; c < configs.size(); c++) {
+                results.add(this.summarize(this.problems.get(p), names.get(c), statisticsName, outcomes[p][c]));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Creates the TSMBFOA of one execution.
+     *
+     * @param cnop the problem
+     * @param settings the configuration
+     * @param seed the seed of the execution
+     * @return the TSMBFOA
+     */
+    private TSMBFOA create(CNOP cnop, Consumer<TSMBFOA> settings, long seed) {
+        TSMBFOA tsmbfoa = new TSMBFOA(cnop, false);
+        settings.accept(tsmbfoa);
+        tsmbfoa.setExecutions(1);
+        tsmbfoa.setWorkers(1);
+        tsmbfoa.setSeed(seed);
+        tsmbfoa.setQuiet(true);
+        return tsmbfoa;
+    }
+
+    /**
+     * Creates the file of results of a problem with a configuration.
+     *
+     * @param cnop the problem
+     * @param configuration the name of the configuration
+     * @param sample a TSMBFOA with the configuration
+     * @return the writer of the file
+     */
+    private ResultWriter createWriter(CNOP cnop, String configuration, TSMBFOA sample) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("Configuration", configuration);
+        parameters.putAll(sample.getParameterValues());
+        // Each execution is a run of its own, with a seed derived from the seed of the experiment
+        parameters.put("Executions", String.valueOf(this.executions));
+        parameters.put("Seed", String.valueOf(this.seed));
+        String name = (cnop.getNameProblem() + "_" + configuration).replaceAll("[^A-Za-z0-9._-]", "_");
+        try {
+            Files.createDirectories(this.outputDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ResultWriter(this.outputDirectory.resolve(name + ".results"), cnop, parameters);
+    }
+
+    /**
+     * Closes the files of results, even if one of them fails.
+     *
+     * @param writers the writers of the files
+     */
+    private void closeWriters(ResultWriter[][] writers) {
+        UncheckedIOException failure = null;
+        for (ResultWriter[] row : writers) {
+            for (ResultWriter writer : row) {
+                try {
+                    if (writer != null) {
+                        writer.close();
+                    }
+                } catch (UncheckedIOException e) {
+                    failure = (failure != null) ? failure : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Measures the average time of an evaluation of a problem, to estimate
+     * the cost of its executions.
+     *
+     * @param cnop the problem
+     * @return the time of an evaluation in nanoseconds
+     */
+    private double measureEvaluation(CNOP cnop) {
+        CNOP copy = cnop.copy();
+        double[][] individuals = Population.startPopulation(copy, 100, true, new NRandom(0));
+        copy.evaluateObjectiveFunction(individuals);
+
+        long start = System.nanoTime();
+        copy.evaluateObjectiveFunction(individuals);
+        return Math.max(1, System.nanoTime() - start) / (double) individuals.length;
+    }
+
+    /**
+     * Calculates the statistics of the executions of a problem with a
+     * configuration.
+     *
+     * @param cnop the problem
+     * @param configuration the name of the configuration
+     * @param statisticsName the names of the statistics
+     * @param outcomes the outcome of each execution
+     * @return the result
+     */
+    private ExperimentResult summarize(CNOP cnop, String configuration, String[] statisticsName,
+            ExecutionOutcome[] outcomes) {
+        double[][] bestResults = new double[outcomes.length][];
+        int[] sccp = new int[outcomes.length];
+        double evaluations = 0;
+        double timeSeconds = 0;
+
+        for (int e = 0; e < outcomes.length; e++) {
+            bestResults[e] = outcomes[e].best;
+            sccp[e] = outcomes[e].sccp;
+            evaluations += outcomes[e].evaluations;
+            timeSeconds += outcomes[e].timeNanos / 1e9;
+        }
+
+        double[] best = Population.sortPopulation(bestResults.clone())[0];
+        double[] statistic = new Statistics().summary(bestResults, sccp, cnop);
+
+        return new ExperimentResult(cnop.getNameProblem(), configuration, outcomes.length,
+                statisticsName, statistic, best, evaluations / outcomes.length, timeSeconds / outcomes.length);
+    }
+
+    /**
+     * Writes the results as a table of comma separated values, with one row
+     * per problem and configuration.
+     *
+     * @param results the results of an experiment
+     * @param writer where the table is written
+     * @throws IOException if the table can not be written
+     */
+    public static void writeTable(List<ExperimentResult> results, Writer writer) throws IOException {
+        StringBuilder line = new StringBuilder("Problem,Configuration,Executions");
+        String[] statisticsName = (results.isEmpty())
+                ? new String[0]
+                : results.get(0).getStatisticsName();
+        for (String name : statisticsName) {
+            line.append(',').append(name);
+        }
+        line.append(",MeanEvaluations,MeanTimeSeconds\n");
+        writer.write(line.toString());
+
+        for (ExperimentResult result : results) {
+            line.setLength(0);
+            line.append(quote(result.getProblem())).append(',')
+                    .append(quote(result.getConfiguration())).append(',')
+                    .append(result.getExecutions());
+            for (double statistic : result.getStatistic()) {
+                line.append(',').append(statistic);
+            }
+            line.append(',').append(result.getMeanEvaluations())
+                    .append(',').append(result.getMeanTimeSeconds()).append('\n');
+            writer.write(line.toString());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the results as a table of comma separated values in a file.
+     *
+     * @param results the results of an experiment
+     * @param file the file, which is replaced if it exists
+     * @throws IOException if the file can not be written
+     */
+    public static void writeTable(List<ExperimentResult> results, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeTable(results, writer);
+        }
+    }
+
+    private static String quote(String value) {
+        return (value.contains(",") || value.contains("\""))
+                ? "\"" + value.replace("\"", "\"\"") + "\""
+                : value;
+    }
+
+    /**
+     * An execution of a problem with a configuration.
+     */
+    private static final class Task {
+
+        private final int problem;
+        private final int configuration;
+        private final int execution;
+        private final double cost;
+
+        private Task(int problem, int configuration, int execution, double cost) {
+            this.problem = problem;
+            this.configuration = configuration;
+            this.execution = execution;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * What is kept of a finished execution.
+     */
+    private static final class ExecutionOutcome {
+
+        private final double[] best;
+        private final int sccp;
+        private final int evaluations;
+        private final long timeNanos;
+
+        private ExecutionOutcome(TSMBFOA tsmbfoa) {
+            int size = tsmbfoa.getPopulation().getNumberVariable() * 2 + 2;
+            this.best = tsmbfoa.getPopulation().getRow(0, new double[size]);
+            // With one execution the success performance is the evaluations of the success
+            this.sccp = (int) tsmbfoa.getStatistic()[7];
+            this.evaluations = tsmbfoa.getExecutionEvaluations()[0];
+            this.timeNanos = tsmbfoa.getExecutionTimeNanos()[0];
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.garcialopez.experiment;
+
+/**
+ * ExperimentResult class keeps the results of the executions of a problem
+ * with a configuration of an {@link Experiment}: the statistics of the best
+ * solutions of the executions, as calculated by the metaheuristic in a run,
+ * the best solution found and the average evaluations and time of an
+ * execution.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class ExperimentResult {
+
+    private final String problem;
+    private final String configuration;
+    private final int executions;
+    private final String[] statisticsName;
+    private final double[] statistic;
+    private final double[] best;
+    private final double meanEvaluations;
+    private final double meanTimeSeconds;
+
+    ExperimentResult(String problem, String configuration, int executions, String[] statisticsName,
+            double[] statistic, double[] best, double meanEvaluations, double meanTimeSeconds) {
+        this.problem = problem;
+        this.configuration = configuration;
+        this.executions = executions;
+        this.statisticsName = statisticsName;
+        this.statistic = statistic;
+        this.best = best;
+        this.meanEvaluations = meanEvaluations;
+        this.meanTimeSeconds = meanTimeSeconds;
+    }
+
+    /**
+     * Returns the name of the problem.
+     *
+     * @return the problem
+     */
+    public String getProblem() {
+        return problem;
+    }
+
+    /**
+     * Returns the name of the configuration.
+     *
+     * @return the configuration
+     */
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Returns the number of executions.
+     *
+     * @return the executions
+     */
+    public int getExecutions() {
+        return executions;
+    }
+
+    /**
+     * Returns the names of the statistics.
+     *
+     * @return the statisticsName
+     */
+    public String[] getStatisticsName() {
+        return statisticsName.clone();
+    }
+
+    /**
+     * Returns the statistics, in the order of {@link #getStatisticsName()}.
+     *
+     * @return the statistics
+     */
+    public double[] getStatistic() {
+        return statistic.clone();
+    }
+
+    /**
+     * Returns the best solution of all the executions: the variables, the
+     * step sizes, the objective function value and the sum of constraint
+     * violations.
+     *
+     * @return the best solution
+     */
+    public double[] getBest() {
+        return best.clone();
+    }
+
+    /**
+     * Returns the average evaluations of an execution.
+     *
+     * @return the mean evaluations
+     */
+    public double getMeanEvaluations() {
+        return meanEvaluations;
+    }
+
+    /**
+     * Returns the average time of an execution.
+     *
+     * @return the mean time in seconds
+     */
+    public double getMeanTimeSeconds() {
+        return meanTimeSeconds;
+    }
+
+}
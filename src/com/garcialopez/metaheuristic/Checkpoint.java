@@ -0,0 +1,522 @@
+package com.garcialopez.metaheuristic;
+
+import com.garcialopez.optimizationmodel.CNOP;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Checkpoint class saves the state of a long run in compact binary files, so
+ * that the run can be resumed after a crash.
+ * <br>
+ * The state is kept in two files: the file of the run, with the results of the
+ * executions that finished, which is written once per execution, and the file
+ * of the execution in progress (the same name with the extension
+ * {@code .execution}), which is written every few seconds and only holds the
+ * population, the counters and the random numbers of one execution. This way
+ * the cost of a checkpoint does not grow with the length of the run.
+ * <br>
+ * Each file is written with a {@link FileChannel} to a temporary file, forced
+ * to the disk and then moved over the previous one, so a crash while writing
+ * never leaves a broken checkpoint. The values are written in big-endian
+ * order, after a header with a magic number and the version of the format.
+ * The metaheuristic decides what is written, with {@link Output}, and reads
+ * it back in the same order with {@link Input}.
+ * <br>
+ * A checkpoint is used by a single thread.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class Checkpoint {
+
+    private static final int MAGIC = 0x4A4D4243;
+    private static final int VERSION = 2;
+
+    private final Path file;
+    private final Path executionFile;
+    private final long intervalNanos;
+    private long lastNanos = System.nanoTime();
+
+    // Buffer reused by all the checkpoints, it only grows
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+    /**
+     * Creates the checkpoints of a run.
+     *
+     * @param file the file of the run.
+     * @param intervalMillis the minimum time between two checkpoints of an
+     * execution, in milliseconds.
+     */
+    public Checkpoint(Path file, long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("The interval of the checkpoints can not be negative.");
+        }
+        this.file = file;
+        this.executionFile = file.resolveSibling(file.getFileName() + ".execution");
+        this.intervalNanos = intervalMillis * 1_000_000L;
+    }
+
+    /**
+     * Returns the file of the run.
+     *
+     * @return the file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the file of the execution in progress.
+     *
+     * @return the file.
+     */
+    public Path getExecutionFile() {
+        return executionFile;
+    }
+
+    /**
+     * Returns true if the interval has passed since the last checkpoint of an
+     * execution.
+     *
+     * @return true if a checkpoint of the execution must be written.
+     */
+    public boolean isDue() {
+        return System.nanoTime() - this.lastNanos >= this.intervalNanos;
+    }
+
+    /**
+     * Starts a checkpoint: the values written to the returned output are
+     * saved with {@link #saveRun()} or {@link #saveExecution()}. The output
+     * writes to the buffer of the checkpoint, so only the last one started
+     * is saved.
+     *
+     * @return the output.
+     */
+    public Output begin() {
+        this.buffer.clear();
+        this.buffer.putInt(MAGIC);
+        this.buffer.putInt(VERSION);
+        return new Output();
+    }
+
+    /**
+     * Saves the checkpoint of the run, with the values written since
+     * {@link #begin()}.
+     *
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    public void saveRun() {
+        this.write(this.file);
+    }
+
+    /**
+     * Saves the checkpoint of the execution in progress, with the values
+     * written since {@link #begin()}, and starts the interval again.
+     *
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    public void saveExecution() {
+        this.write(this.executionFile);
+        this.lastNanos = System.nanoTime();
+    }
+
+    /**
+     * Reads the checkpoint of the run.
+     *
+     * @return the values of the checkpoint, or null if there is no file.
+     * @throws UncheckedIOException if the file cannot be read.
+     * @throws IllegalStateException if the file is not a checkpoint.
+     */
+    public Input loadRun() {
+        return this.read(this.file);
+    }
+
+    /**
+     * Reads the checkpoint of the execution in progress.
+     *
+     * @return the values of the checkpoint, or null if there is no file.
+     * @throws UncheckedIOException if the file cannot be read.
+     * @throws IllegalStateException if the file is not a checkpoint.
+     */
+    public Input loadExecution() {
+        return this.read(this.executionFile);
+    }
+
+    /**
+     * Deletes the files of the checkpoint, when the run has finished.
+     *
+     * @throws UncheckedIOException if a file cannot be deleted.
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(this.executionFile);
+            Files.deleteIfExists(this.file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Path target) {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        this.buffer.flip();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (this.buffer.hasRemaining()) {
+                channel.write(this.buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Input read(Path source) {
+        if (!Files.exists(source)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    break;
+                }
+            }
+            data.flip();
+            if (data.remaining() < 8 || data.getInt() != MAGIC) {
+                throw new IllegalStateException(source + " is not a checkpoint of JMetaBFOP.");
+            }
+            int version = data.getInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Version " + version + " of the checkpoint " + source
+                        + " is not supported.");
+            }
+            return new Input(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Makes room in the buffer for the given number of bytes.
+     *
+     * @param bytes the bytes that will be written.
+     */
+    private void ensure(int bytes) {
+        if (this.buffer.remaining() < bytes) {
+            int capacity = Math.max(this.buffer.capacity() * 2, this.buffer.position() + bytes);
+            ByteBuffer larger = ByteBuffer.allocate(capacity);
+            this.buffer.flip();
+            larger.put(this.buffer);
+            this.buffer = larger;
+        }
+    }
+
+    /**
+     * Values written to a checkpoint.
+     */
+    public final class Output {
+
+        private Output() {
+        }
+
+        /**
+         * Writes an integer.
+         *
+         * @param value the value.
+         */
+        public void putInt(int value) {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        /**
+         * Writes a long integer.
+         *
+         * @param value the value.
+         */
+        public void putLong(long value) {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        /**
+         * Writes a real number.
+         *
+         * @param value the value.
+         */
+        public void putDouble(double value) {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Writes a text in UTF-8.
+         *
+         * @param value the text.
+         */
+        public void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.putInt(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Writes a vector of integers with its length.
+         *
+         * @param values the vector.
+         */
+        public void putInts(int[] values) {
+            this.putInt(values.length);
+            ensure(values.length * Integer.BYTES);
+            buffer.asIntBuffer().put(values);
+            buffer.position(buffer.position() + values.length * Integer.BYTES);
+        }
+
+        /**
+         * Writes a vector of long integers with its length.
+         *
+         * @param values the vector.
+         */
+        public void putLongs(long[] values) {
+            this.putInt(values.length);
+            ensure(values.length * Long.BYTES);
+            buffer.asLongBuffer().put(values);
+            buffer.position(buffer.position() + values.length * Long.BYTES);
+        }
+
+        /**
+         * Writes a vector of real numbers with its length.
+         *
+         * @param values the vector.
+         */
+        public void putDoubles(double[] values) {
+            this.putInt(values.length);
+            this.putValues(values, values.length);
+        }
+
+        private void putValues(double[] values, int length) {
+            ensure(length * Double.BYTES);
+            buffer.asDoubleBuffer().put(values, 0, length);
+            buffer.position(buffer.position() + length * Double.BYTES);
+        }
+
+        /**
+         * Writes the state of a generator of random numbers.
+         *
+         * @param random the generator.
+         * @throws UnsupportedOperationException if the state of the generator
+         * cannot be saved, see {@link NRandom#copy()}.
+         */
+        public void putRandom(NRandom random) {
+            long[] state = random.getState();
+            this.putLong(state[0]);
+            this.putLong(state[1]);
+        }
+
+        /**
+         * Writes all the individuals of a population, by rank.
+         *
+         * @param population the population.
+         */
+        public void putPopulation(Population population) {
+            int sizeValues = population.getNumberVariable() * 2 + 2;
+            this.putInt(population.getSize());
+            this.putInt(population.getNumberVariable());
+            double[] row = new double[sizeValues];
+            for (int r = 0; r < population.getSize(); r++) {
+                this.putValues(population.getRow(r, row), sizeValues);
+            }
+        }
+
+        /**
+         * Writes a convergence trace.
+         *
+         * @param trace the trace.
+         */
+        public void putTrace(ConvergenceTrace trace) {
+            trace.write(this);
+        }
+
+        /**
+         * Writes the best individuals and the statistics of a store.
+         *
+         * @param store the store.
+         */
+        public void putStore(ExecutionStore store) {
+            store.write(this);
+        }
+
+        /**
+         * Writes the progress of an execution.
+         *
+         * @param state the state.
+         */
+        public void putState(ExecutionState state) {
+            state.write(this);
+        }
+    }
+
+    /**
+     * Values read from a checkpoint, in the order in which they were written.
+     */
+    public static final class Input {
+
+        private final ByteBuffer data;
+
+        private Input(ByteBuffer data) {
+            this.data = data;
+        }
+
+        /**
+         * Reads an integer.
+         *
+         * @return the value.
+         */
+        public int getInt() {
+            return this.data.getInt();
+        }
+
+        /**
+         * Reads a long integer.
+         *
+         * @return the value.
+         */
+        public long getLong() {
+            return this.data.getLong();
+        }
+
+        /**
+         * Reads a real number.
+         *
+         * @return the value.
+         */
+        public double getDouble() {
+            return this.data.getDouble();
+        }
+
+        /**
+         * Reads a text.
+         *
+         * @return the text.
+         */
+        public String getString() {
+            byte[] bytes = new byte[this.getInt()];
+            this.data.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads a vector of integers.
+         *
+         * @return the vector.
+         */
+        public int[] getInts() {
+            int[] values = new int[this.getInt()];
+            this.data.asIntBuffer().get(values);
+            this.data.position(this.data.position() + values.length * Integer.BYTES);
+            return values;
+        }
+
+        /**
+         * Reads a vector of long integers.
+         *
+         * @return the vector.
+         */
+        public long[] getLongs() {
+            long[] values = new long[this.getInt()];
+            this.data.asLongBuffer().get(values);
+            this.data.position(this.data.position() + values.length * Long.BYTES);
+            return values;
+        }
+
+        /**
+         * Reads a vector of real numbers.
+         *
+         * @return the vector.
+         */
+        public double[] getDoubles() {
+            return this.getValues(this.getInt());
+        }
+
+        private double[] getValues(int length) {
+            double[] values = new double[length];
+            this.data.asDoubleBuffer().get(values);
+            this.data.position(this.data.position() + length * Double.BYTES);
+            return values;
+        }
+
+        /**
+         * Reads a generator of random numbers, which continues with the
+         * numbers of the saved one.
+         *
+         * @return the generator.
+         */
+        public NRandom getRandom() {
+            long seed = this.getLong();
+            return NRandom.restore(seed, this.getLong());
+        }
+
+        /**
+         * Reads a population.
+         *
+         * @param compactStepSizes true to store the step sizes as float values.
+         * @return the population, in the order of the ranks.
+         */
+        public Population getPopulation(boolean compactStepSizes) {
+            double[][] individuals = new double[this.getInt()][];
+            int sizeValues = this.getInt() * 2 + 2;
+            for (int r = 0; r < individuals.length; r++) {
+                individuals[r] = this.getValues(sizeValues);
+            }
+            return Population.fromMatrix(individuals, compactStepSizes);
+        }
+
+        /**
+         * Reads a convergence trace.
+         *
+         * @return the trace.
+         */
+        public ConvergenceTrace getTrace() {
+            return ConvergenceTrace.read(this);
+        }
+
+        /**
+         * Reads a store.
+         *
+         * @param cnop the CNOP optimized in the run.
+         * @return the store.
+         */
+        public ExecutionStore getStore(CNOP cnop) {
+            return ExecutionStore.read(this, cnop);
+        }
+
+        /**
+         * Reads the progress of an execution.
+         *
+         * @param runStartNanos the value of {@link System#nanoTime()} when the
+         * resumed run started, minus the time of the run before the
+         * checkpoint.
+         * @return the state.
+         */
+        public ExecutionState getState(long runStartNanos) {
+            return ExecutionState.read(this, runStartNanos);
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.garcialopez.metaheuristic;
+
+import java.util.Arrays;
+
+/**
+ * ConvergenceTrace class stores the convergence of an execution: pairs of
+ * (evaluations, objective function value of the best individual), usually one
+ * per generation.
+ * <br>
+ * The values are kept in primitive arrays that grow by doubling their size, so
+ * recording a point does not create objects. Optionally only one of every k
+ * points is kept (down-sampling); the last point added is always part of the
+ * trace, so the final value of the execution is never lost.
+ * <br>
+ * A trace is not thread-safe.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class ConvergenceTrace {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final int sampling;
+
+    private long[] x;
+    private double[] y;
+    private int size;
+
+    // Number of points added, kept or not
+    private long added;
+
+    // Last point added when it was not kept by the down-sampling
+    private boolean pending;
+    private long pendingX;
+    private double pendingY;
+
+    // Matrix returned by toArray, until a point is added
+    private double[][] array;
+
+    /**
+     * Creates an empty trace that keeps all the points.
+     */
+    public ConvergenceTrace() {
+        this(DEFAULT_CAPACITY, 1);
+    }
+
+    /**
+     * Creates an empty trace.
+     *
+     * @param capacity the expected number of points, for example the number
+     * of generations. The trace grows if more points are added.
+     * @param sampling keep one of every {@code sampling} points; 1 keeps all
+     * of them.
+     */
+    public ConvergenceTrace(int capacity, int sampling) {
+        if (sampling < 1) {
+            throw new IllegalArgumentException("The sampling must be at least 1");
+        }
+        this.sampling = sampling;
+        int kept = Math.max(1, capacity / sampling + 1);
+        this.x = new long[kept];
+        this.y = new double[kept];
+    }
+
+    /**
+     * Adds a point to the trace.
+     *
+     * @param x the evaluations performed.
+     * @param y the objective function value of the best individual.
+     */
+    public void add(long x, double y) {
+        if (this.added++ % this.sampling == 0) {
+            this.store(x, y);
+            this.pending = false;
+        } else {
+            this.pending = true;
+            this.pendingX = x;
+            this.pendingY = y;
+        }
+        this.array = null;
+    }
+
+    /**
+     * Adds all the points of another trace.
+     *
+     * @param trace the trace to add.
+     */
+    public void addAll(ConvergenceTrace trace) {
+        for (int i = 0; i < trace.size(); i++) {
+            this.add(trace.getX(i), trace.getY(i));
+        }
+    }
+
+    private void store(long x, double y) {
+        if (this.size == this.x.length) {
+            int capacity = this.size * 2;
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+        }
+        this.x[this.size] = x;
+        this.y[this.size] = y;
+        this.size++;
+    }
+
+    /**
+     * Returns the number of points of the trace.
+     *
+     * @return the number of points.
+     */
+    public int size() {
+        return this.pending ? this.size + 1 : this.size;
+    }
+
+    /**
+     * Returns the evaluations of a point.
+     *
+     * @param index the position of the point.
+     * @return the evaluations.
+     */
+    public long getX(int index) {
+        return (index == this.size && this.pending) ? this.pendingX : this.x[index];
+    }
+
+    /**
+     * Returns the objective function value of a point.
+     *
+     * @param index the position of the point.
+     * @return the objective function value.
+     */
+    public double getY(int index) {
+        return (index == this.size && this.pending) ? this.pendingY : this.y[index];
+    }
+
+    /**
+     * Removes all the points.
+     */
+    public void clear() {
+        this.size = 0;
+        this.added = 0;
+        this.pending = false;
+        this.array = null;
+    }
+
+    /**
+     * Writes the trace to a checkpoint.
+     *
+     * @param output the checkpoint.
+     */
+    void write(Checkpoint.Output output) {
+        output.putInt(this.sampling);
+        output.putLong(this.added);
+        output.putInt(this.pending ? 1 : 0);
+        output.putLong(this.pendingX);
+        output.putDouble(this.pendingY);
+        output.putInt(this.size);
+        for (int i = 0; i < this.size; i++) {
+            output.putLong(this.x[i]);
+            output.putDouble(this.y[i]);
+        }
+    }
+
+    /**
+     * Reads a trace written with {@link #write(Checkpoint.Output)}.
+     *
+     * @param input the checkpoint.
+     * @return the trace.
+     */
+    static ConvergenceTrace read(Checkpoint.Input input) {
+        int sampling = input.getInt();
+        long added = input.getLong();
+        boolean pending = input.getInt() == 1;
+        long pendingX = input.getLong();
+        double pendingY = input.getDouble();
+        int size = input.getInt();
+
+        ConvergenceTrace trace = new ConvergenceTrace(size * sampling, sampling);
+        for (int i = 0; i < size; i++) {
+            trace.store(input.getLong(), input.getDouble());
+        }
+        trace.added = added;
+        trace.pending = pending;
+        trace.pendingX = pendingX;
+        trace.pendingY = pendingY;
+        return trace;
+    }
+
+    /**
+     * Returns the trace as a matrix: the evaluations in the first row and the
+     * objective function values in the second one. The matrix is created again
+     * only after the trace changes, so it must not be modified.
+     *
+     * @return the trace as a matrix of 2 x size.
+     */
+    public double[][] toArray() {
+        if (this.array == null) {
+            int points = this.size();
+            double[][] matrix = new double[2][points];
+            for (int i = 0; i < points; i++) {
+                matrix[0][i] = this.getX(i);
+                matrix[1][i] = this.getY(i);
+            }
+            this.array = matrix;
+        }
+        return this.array;
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.garcialopez.metaheuristic;
+
+/**
+ * ExecutionState class holds the progress of one independent execution of a
+ * metaheuristic: evaluations, generations, time and best individual found. It
+ * is updated by the metaheuristic after each generation and is read by the
+ * {@link TerminationCriterion}.
+ * <br>
+ * An instance belongs to a single execution and is only updated by the thread
+ * that performs it.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class ExecutionState {
+
+    private final int execution;
+    private final long runStartNanos;
+    private long executionStartNanos;
+    private final int evaluationsPerGeneration;
+    private final double bestKnownValue;
+
+    private int evaluations;
+    private int generations;
+    private double bestObjectiveFunction = Double.NaN;
+    private double bestSumConstraintViolation = Double.NaN;
+    private int stagnantGenerations;
+
+    /**
+     * Creates the state at the beginning of an execution.
+     *
+     * @param execution the number of the execution, starting at 0.
+     * @param runStartNanos the value of {@link System#nanoTime()} when the run
+     * (all the executions) started.
+     * @param evaluationsPerGeneration the number of evaluations performed in
+     * one generation.
+     * @param bestKnownValue the best known value of the CNOP.
+     */
+    public ExecutionState(int execution, long runStartNanos, int evaluationsPerGeneration, double bestKnownValue) {
+        this.execution = execution;
+        this.runStartNanos = runStartNanos;
+        this.executionStartNanos = System.nanoTime();
+        this.evaluationsPerGeneration = evaluationsPerGeneration;
+        this.bestKnownValue = bestKnownValue;
+    }
+
+    /**
+     * Updates the state after a generation. The number of generations without
+     * improvement increases unless the best individual is better, according to
+     * the feasibility rules, than the previous one.
+     *
+     * @param evaluations the evaluations performed so far.
+     * @param generations the generations performed so far.
+     * @param best the best individual of the population; the objective
+     * function and the sum of constraint violations are read from its last two
+     * positions.
+     * @return true if the best individual improved.
+     */
+    public boolean update(int evaluations, int generations, double[] best) {
+        this.evaluations = evaluations;
+        this.generations = generations;
+
+        double objectiveFunction = best[best.length - 2];
+        double sumConstraintViolation = best[best.length - 1];
+
+        if (Double.isNaN(this.bestSumConstraintViolation)
+                || isBetter(objectiveFunction, sumConstraintViolation)) {
+            this.bestObjectiveFunction = objectiveFunction;
+            this.bestSumConstraintViolation = sumConstraintViolation;
+            this.stagnantGenerations = 0;
+            return true;
+        }
+        this.stagnantGenerations++;
+        return false;
+    }
+
+    private boolean isBetter(double objectiveFunction, double sumConstraintViolation) {
+        if (sumConstraintViolation == 0 && this.bestSumConstraintViolation == 0) {
+            return objectiveFunction < this.bestObjectiveFunction;
+        }
+        if (sumConstraintViolation == 0 || this.bestSumConstraintViolation == 0) {
+            return sumConstraintViolation == 0;
+        }
+        return sumConstraintViolation < this.bestSumConstraintViolation;
+    }
+
+    /**
+     * Writes the state to a checkpoint, with the time of the execution so
+     * far.
+     *
+     * @param output the checkpoint.
+     */
+    void write(Checkpoint.Output output) {
+        output.putInt(this.execution);
+        output.putInt(this.evaluationsPerGeneration);
+        output.putDouble(this.bestKnownValue);
+        output.putInt(this.evaluations);
+        output.putInt(this.generations);
+        output.putDouble(this.bestObjectiveFunction);
+        output.putDouble(this.bestSumConstraintViolation);
+        output.putInt(this.stagnantGenerations);
+        output.putLong(this.getExecutionTimeNanos());
+    }
+
+    /**
+     * Reads a state written with {@link #write(Checkpoint.Output)}. The time
+     * of the execution continues from the time saved.
+     *
+     * @param input the checkpoint.
+     * @param runStartNanos the start time of the run.
+     * @return the state.
+     */
+    static ExecutionState read(Checkpoint.Input input, long runStartNanos) {
+        int execution = input.getInt();
+        int evaluationsPerGeneration = input.getInt();
+        ExecutionState state = new ExecutionState(execution, runStartNanos,
+                evaluationsPerGeneration, input.getDouble());
+        state.evaluations = input.getInt();
+        state.generations = input.getInt();
+        state.bestObjectiveFunction = input.getDouble();
+        state.bestSumConstraintViolation = input.getDouble();
+        state.stagnantGenerations = input.getInt();
+        state.executionStartNanos -= input.getLong();
+        return state;
+    }
+
+    /**
+     * Returns the number of the execution, starting at 0.
+     *
+     * @return the execution
+     */
+    public int getExecution() {
+        return execution;
+    }
+
+    /**
+     * Returns the evaluations performed so far.
+     *
+     * @return the evaluations
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns the number of evaluations performed in one generation.
+     *
+     * @return the evaluations per generation
+     */
+    public int getEvaluationsPerGeneration() {
+        return evaluationsPerGeneration;
+    }
+
+    /**
+     * Returns the generations performed so far.
+     *
+     * @return the generations
+     */
+    public int getGenerations() {
+        return generations;
+    }
+
+    /**
+     * Returns the objective function value of the best individual.
+     *
+     * @return the best objective function value
+     */
+    public double getBestObjectiveFunction() {
+        return bestObjectiveFunction;
+    }
+
+    /**
+     * Returns the sum of constraint violations of the best individual.
+     *
+     * @return the best sum of constraint violations
+     */
+    public double getBestSumConstraintViolation() {
+        return bestSumConstraintViolation;
+    }
+
+    /**
+     * Returns the best known value of the CNOP.
+     *
+     * @return the best known value
+     */
+    public double getBestKnownValue() {
+        return bestKnownValue;
+    }
+
+    /**
+     * Returns the number of consecutive generations in which the best
+     * individual has not improved.
+     *
+     * @return the stagnant generations
+     */
+    public int getStagnantGenerations() {
+        return stagnantGenerations;
+    }
+
+    /**
+     * Returns the nanoseconds elapsed since the execution started.
+     *
+     * @return the time of the execution
+     */
+    public long getExecutionTimeNanos() {
+        return System.nanoTime() - this.executionStartNanos;
+    }
+
+    /**
+     * Returns the nanoseconds elapsed since the run (all the executions)
+     * started.
+     *
+     * @return the time of the run
+     */
+    public long getRunTimeNanos() {
+        return System.nanoTime() - this.runStartNanos;
+    }
+
+}
@@ -0,0 +1,367 @@
+package com.garcialopez.metaheuristic;
+
+import com.garcialopez.optimizationmodel.CNOP;
+import java.util.Arrays;
+
+/**
+ * ExecutionStore class collects the best individual of each independent
+ * execution of a run and calculates the statistics of the run with bounded
+ * memory, so that a run can have thousands of executions.
+ * <br>
+ * The first individuals are kept, up to the capacity of the store. While all
+ * the individuals are kept, the statistics are calculated with them exactly
+ * as {@link Statistics#summary(double[][], int[], CNOP)}. When there are more
+ * executions than the capacity, the statistics are calculated online with all
+ * the executions: the mean and the standard deviation with the algorithm of
+ * Welford, the median with the P<sup>2</sup> algorithm of Jain and Chlamtac
+ * (an estimate) and the rest with counters.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class ExecutionStore {
+
+    /**
+     * Default number of individuals kept.
+     */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final CNOP cnop;
+    private final int capacity;
+
+    // Individuals kept, and the matrix returned until one is added
+    private double[][] rows = new double[16][];
+    private double[][] rowsView;
+    private int retained;
+
+    // Online statistics of the objective function of all the individuals
+    private long count;
+    private double mean;
+    private double m2;
+    private double minimum = Double.POSITIVE_INFINITY;
+    private double maximum = Double.NEGATIVE_INFINITY;
+    private final P2Median median = new P2Median();
+    private long feasible;
+    private long successful;
+
+    /**
+     * Creates a store that keeps up to {@link #DEFAULT_CAPACITY} individuals.
+     *
+     * @param cnop the CNOP optimized.
+     */
+    public ExecutionStore(CNOP cnop) {
+        this(cnop, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a store.
+     *
+     * @param cnop the CNOP optimized, or null to keep the individuals without
+     * counting the successful executions nor calculating the summary.
+     * @param capacity the maximum number of individuals kept.
+     */
+    public ExecutionStore(CNOP cnop, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the store must be at least 1.");
+        }
+        this.cnop = cnop;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds the best individual of an execution.
+     *
+     * @param individual the individual: the variables, the step sizes, the
+     * objective function value and the sum of constraint violations.
+     */
+    public void add(double[] individual) {
+        if (this.retained < this.capacity) {
+            if (this.retained == this.rows.length) {
+                this.rows = Arrays.copyOf(this.rows, Math.min(this.capacity, this.rows.length * 2));
+            }
+            this.rows[this.retained++] = individual;
+            this.rowsView = null;
+        }
+
+        double objectiveFunction = individual[individual.length - 2];
+
+        // Welford
+        this.count++;
+        double delta = objectiveFunction - this.mean;
+        this.mean += delta / this.count;
+        this.m2 += delta * (objectiveFunction - this.mean);
+
+        this.minimum = Math.min(this.minimum, objectiveFunction);
+        this.maximum = Math.max(this.maximum, objectiveFunction);
+        this.median.add(objectiveFunction);
+
+        if (individual[individual.length - 1] == 0) {
+            this.feasible++;
+        }
+        if (this.cnop != null && objectiveFunction - this.cnop.getBestKnownValue() <= Statistics.SUCCESS_TOLERANCE) {
+            this.successful++;
+        }
+    }
+
+    /**
+     * Returns the number of individuals added.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the maximum number of individuals kept.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns whether all the individuals added are kept.
+     *
+     * @return true if the statistics are exact.
+     */
+    public boolean isComplete() {
+        return this.count == this.retained;
+    }
+
+    /**
+     * Returns the individuals kept, in the order in which they were added.
+     * The matrix is only created again after an individual is added, so it
+     * must not be modified.
+     *
+     * @return the individuals.
+     */
+    public double[][] getRows() {
+        if (this.rowsView == null) {
+            this.rowsView = Arrays.copyOf(this.rows, this.retained);
+        }
+        return this.rowsView;
+    }
+
+    /**
+     * Returns the mean of the objective function of all the individuals.
+     *
+     * @return the mean.
+     */
+    public double getMean() {
+        return (this.count == 0) ? Double.NaN : this.mean;
+    }
+
+    /**
+     * Returns the standard deviation of the objective function of all the
+     * individuals, dividing by the number of individuals as
+     * {@link Statistics#standardDeviation(double[])}.
+     *
+     * @return the standard deviation.
+     */
+    public double getStandardDeviation() {
+        return (this.count == 0) ? Double.NaN : Math.sqrt(this.m2 / this.count);
+    }
+
+    /**
+     * Returns the median of the objective function of all the individuals,
+     * estimated with the P<sup>2</sup> algorithm.
+     *
+     * @return the median.
+     */
+    public double getMedian() {
+        return this.median.getValue();
+    }
+
+    /**
+     * Returns the minimum of the objective function of all the individuals.
+     *
+     * @return the minimum.
+     */
+    public double getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * Returns the maximum of the objective function of all the individuals.
+     *
+     * @return the maximum.
+     */
+    public double getMaximum() {
+        return maximum;
+    }
+
+    /**
+     * Calculates the statistics of the run, in the order of
+     * {@link MetaheuristicBase#getStatisticsName()}.
+     *
+     * @param sccp the evaluations in which each execution reached the best
+     * known value, 0 if it did not reach it.
+     * @return the statistics.
+     * @throws IllegalStateException if the store has no CNOP.
+     */
+    public double[] summary(int[] sccp) {
+        if (this.cnop == null) {
+            throw new IllegalStateException("The summary of the store needs the CNOP optimized.");
+        }
+        Statistics st = new Statistics();
+        if (this.isComplete()) {
+            return st.summary(this.getRows(), sccp, this.cnop);
+        }
+
+        boolean minimization = this.cnop.getType().equals(CNOP.MINIMIZATION);
+        double[] summary = new double[8];
+        summary[0] = (minimization) ? this.minimum : this.maximum;
+        summary[1] = this.getMean();
+        summary[2] = this.getMedian();
+        summary[3] = this.getStandardDeviation();
+        summary[4] = (minimization) ? this.maximum : this.minimum;
+        // Integer percentages, as the rates of Statistics
+        summary[5] = (100 * this.feasible) / this.count;
+        summary[6] = (100 * this.successful) / this.count;
+        summary[7] = st.successPerformance(sccp);
+        return summary;
+    }
+
+    /**
+     * Writes the individuals kept and the online statistics to a checkpoint.
+     *
+     * @param output the checkpoint.
+     */
+    void write(Checkpoint.Output output) {
+        output.putInt(this.capacity);
+        output.putInt(this.retained);
+        for (int i = 0; i < this.retained; i++) {
+            output.putDoubles(this.rows[i]);
+        }
+        output.putLong(this.count);
+        output.putDouble(this.mean);
+        output.putDouble(this.m2);
+        output.putDouble(this.minimum);
+        output.putDouble(this.maximum);
+        output.putLong(this.feasible);
+        output.putLong(this.successful);
+        output.putDoubles(this.median.heights);
+        output.putDoubles(this.median.positions);
+        output.putDoubles(this.median.desired);
+        output.putInt(this.median.count);
+    }
+
+    /**
+     * Reads a store written with {@link #write(Checkpoint.Output)}.
+     *
+     * @param input the checkpoint.
+     * @param cnop the CNOP optimized.
+     * @return the store.
+     */
+    static ExecutionStore read(Checkpoint.Input input, CNOP cnop) {
+        ExecutionStore store = new ExecutionStore(cnop, input.getInt());
+        int retained = input.getInt();
+        store.rows = new double[Math.max(16, retained)][];
+        for (int i = 0; i < retained; i++) {
+            store.rows[i] = input.getDoubles();
+        }
+        store.retained = retained;
+        store.count = input.getLong();
+        store.mean = input.getDouble();
+        store.m2 = input.getDouble();
+        store.minimum = input.getDouble();
+        store.maximum = input.getDouble();
+        store.feasible = input.getLong();
+        store.successful = input.getLong();
+        System.arraycopy(input.getDoubles(), 0, store.median.heights, 0, 5);
+        System.arraycopy(input.getDoubles(), 0, store.median.positions, 0, 5);
+        System.arraycopy(input.getDoubles(), 0, store.median.desired, 0, 5);
+        store.median.count = input.getInt();
+        return store;
+    }
+
+    /**
+     * Estimator of the median of a stream of values with the P<sup>2</sup>
+     * algorithm, which keeps five markers instead of the values.
+     */
+    private static final class P2Median {
+
+        private final double[] heights = new double[5];
+        private final double[] positions = {1, 2, 3, 4, 5};
+        private final double[] desired = {1, 2, 3, 4, 5};
+        private final double[] increments = {0, 0.25, 0.5, 0.75, 1};
+        private int count;
+
+        private void add(double value) {
+            if (this.count < 5) {
+                this.heights[this.count++] = value;
+                if (this.count == 5) {
+                    Arrays.sort(this.heights);
+                }
+                return;
+            }
+            this.count++;
+
+            // Cell of the value, extending the extremes if needed
+            int k;
+            if (value < this.heights[0]) {
+                this.heights[0] = value;
+                k = 0;
+            } else if (value >= this.heights[4]) {
+                this.heights[4] = value;
+                k = 3;
+            } else {
+                k = 0;
+                while (value >= this.heights[k + 1]) {
+                    k++;
+                }
+            }
+
+            for (int i = k + 1; i < 5; i++) {
+                this.positions[i]++;
+            }
+            for (int i = 0; i < 5; i++) {
+                this.desired[i] += this.increments[i];
+            }
+
+            // The three middle markers are moved towards their desired positions
+            for (int i = 1; i < 4; i++) {
+                double d = this.desired[i] - this.positions[i];
+                if ((d >= 1 && this.positions[i + 1] - this.positions[i] > 1)
+                        || (d <= -1 && this.positions[i - 1] - this.positions[i] < -1)) {
+                    int sign = (d > 0) ? 1 : -1;
+                    double height = this.parabolic(i, sign);
+                    if (this.heights[i - 1] < height && height < this.heights[i + 1]) {
+                        this.heights[i] = height;
+                    } else {
+                        this.heights[i] += sign * (this.heights[i + sign] - this.heights[i])
+                                / (this.positions[i + sign] - this.positions[i]);
+                    }
+                    this.positions[i] += sign;
+                }
+            }
+        }
+
+        private double parabolic(int i, int sign) {
+            return this.heights[i] + sign / (this.positions[i + 1] - this.positions[i - 1])
+                    * ((this.positions[i] - this.positions[i - 1] + sign)
+                    * (this.heights[i + 1] - this.heights[i]) / (this.positions[i + 1] - this.positions[i])
+                    + (this.positions[i + 1] - this.positions[i] - sign)
+                    * (this.heights[i] - this.heights[i - 1]) / (this.positions[i] - this.positions[i - 1]));
+        }
+
+        private double getValue() {
+            if (this.count == 0) {
+                return Double.NaN;
+            }
+            if (this.count < 5) {
+                double[] values = Arrays.copyOf(this.heights, this.count);
+                Arrays.sort(values);
+                int position = this.count / 2;
+                return (this.count % 2 == 0) ? (values[position - 1] + values[position]) / 2 : values[position];
+            }
+            return this.heights[2];
+        }
+    }
+
+}
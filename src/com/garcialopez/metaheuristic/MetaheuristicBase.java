@@ -1,7 +1,11 @@
 package com.garcialopez.metaheuristic;
 
+import com.garcialopez.optimizationmodel.CNOP;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The base class for metaheuristic algorithms.
@@ -23,34 +27,73 @@ public class MetaheuristicBase {
     private int evaluations = 30000;
     private int executions = 1;
     private int gmax = 0;
+    private Long seed = null;
+    private final List<TerminationCriterion> terminationCriteria = new ArrayList<>();
+    private final List<MetaheuristicListener> listeners = new ArrayList<>();
+    private AtomicBoolean stopRequested = new AtomicBoolean();
 
-    private List<double[]> bestResultsAux;
-    private double[][] bestResults;
+    private ExecutionStore executionStore;
+    private int retainedResults = ExecutionStore.DEFAULT_CAPACITY;
     private List<Double> statistics;
 
-    private List<Double> y_bestSolutionConvergenceMedia;
-    private List<Double> x_convergenceMedia;
-
-    private List<Double> y_bestSolutionConvergence;
-    private List<Double> x_convergence;
+    private ConvergenceTrace convergenceMedia;
+    private ConvergenceTrace convergence;
+    private int convergenceSampling = 1;
 
     private double[][] individuals;
 
     private long timeSeconds;
+    private long timeNanos;
+    private long[] executionTimeNanos = {};
+    private int[] executionEvaluations = {};
     private int advance = 0;
 
     /**
-     * Initializes the result data structures.
+     * Initializes the result data structures, without the CNOP: the best
+     * results are kept, but the store does not count the successful
+     * executions nor calculate the statistics. Use
+     * {@link #iniResults(CNOP)} instead.
      */
     public void iniResults() {
-        this.bestResultsAux = new ArrayList();
-        this.statistics = new ArrayList();
+        this.iniResults(null);
+    }
 
-        this.y_bestSolutionConvergenceMedia = new ArrayList();
-        this.x_convergenceMedia = new ArrayList();
+    /**
+     * Initializes the result data structures.
+     *
+     * @param cnop the CNOP optimized in the run.
+     */
+    public void iniResults(CNOP cnop) {
+        this.executionStore = new ExecutionStore(cnop, this.retainedResults);
+        this.statistics = new ArrayList<>();
 
-        this.y_bestSolutionConvergence = new ArrayList();
-        this.x_convergence = new ArrayList();
+        this.convergenceMedia = new ConvergenceTrace();
+        this.convergence = new ConvergenceTrace();
+    }
+
+    /**
+     * Writes the results of the run so far to a checkpoint: the best
+     * individuals and the convergence data.
+     *
+     * @param output the checkpoint.
+     */
+    protected void saveResults(Checkpoint.Output output) {
+        output.putStore(this.executionStore);
+        output.putTrace(this.convergenceMedia);
+        output.putTrace(this.convergence);
+    }
+
+    /**
+     * Replaces the results of the run with the ones read from a checkpoint
+     * written with {@link #saveResults(Checkpoint.Output)}.
+     *
+     * @param input the checkpoint.
+     * @param cnop the CNOP optimized in the run.
+     */
+    protected void restoreResults(Checkpoint.Input input, CNOP cnop) {
+        this.executionStore = input.getStore(cnop);
+        this.convergenceMedia = input.getTrace();
+        this.convergence = input.getTrace();
     }
 
     /**
@@ -90,18 +133,250 @@ public class MetaheuristicBase {
     }
 
     /**
-     * Returns the best results.
+     * Adds a criterion to stop the executions before the evaluation budget
+     * is spent, for example {@code TerminationCriterion.maxRunTime(2,
+     * TimeUnit.SECONDS)}. An execution stops as soon as one criterion is met.
      *
-     * @return the best results.
+     * @param criterion the criterion to add.
      */
-    public double[][] getBestResults() {
-        this.bestResults = new double[bestResultsAux.size()][];
+    public void addTerminationCriterion(TerminationCriterion criterion) {
+        this.terminationCriteria.add(criterion);
+    }
+
+    /**
+     * Removes all the criteria added with {@link #addTerminationCriterion}.
+     * The evaluation budget still applies.
+     */
+    public void clearTerminationCriteria() {
+        this.terminationCriteria.clear();
+    }
+
+    /**
+     * Returns the criteria added with {@link #addTerminationCriterion}.
+     *
+     * @return the termination criteria.
+     */
+    public List<TerminationCriterion> getTerminationCriteria() {
+        return terminationCriteria;
+    }
+
+    /**
+     * Checks whether an execution must stop: the run was stopped, the next
+     * generation would exceed the evaluation budget or one of the termination
+     * criteria is met.
+     *
+     * @param state the progress of the execution.
+     * @return true to stop the execution.
+     */
+    public boolean isTerminationMet(ExecutionState state) {
+        if (this.stopRequested.get()) {
+            return true;
+        }
+        if (state.getEvaluations() + state.getEvaluationsPerGeneration() > this.evaluations) {
+            return true;
+        }
+        for (int i = 0; i < this.terminationCriteria.size(); i++) {
+            if (this.terminationCriteria.get(i).isMet(state)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops the run: the executions in progress stop before their next
+     * generation and the executions that did not start perform only their
+     * initial population. The results and statistics are calculated with what
+     * was found. It can be called from another thread or from a
+     * {@link MetaheuristicListener}.
+     */
+    public void stop() {
+        this.stopRequested.set(true);
+    }
+
+    /**
+     * Returns whether {@link #stop()} was called during the current run.
+     *
+     * @return true if the run was stopped.
+     */
+    public boolean isStopRequested() {
+        return this.stopRequested.get();
+    }
+
+    /**
+     * Prepares the stop request at the beginning of a run.
+     */
+    protected void resetStop() {
+        this.stopRequested.set(false);
+    }
+
+    /**
+     * Makes this metaheuristic stop when another one is stopped. It is used by
+     * the metaheuristics that perform executions on copies of themselves.
+     *
+     * @param other the metaheuristic that controls the run.
+     */
+    protected void shareStop(MetaheuristicBase other) {
+        this.stopRequested = other.stopRequested;
+    }
+
+    /**
+     * Adds a listener of the events of the run.
+     *
+     * @param listener the listener to add.
+     */
+    public void addListener(MetaheuristicListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener of the events of the run.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeListener(MetaheuristicListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Returns the listeners of the events of the run.
+     *
+     * @return the listeners.
+     */
+    public List<MetaheuristicListener> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * Returns whether there is any listener, so that the events are only
+     * prepared when someone receives them.
+     *
+     * @return true if there are listeners.
+     */
+    protected boolean hasListeners() {
+        return !this.listeners.isEmpty();
+    }
+
+    /**
+     * Notifies the listeners that a generation was completed.
+     *
+     * @param state the progress of the execution.
+     */
+    protected void fireGenerationCompleted(ExecutionState state) {
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).generationCompleted(state);
+        }
+    }
+
+    /**
+     * Notifies the listeners that the best individual of an execution improved.
+     *
+     * @param state the progress of the execution.
+     * @param best the new best individual.
+     */
+    protected void fireNewBestFound(ExecutionState state, double[] best) {
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).newBestFound(state, best);
+        }
+    }
+
+    /**
+     * Notifies the listeners that an execution finished.
+     *
+     * @param state the final progress of the execution.
+     * @param best the best individual of the execution.
+     */
+    protected void fireExecutionFinished(ExecutionState state, double[] best) {
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).executionFinished(state, best);
+        }
+    }
+
+    /**
+     * Notifies the listeners that the run finished.
+     */
+    protected void fireRunFinished() {
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).runFinished(this);
+        }
+    }
+
+    /**
+     * Returns the seed of the random numbers.
+     *
+     * @return the seed, or null if each run uses different random numbers.
+     */
+    public Long getSeed() {
+        return seed;
+    }
 
-        for (int i = 0; i < bestResults.length; i++) {
-            bestResults[i] = bestResultsAux.get(i);
+    /**
+     * Sets the seed of the random numbers. Two runs with the same seed and
+     * parameters give the same results, whatever the number of threads used.
+     *
+     * @param seed the seed to set, or null to use different random numbers in
+     * each run (the default).
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the parameters of the run by name, in the order in which they
+     * are described, e.g. to write them with the results. The subclasses add
+     * the parameters of their algorithm.
+     *
+     * @return the parameters.
+     */
+    public Map<String, String> getParameterValues() {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("Evaluations", String.valueOf(this.evaluations));
+        parameters.put("Executions", String.valueOf(this.executions));
+        parameters.put("Seed", String.valueOf(this.seed));
+        return parameters;
+    }
+
+    /**
+     * Creates the master generator of random numbers of a run, built with the
+     * seed. The generator of each execution is split in order from it.
+     *
+     * @return the master generator.
+     */
+    public NRandom createRandom() {
+        return (this.seed != null) ? new NRandom(this.seed) : new NRandom();
+    }
+
+    /**
+     * Creates one independent generator of random numbers for each
+     * execution, split in order from a master generator built with the seed.
+     *
+     * @return the generators, one per execution.
+     */
+    public NRandom[] splitRandom() {
+        NRandom master = this.createRandom();
+        NRandom[] randoms = new NRandom[this.executions];
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] = master.split();
         }
+        return randoms;
+    }
 
-        return bestResults;
+    /**
+     * Returns the best results: the best individual of each execution, only
+     * of the first {@link #getRetainedResults()} executions (1000 by
+     * default). When the run has more executions, the rest are not kept and
+     * {@link ExecutionStore#isComplete()} of {@link #getExecutionStore()} is
+     * false, but the statistics are calculated online with all of them;
+     * increase the retained results to keep them all.
+     * <br>
+     * The matrix and its rows are read-only: the matrix is shared by the calls
+     * until a result is added and the rows are the ones of the store, so they
+     * must not be modified (copy them to change them).
+     *
+     * @return the best results, read-only.
+     */
+    public double[][] getBestResults() {
+        return this.executionStore.getRows();
     }
 
     /**
@@ -110,7 +385,37 @@ public class MetaheuristicBase {
      * @param bestResults the best results to add.
      */
     public void addBestResults(double[] bestResults) {
-        this.bestResultsAux.add(bestResults);
+        this.executionStore.add(bestResults);
+    }
+
+    /**
+     * Returns the store with the best results of the executions of the last
+     * run.
+     *
+     * @return the execution store.
+     */
+    public ExecutionStore getExecutionStore() {
+        return executionStore;
+    }
+
+    /**
+     * Returns the maximum number of best results kept in memory.
+     *
+     * @return the retained results.
+     */
+    public int getRetainedResults() {
+        return retainedResults;
+    }
+
+    /**
+     * Sets the maximum number of best results kept in memory, by default
+     * {@link ExecutionStore#DEFAULT_CAPACITY}. With more executions the
+     * statistics are calculated online, see {@link ExecutionStore}.
+     *
+     * @param retainedResults the retained results to set.
+     */
+    public void setRetainedResults(int retainedResults) {
+        this.retainedResults = retainedResults;
     }
 
     /**
@@ -150,14 +455,7 @@ public class MetaheuristicBase {
      * @return the convergence data for the mean best solution.
      */
     public double[][] getConvergenceMedia() {
-        double[][] bestSolutionConvergence = new double[2][this.y_bestSolutionConvergenceMedia.size()];
-
-        for (int i = 0; i < bestSolutionConvergence[0].length; i++) {
-            bestSolutionConvergence[0][i] = this.x_convergenceMedia.get(i);
-            bestSolutionConvergence[1][i] = this.y_bestSolutionConvergenceMedia.get(i);
-        }
-
-        return bestSolutionConvergence;
+        return this.convergenceMedia.toArray();
     }
 
     /**
@@ -167,8 +465,17 @@ public class MetaheuristicBase {
      * @param y the y-coordinate of the data point.
      */
     public void addBestSolutionConvergenceMedia(double x, double y) {
-        this.x_convergenceMedia.add(x);
-        this.y_bestSolutionConvergenceMedia.add(y);
+        this.convergenceMedia.add((long) x, y);
+    }
+
+    /**
+     * Adds all the points of a trace to the convergence data for the mean best
+     * solution.
+     *
+     * @param trace the convergence of an execution.
+     */
+    public void addBestSolutionConvergenceMedia(ConvergenceTrace trace) {
+        this.convergenceMedia.addAll(trace);
     }
 
     /**
@@ -177,14 +484,7 @@ public class MetaheuristicBase {
      * @return the convergence data for the best solution.
      */
     public double[][] getConvergence() {
-        double[][] bestSolutionConvergence = new double[2][this.y_bestSolutionConvergence.size()];
-
-        for (int i = 0; i < bestSolutionConvergence[0].length; i++) {
-            bestSolutionConvergence[0][i] = this.x_convergence.get(i);
-            bestSolutionConvergence[1][i] = this.y_bestSolutionConvergence.get(i);
-        }
-
-        return bestSolutionConvergence;
+        return this.convergence.toArray();
     }
 
     /**
@@ -194,16 +494,46 @@ public class MetaheuristicBase {
      * @param y the y-coordinate of the data point.
      */
     public void addBestSolutionConvergence(List<Double> x, List<Double> y) {
-        this.x_convergence = x;
-        this.y_bestSolutionConvergence = y;
+        this.convergence = new ConvergenceTrace(x.size(), 1);
+        for (int i = 0; i < x.size(); i++) {
+            this.convergence.add(x.get(i).longValue(), y.get(i));
+        }
+    }
+
+    /**
+     * Sets the convergence data for the best solution.
+     *
+     * @param trace the convergence of the execution with the best solution.
+     */
+    public void addBestSolutionConvergence(ConvergenceTrace trace) {
+        this.convergence = trace;
     }
 
     /**
      * Clears the convergence data for the best solution.
      */
     public void clearConvergenceBestSolution() {
-        this.x_convergence = new ArrayList();
-        this.y_bestSolutionConvergence = new ArrayList();
+        this.convergence = new ConvergenceTrace();
+    }
+
+    /**
+     * Returns every how many generations a point of convergence is recorded.
+     *
+     * @return the convergence sampling.
+     */
+    public int getConvergenceSampling() {
+        return convergenceSampling;
+    }
+
+    /**
+     * Sets every how many generations a point of convergence is recorded. With
+     * 1 (the default) all the generations are recorded; higher values reduce
+     * the memory of long runs. The last generation is always recorded.
+     *
+     * @param convergenceSampling the convergence sampling to set.
+     */
+    public void setConvergenceSampling(int convergenceSampling) {
+        this.convergenceSampling = convergenceSampling;
     }
 
     /**
@@ -213,14 +543,15 @@ public class MetaheuristicBase {
      */
     public double[][] getDataGraphicsBestResults() {
 
-        int size = this.getBestResults().length;
-        int sizeCol = this.getBestResults()[0].length;
+        double[][] bestResults = this.getBestResults();
+        int size = bestResults.length;
+        int sizeCol = bestResults[0].length;
 
         double[][] data = new double[2][size];
 
         for (int i = 0; i < size; i++) {
             data[0][i] = i + 1;
-            data[1][i] = this.getBestResults()[i][sizeCol - 2];
+            data[1][i] = bestResults[i][sizeCol - 2];
         }
 
         return data;
@@ -262,6 +593,61 @@ public class MetaheuristicBase {
         this.timeSeconds = timeSeconds;
     }
 
+    /**
+     * Returns the time of the last run in nanoseconds.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    /**
+     * Sets the time of the last run in nanoseconds.
+     *
+     * @param timeNanos the time in nanoseconds to set.
+     */
+    public void setTimeNanos(long timeNanos) {
+        this.timeNanos = timeNanos;
+    }
+
+    /**
+     * Returns the time of each execution of the last run in nanoseconds.
+     *
+     * @return the time of each execution.
+     */
+    public long[] getExecutionTimeNanos() {
+        return executionTimeNanos;
+    }
+
+    /**
+     * Sets the time of each execution of the last run in nanoseconds.
+     *
+     * @param executionTimeNanos the time of each execution to set.
+     */
+    public void setExecutionTimeNanos(long[] executionTimeNanos) {
+        this.executionTimeNanos = executionTimeNanos;
+    }
+
+    /**
+     * Returns the evaluations performed by each execution of the last run,
+     * which are fewer than the budget when a termination criterion stops it.
+     *
+     * @return the evaluations of each execution.
+     */
+    public int[] getExecutionEvaluations() {
+        return executionEvaluations;
+    }
+
+    /**
+     * Sets the evaluations performed by each execution of the last run.
+     *
+     * @param executionEvaluations the evaluations of each execution to set.
+     */
+    public void setExecutionEvaluations(int[] executionEvaluations) {
+        this.executionEvaluations = executionEvaluations;
+    }
+
     /**
      * Returns the advance.
      *
@@ -0,0 +1,62 @@
+package com.garcialopez.metaheuristic;
+
+/**
+ * MetaheuristicListener provides an interface for following a run of a
+ * metaheuristic while it is performed, for example to show the progress or to
+ * send the best solution found so far to a client. All the methods do nothing
+ * by default, so a listener only implements the events it needs.
+ * <br>
+ * When the executions run concurrently ({@code setWorkers}), the events of
+ * different executions arrive from different threads at the same time, so the
+ * listener must be thread-safe. The {@link ExecutionState} and the individuals
+ * received belong to the running execution and change after the method
+ * returns; they must be copied to be kept. With the island model of TSMBFOA
+ * the generation and new best events come from each colony, and the execution
+ * finished event once per execution.
+ * <br>
+ * A listener can stop the run early with {@link MetaheuristicBase#stop()}.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public interface MetaheuristicListener {
+
+    /**
+     * Called after each generation of an execution.
+     *
+     * @param state the progress of the execution.
+     */
+    public default void generationCompleted(ExecutionState state) {
+    }
+
+    /**
+     * Called when the best individual of an execution improves, including the
+     * best individual of the initial population.
+     *
+     * @param state the progress of the execution.
+     * @param best the new best individual.
+     */
+    public default void newBestFound(ExecutionState state, double[] best) {
+    }
+
+    /**
+     * Called when an execution finishes.
+     *
+     * @param state the final progress of the execution.
+     * @param best the best individual of the execution.
+     */
+    public default void executionFinished(ExecutionState state, double[] best) {
+    }
+
+    /**
+     * Called when the run finishes, after the statistics are calculated.
+     *
+     * @param metaheuristic the metaheuristic with the results of the run.
+     */
+    public default void runFinished(MetaheuristicBase metaheuristic) {
+    }
+
+}
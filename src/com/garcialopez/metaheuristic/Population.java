@@ -2,12 +2,33 @@ package com.garcialopez.metaheuristic;
 
 import com.garcialopez.optimizationmodel.CNOP;
 import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * <b>Population</b> class is the initial process of the TS-MBFOA, where the
  * initial random population is created based on uniform distribution and using
  * the NumberRandom class. This class also has the mechanism to sort the
  * solution space for the CNOP based on feasibility rules.
+ * <br>
+ * An instance of Population stores the individuals of the bacterial foraging
+ * in flat primitive arrays instead of one row per individual: the positions,
+ * the step sizes, the objective function values and the sums of constraint
+ * violations. Each individual has a fixed slot in the arrays, and its rank in
+ * the population (0 is the best) is given by a permutation of the slots. This
+ * way sorting, selecting and replacing individuals moves int values, and the
+ * values of an individual are contiguous in memory.
+ * <br>
+ * The accessors receive the rank of the individual. The arrays can also be
+ * read directly with the slot returned by {@link #getSlot(int)}; the position
+ * j of the individual in slot s is at {@code s * getNumberVariable() + j}, the
+ * same for the step sizes.
+ * <br>
+ * For problems with thousands of variables the step sizes can be stored
+ * compactly, as {@code float} values: they are random values that are
+ * generated again in each generation, so their precision does not matter and
+ * the memory of the population is reduced by a quarter.
+ * <br>
+ * A Population is not thread-safe.
  *
  * @author <b>Adrian García-López</b><br>
  * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
@@ -17,6 +38,426 @@ import java.util.Arrays;
  */
 public class Population {
 
+    private final int size;
+    private final int numberVariable;
+
+    private final double[] positions;
+    // only one of the arrays of step sizes is used
+    private final double[] stepSizes;
+    private final float[] compactStepSizes;
+    private final double[] objectiveFunction;
+    private final double[] sumConstraintViolation;
+
+    // Slot of the individual in each rank, and auxiliary vector to sort them
+    private final int[] order;
+    private final int[] orderAux;
+
+    /**
+     * Creates a population with all its values in zero, ordered by slot.
+     *
+     * @param size the number of individuals.
+     * @param numberVariable the number of design variables of the CNOP.
+     */
+    public Population(int size, int numberVariable) {
+        this(size, numberVariable, false);
+    }
+
+    /**
+     * Creates a population with all its values in zero, ordered by slot.
+     *
+     * @param size the number of individuals.
+     * @param numberVariable the number of design variables of the CNOP.
+     * @param compactStepSizes true to store the step sizes as float values.
+     */
+    public Population(int size, int numberVariable, boolean compactStepSizes) {
+        this.size = size;
+        this.numberVariable = numberVariable;
+        this.positions = new double[size * numberVariable];
+        this.stepSizes = (compactStepSizes) ? null : new double[size * numberVariable];
+        this.compactStepSizes = (compactStepSizes) ? new float[size * numberVariable] : null;
+        this.objectiveFunction = new double[size];
+        this.sumConstraintViolation = new double[size];
+        this.order = new int[size];
+        this.orderAux = new int[size];
+        for (int i = 0; i < size; i++) {
+            this.order[i] = i;
+        }
+    }
+
+    /**
+     * Creates a population with the individuals of a population matrix, in the
+     * same order. Each row has the positions, the step sizes, the objective
+     * function value and the sum of constraint violations, as the rows created
+     * by {@link #startPopulation(CNOP, int, boolean)} with duplicateVariable.
+     *
+     * @param individuals the population matrix.
+     * @return the population.
+     */
+    public static Population fromMatrix(double[][] individuals) {
+        return fromMatrix(individuals, false);
+    }
+
+    /**
+     * Creates a population with the individuals of a population matrix, in the
+     * same order, as {@link #fromMatrix(double[][])}.
+     *
+     * @param individuals the population matrix.
+     * @param compactStepSizes true to store the step sizes as float values.
+     * @return the population.
+     */
+    public static Population fromMatrix(double[][] individuals, boolean compactStepSizes) {
+        Population population = new Population(individuals.length, (individuals[0].length - 2) / 2,
+                compactStepSizes);
+        for (int i = 0; i < individuals.length; i++) {
+            population.setRow(i, individuals[i]);
+        }
+        return population;
+    }
+
+    /**
+     * Returns the individuals as a population matrix ordered by rank. The
+     * matrix is a copy, changing it does not change the population.
+     *
+     * @return the population matrix.
+     */
+    public double[][] toMatrix() {
+        double[][] individuals = new double[this.size][this.numberVariable * 2 + 2];
+        for (int i = 0; i < this.size; i++) {
+            this.getRow(i, individuals[i]);
+        }
+        return individuals;
+    }
+
+    /**
+     * Returns the number of individuals.
+     *
+     * @return the size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of design variables.
+     *
+     * @return the number of variables.
+     */
+    public int getNumberVariable() {
+        return numberVariable;
+    }
+
+    /**
+     * Returns the slot in the arrays of the individual with the given rank.
+     *
+     * @param rank the rank of the individual, 0 is the best.
+     * @return the slot.
+     */
+    public int getSlot(int rank) {
+        return this.order[rank];
+    }
+
+    /**
+     * Returns the positions of all the individuals, by slot.
+     *
+     * @return the positions.
+     */
+    public double[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * Returns the step sizes of all the individuals, by slot.
+     *
+     * @return the step sizes, or null if they are stored compactly (see
+     * {@link #getStepSizeAt(int)}).
+     */
+    public double[] getStepSizes() {
+        return stepSizes;
+    }
+
+    /**
+     * Returns whether the step sizes are stored as float values.
+     *
+     * @return true if the step sizes are compact.
+     */
+    public boolean isCompactStepSizes() {
+        return this.compactStepSizes != null;
+    }
+
+    /**
+     * Returns a step size read directly from the arrays, whether they are
+     * compact or not.
+     *
+     * @param index the index {@code slot * getNumberVariable() + variable}.
+     * @return the step size.
+     */
+    public double getStepSizeAt(int index) {
+        return (this.stepSizes != null) ? this.stepSizes[index] : this.compactStepSizes[index];
+    }
+
+    /**
+     * Returns a position of an individual.
+     *
+     * @param rank the rank of the individual.
+     * @param variable the position of the variable.
+     * @return the value of the variable.
+     */
+    public double getPosition(int rank, int variable) {
+        return this.positions[this.order[rank] * this.numberVariable + variable];
+    }
+
+    /**
+     * Sets a position of an individual.
+     *
+     * @param rank the rank of the individual.
+     * @param variable the position of the variable.
+     * @param value the value to set.
+     */
+    public void setPosition(int rank, int variable, double value) {
+        this.positions[this.order[rank] * this.numberVariable + variable] = value;
+    }
+
+    /**
+     * Returns a step size of an individual.
+     *
+     * @param rank the rank of the individual.
+     * @param variable the position of the variable.
+     * @return the step size of the variable.
+     */
+    public double getStepSize(int rank, int variable) {
+        return this.getStepSizeAt(this.order[rank] * this.numberVariable + variable);
+    }
+
+    /**
+     * Sets a step size of an individual.
+     *
+     * @param rank the rank of the individual.
+     * @param variable the position of the variable.
+     * @param value the step size to set.
+     */
+    public void setStepSize(int rank, int variable, double value) {
+        int index = this.order[rank] * this.numberVariable + variable;
+        if (this.stepSizes != null) {
+            this.stepSizes[index] = value;
+        } else {
+            this.compactStepSizes[index] = (float) value;
+        }
+    }
+
+    /**
+     * Returns the objective function value of an individual.
+     *
+     * @param rank the rank of the individual.
+     * @return the objective function value.
+     */
+    public double getObjectiveFunction(int rank) {
+        return this.objectiveFunction[this.order[rank]];
+    }
+
+    /**
+     * Returns the sum of constraint violations of an individual.
+     *
+     * @param rank the rank of the individual.
+     * @return the sum of constraint violations.
+     */
+    public double getSumConstraintViolation(int rank) {
+        return this.sumConstraintViolation[this.order[rank]];
+    }
+
+    /**
+     * Copies an individual into a row with the positions, the step sizes, the
+     * objective function value and the sum of constraint violations.
+     *
+     * @param rank the rank of the individual.
+     * @param row the row, of length {@code 2 * getNumberVariable() + 2}.
+     * @return the row.
+     */
+    public double[] getRow(int rank, double[] row) {
+        return this.getRow(rank, row, 0, this.numberVariable);
+    }
+
+    /**
+     * Copies a block of variables of an individual into a row, as
+     * {@link #getRow(int, double[])}: the positions and step sizes of the
+     * variables from {@code from} to {@code to - 1}, the objective function
+     * value and the sum of constraint violations. The rest of the row does not
+     * change.
+     *
+     * @param rank the rank of the individual.
+     * @param row the row, of length {@code 2 * getNumberVariable() + 2}.
+     * @param from the first variable of the block.
+     * @param to the variable after the last one of the block.
+     * @return the row.
+     */
+    public double[] getRow(int rank, double[] row, int from, int to) {
+        int slot = this.order[rank];
+        int n = this.numberVariable;
+        System.arraycopy(this.positions, slot * n + from, row, from, to - from);
+        if (this.stepSizes != null) {
+            System.arraycopy(this.stepSizes, slot * n + from, row, n + from, to - from);
+        } else {
+            for (int j = from; j < to; j++) {
+                row[n + j] = this.compactStepSizes[slot * n + j];
+            }
+        }
+        row[2 * n] = this.objectiveFunction[slot];
+        row[2 * n + 1] = this.sumConstraintViolation[slot];
+        return row;
+    }
+
+    /**
+     * Replaces an individual with the values of a row with the positions, the
+     * step sizes, the objective function value and the sum of constraint
+     * violations. The rank of the individual does not change.
+     *
+     * @param rank the rank of the individual.
+     * @param row the row, of length {@code 2 * getNumberVariable() + 2}.
+     */
+    public void setRow(int rank, double[] row) {
+        this.setRow(rank, row, 0, this.numberVariable);
+    }
+
+    /**
+     * Replaces a block of variables of an individual with the values of a row,
+     * as {@link #setRow(int, double[])}: the positions and step sizes of the
+     * variables from {@code from} to {@code to - 1}, the objective function
+     * value and the sum of constraint violations. It is used when only those
+     * variables changed, so that the whole individual is not copied.
+     *
+     * @param rank the rank of the individual.
+     * @param row the row, of length {@code 2 * getNumberVariable() + 2}.
+     * @param from the first variable of the block.
+     * @param to the variable after the last one of the block.
+     */
+    public void setRow(int rank, double[] row, int from, int to) {
+        int slot = this.order[rank];
+        int n = this.numberVariable;
+        System.arraycopy(row, from, this.positions, slot * n + from, to - from);
+        if (this.stepSizes != null) {
+            System.arraycopy(row, n + from, this.stepSizes, slot * n + from, to - from);
+        } else {
+            for (int j = from; j < to; j++) {
+                this.compactStepSizes[slot * n + j] = (float) row[n + j];
+            }
+        }
+        this.objectiveFunction[slot] = row[2 * n];
+        this.sumConstraintViolation[slot] = row[2 * n + 1];
+    }
+
+    /**
+     * Replaces an individual with a copy of another one. The ranks do not
+     * change.
+     *
+     * @param fromRank the rank of the individual to copy.
+     * @param toRank the rank of the individual to replace.
+     */
+    public void copyIndividual(int fromRank, int toRank) {
+        int from = this.order[fromRank];
+        int to = this.order[toRank];
+        int n = this.numberVariable;
+        System.arraycopy(this.positions, from * n, this.positions, to * n, n);
+        if (this.stepSizes != null) {
+            System.arraycopy(this.stepSizes, from * n, this.stepSizes, to * n, n);
+        } else {
+            System.arraycopy(this.compactStepSizes, from * n, this.compactStepSizes, to * n, n);
+        }
+        this.objectiveFunction[to] = this.objectiveFunction[from];
+        this.sumConstraintViolation[to] = this.sumConstraintViolation[from];
+    }
+
+    /**
+     * Sorts the population using the feasibility rules, see
+     * {@link #FEASIBILITY_RULES}. Only the permutation of the slots changes.
+     * <br>
+     * The sort is a stable merge sort, so the order is the same as the one of
+     * {@link #sortPopulation(double[][])}, and no memory is allocated.
+     */
+    public void sort() {
+        int[] source = this.order;
+        int[] target = this.orderAux;
+
+        for (int width = 1; width < this.size; width *= 2) {
+            for (int low = 0; low < this.size; low += 2 * width) {
+                int middle = Math.min(low + width, this.size);
+                int high = Math.min(low + 2 * width, this.size);
+                this.merge(source, target, low, middle, high);
+            }
+            int[] aux = source;
+            source = target;
+            target = aux;
+        }
+
+        if (source != this.order) {
+            System.arraycopy(source, 0, this.order, 0, this.size);
+        }
+    }
+
+    /**
+     * Merges two sorted runs of slots, taking the left one first when they are
+     * equal.
+     */
+    private void merge(int[] source, int[] target, int low, int middle, int high) {
+        int i = low;
+        int j = middle;
+        for (int k = low; k < high; k++) {
+            if (i < middle && (j >= high || this.compare(source[i], source[j]) <= 0)) {
+                target[k] = source[i++];
+            } else {
+                target[k] = source[j++];
+            }
+        }
+    }
+
+    /**
+     * Moves a single individual to its rank according to the feasibility
+     * rules, assuming that the rest of the population is already sorted. It is
+     * the equivalent of {@link #reinsertIndividual(double[][], int)}.
+     *
+     * @param rank the rank of the individual that changed.
+     * @return the new rank of the individual.
+     */
+    public int reinsert(int rank) {
+        int changed = this.order[rank];
+        int position = rank;
+
+        // the individual improved: it moves towards the beginning
+        while (position > 0 && this.compare(changed, this.order[position - 1]) < 0) {
+            this.order[position] = this.order[position - 1];
+            position--;
+        }
+
+        // the individual got worse: it moves towards the end
+        if (position == rank) {
+            while (position < this.size - 1 && this.compare(changed, this.order[position + 1]) > 0) {
+                this.order[position] = this.order[position + 1];
+                position++;
+            }
+        }
+
+        this.order[position] = changed;
+        return position;
+    }
+
+    /**
+     * Compares the individuals of two slots with the feasibility rules, as
+     * {@link #FEASIBILITY_RULES}.
+     */
+    private int compare(int slotA, int slotB) {
+        boolean feasibleA = this.sumConstraintViolation[slotA] == 0;
+        boolean feasibleB = this.sumConstraintViolation[slotB] == 0;
+
+        if (feasibleA && feasibleB) {
+            return Double.compare(this.objectiveFunction[slotA], this.objectiveFunction[slotB]);
+        }
+        if (feasibleA) {
+            return -1;
+        }
+        if (feasibleB) {
+            return 1;
+        }
+        return Double.compare(this.sumConstraintViolation[slotA], this.sumConstraintViolation[slotB]);
+    }
+
     /**
      * Method that takes care of starting the population of individuals with
      * size sizeRow X number of variables the cnop.
@@ -31,7 +472,25 @@ public class Population {
      * @return a matrix representing the solution space for the CNOP.
      */
     public static double[][] startPopulation(CNOP cnop, int sizeRow, boolean duplicateVariable) {
-        final NRandom nRandom = new NRandom();
+        return startPopulation(cnop, sizeRow, duplicateVariable, new NRandom());
+    }
+
+    /**
+     * Method that takes care of starting the population of individuals with
+     * size sizeRow X number of variables the cnop, taking the random numbers
+     * from the given generator.
+     * <br>
+     *
+     * @param cnop the CNOP instance.
+     * @param sizeRow the number of rows in the population matrix.
+     * @param duplicateVariable flag indicating whether to create new positions
+     * for step size. This applies only to certain algorithms, such as bacterial
+     * foraging.
+     * @param nRandom the generator of random numbers.
+     * <br>
+     * @return a matrix representing the solution space for the CNOP.
+     */
+    public static double[][] startPopulation(CNOP cnop, int sizeRow, boolean duplicateVariable, NRandom nRandom) {
 
         int sizeColumns = 2; //for FO and SVR
         int variables = cnop.getNumberVariable();
@@ -72,50 +531,87 @@ public class Population {
         return population;
     }
 
+    /**
+     * Comparator implementing the feasibility rules of Deb used to sort the
+     * population:
+     * <ol>
+     * <li>Between two feasible individuals, the one with the best objective
+     * function value is preferred.</li>
+     * <li>A feasible individual is preferred over an infeasible one.</li>
+     * <li>Between two infeasible individuals, the one with the lowest sum of
+     * constraint violations is preferred.</li>
+     * </ol>
+     * The objective function and the sum of constraint violations are read from
+     * the last two positions of each row.
+     */
+    public static final Comparator<double[]> FEASIBILITY_RULES = (a, b) -> {
+        int objFunPosition = a.length - 2;
+        int constraintPosition = a.length - 1;
+
+        boolean feasibleA = a[constraintPosition] == 0;
+        boolean feasibleB = b[constraintPosition] == 0;
+
+        if (feasibleA && feasibleB) {
+            return Double.compare(a[objFunPosition], b[objFunPosition]);
+        }
+        if (feasibleA) {
+            return -1;
+        }
+        if (feasibleB) {
+            return 1;
+        }
+        return Double.compare(a[constraintPosition], b[constraintPosition]);
+    };
+
     /**
      * This method sorts the population using an ordering technique based on
      * feasibility rules.
+     * <br>
+     * The sort is stable and only swaps the references of the rows, the values
+     * of the individuals are never copied.
      *
      * @param individual the population matrix to be sorted.
      * @return the sorted population matrix.
      */
     public static double[][] sortPopulation(double[][] individual) {
+        Arrays.sort(individual, FEASIBILITY_RULES);
+        return individual;
+    }//close sort
 
-        int objFunPosition = individual[0].length - 2;
-        int constraintPosition = individual[0].length - 1;
-        int matrixSize = individual.length;
-
-        for (int i = 0; i < matrixSize; i++) {
-
-            for (int j = 0; j < (matrixSize - 1); j++) {
-
-                if ((individual[j][constraintPosition] == 0) && (individual[j + 1][constraintPosition] == 0)) {
-                    if (individual[j][objFunPosition] > individual[j + 1][objFunPosition]) {
-                        double[] temp = Arrays.copyOf(individual[j], individual[j].length);
-                        individual[j] = Arrays.copyOf(individual[j + 1], individual[j + 1].length);
-                        individual[j + 1] = Arrays.copyOf(temp, temp.length);
-                    }
-                }
-
-                if ((individual[j][constraintPosition] > 0) && (individual[j + 1][constraintPosition] > 0)) {
-                    if (individual[j][constraintPosition] > individual[j + 1][constraintPosition]) {
-                        double[] temp = Arrays.copyOf(individual[j], individual[j].length);
-                        individual[j] = Arrays.copyOf(individual[j + 1], individual[j + 1].length);
-                        individual[j + 1] = Arrays.copyOf(temp, temp.length);
-                    }
-                }
-
-                if ((individual[j][constraintPosition]) > 0 && (individual[j + 1][constraintPosition] == 0)) {
-                    double[] temp = Arrays.copyOf(individual[j], individual[j].length);
-                    individual[j] = Arrays.copyOf(individual[j + 1], individual[j + 1].length);
-                    individual[j + 1] = Arrays.copyOf(temp, temp.length);
-                }
+    /**
+     * This method moves a single individual to its position according to the
+     * feasibility rules, assuming that the rest of the population is already
+     * sorted. It is used after an individual changes, instead of sorting the
+     * whole population again.
+     * <br>
+     * The result is the same as the one of {@link #sortPopulation} and no
+     * memory is allocated.
+     *
+     * @param individual the population matrix, sorted except for one row.
+     * @param index the position of the row that changed.
+     * @return the new position of the row.
+     */
+    public static int reinsertIndividual(double[][] individual, int index) {
+        double[] changed = individual[index];
+        int position = index;
 
-            }// end for two
+        // the individual improved: it moves towards the beginning
+        while (position > 0 && FEASIBILITY_RULES.compare(changed, individual[position - 1]) < 0) {
+            individual[position] = individual[position - 1];
+            position--;
+        }
 
-        } //end for main
+        // the individual got worse: it moves towards the end
+        if (position == index) {
+            while (position < individual.length - 1
+                    && FEASIBILITY_RULES.compare(changed, individual[position + 1]) > 0) {
+                individual[position] = individual[position + 1];
+                position++;
+            }
+        }
 
-        return individual;
-    }//close sort
+        individual[position] = changed;
+        return position;
+    }
 
 }
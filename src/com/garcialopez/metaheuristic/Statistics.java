@@ -1,5 +1,8 @@
 package com.garcialopez.metaheuristic;
 
+import com.garcialopez.optimizationmodel.CNOP;
+import java.util.Arrays;
+
 /**
  * 
  * <b>Statistics</b> class is in charge of calculating the basic statistics:<br>  
@@ -21,6 +24,12 @@ package com.garcialopez.metaheuristic;
  * @version 1.0
  */
 public class Statistics {
+
+    /**
+     * Maximum difference with the best known value for a solution to be
+     * considered successful.
+     */
+    public static final double SUCCESS_TOLERANCE = 0.0001;
         
     private double[] vectorDouble, aux;  
     /**
@@ -115,11 +124,8 @@ public class Statistics {
             System.err.println("Error: empty vector.");
             return Double.NaN;
         }
-        obj = this.bubble(obj);                         
-        int size = obj.length, position = size/2;        
-        if (size%2 == 0)
-            return (obj[position-1] + obj[position])/2;        
-        return obj[position];
+        // The vector of the caller is not modified
+        return this.medianInPlace(obj.clone(), obj.length);
     }   // End median
     
     /**
@@ -152,8 +158,13 @@ public class Statistics {
             System.err.println("Error: empty vector.");
             return Double.NaN;
         }
-        obj = bubble(obj);        
-        return obj[0];
+        double best = obj[0];
+        for (int i = 1; i < obj.length; i++) {
+            if (obj[i] < best) {
+                best = obj[i];
+            }
+        }
+        return best;
     }   //End best
     
     /**
@@ -207,8 +218,13 @@ public class Statistics {
             System.err.println("Error: empty vector.");
             return Double.NaN;
         }
-        obj = bubble(obj);              
-        return obj[obj.length-1];
+        double worst = obj[0];
+        for (int i = 1; i < obj.length; i++) {
+            if (obj[i] > worst) {
+                worst = obj[i];
+            }
+        }
+        return worst;
     }   // End worst
     
     /**
@@ -254,23 +270,77 @@ public class Statistics {
     }
     
     /**
-     * Bubble method sorting a vector.
-     * @param obj real number vector
-     * @return sorted vector
-     */
-    private double[] bubble(double[] obj){
-        double assistant;
-        for (int i = 0; i < obj.length-1; i++) {    
-            for (int j = (i+1); j < obj.length; j++) {
-                if (obj[j] < obj[i]) {
-                    assistant = obj[i];
-                    obj[i] = obj[j];
-                    obj[j] = assistant;
+     * Median of the first values of a vector, which is reordered.
+     * @param values real number vector
+     * @param size number of values
+     * @return median of the values
+     */
+    private double medianInPlace(double[] values, int size){
+        int position = size/2;
+        double median = select(values, size, position);
+        if (size%2 == 0) {
+            // After the selection the lower half is on the left of the position
+            double lower = values[0];
+            for (int i = 1; i < position; i++) {
+                if (values[i] > lower) {
+                    lower = values[i];
                 }
             }
-        }        
-        return obj;
-    }   // End bubble
+            return (lower + median)/2;
+        }
+        return median;
+    }   // End medianInPlace
+    
+    /**
+     * Introselect: finds the k-th smallest of the first values of a vector
+     * with quickselect, leaving the smaller values on its left and the
+     * greater ones on its right. If the partitions are unbalanced too many
+     * times, the rest is sorted, so it is never quadratic.
+     * @param values real number vector, which is reordered
+     * @param size number of values
+     * @param k position of the value in the sorted vector
+     * @return k-th smallest value
+     */
+    private static double select(double[] values, int size, int k){
+        int left = 0, right = size - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(size));
+        while (right > left) {
+            if (depth-- == 0) {
+                Arrays.sort(values, left, right + 1);
+                return values[k];
+            }
+            // Median of three as pivot, moved to the right
+            int middle = (left + right) >>> 1;
+            if (values[middle] < values[left]) swap(values, middle, left);
+            if (values[right] < values[left]) swap(values, right, left);
+            if (values[right] < values[middle]) swap(values, right, middle);
+            swap(values, middle, right);
+            double pivot = values[right];
+            
+            int store = left;
+            for (int i = left; i < right; i++) {
+                if (values[i] < pivot) {
+                    swap(values, i, store++);
+                }
+            }
+            swap(values, store, right);
+            
+            if (store == k) {
+                return values[k];
+            } else if (store < k) {
+                left = store + 1;
+            } else {
+                right = store - 1;
+            }
+        }
+        return values[k];
+    }   // End select
+    
+    private static void swap(double[] values, int i, int j){
+        double assistant = values[i];
+        values[i] = values[j];
+        values[j] = assistant;
+    }
     
     /**
      * Method that sums all elements of a vector.
@@ -313,7 +383,7 @@ public class Statistics {
     public double successRate(double[][] obj, int column, double bestKnownValue){
         int count = 0;
         for (double[] obj1 : obj) {            
-            if (obj1[column] - (bestKnownValue) <= 0.0001) {
+            if (obj1[column] - (bestKnownValue) <= SUCCESS_TOLERANCE) {
                 count++;                
             }
         }                        
@@ -328,7 +398,92 @@ public class Statistics {
      * @return success Performance of a given vector
      */
     public int successPerformance(double[][] obj, double bestKnownValue){                                                   
-        return (obj[0][obj[0].length-2] - (bestKnownValue) <= 0.0001)? 1 : 0;        
+        return (obj[0][obj[0].length-2] - (bestKnownValue) <= SUCCESS_TOLERANCE)? 1 : 0;        
+    }
+        
+    /**
+     * This method calculates the statistics of the best results of the
+     * independent executions of a run, in the order of
+     * {@link MetaheuristicBase#getStatisticsName()}: best, mean, median,
+     * standard deviation, worst, feasible rate, success rate and success
+     * performance.
+     * 
+     * @param bestResults the best individual of each execution
+     * @param sccp the evaluations in which each execution reached the best
+     * known value, 0 if it did not reach it
+     * @param cnop the CNOP optimized
+     * @return the statistics
+     */
+    public double[] summary(double[][] bestResults, int[] sccp, CNOP cnop){
+        int positionOF = cnop.getNumberVariable() * 2;
+        int positionSVR = cnop.getNumberVariable() * 2 + 1;
+        boolean minimization = cnop.getType().equals(CNOP.MINIMIZATION);
+        int size = bestResults.length;
+        
+        // One scan of the matrix, the objective function values are copied once
+        double[] values = new double[size];
+        double summation = 0;
+        double minimum = Double.POSITIVE_INFINITY, maximum = Double.NEGATIVE_INFINITY;
+        int feasible = 0, successful = 0;
+        for (int i = 0; i < size; i++) {
+            double value = bestResults[i][positionOF];
+            values[i] = value;
+            summation += value;
+            if (value < minimum) minimum = value;
+            if (value > maximum) maximum = value;
+            if (bestResults[i][positionSVR] == 0) feasible++;
+            if (value - cnop.getBestKnownValue() <= SUCCESS_TOLERANCE) successful++;
+        }
+        double mean = summation/size;
+        double distance = 0;
+        for (int i = 0; i < size; i++) {
+            distance += (values[i] - mean) * (values[i] - mean);
+        }
+        
+        double[] summary = new double[8];
+        //Mejor valor dependiendo el objetivos de max o min
+        summary[0] = (minimization) ? minimum : maximum;
+        //Media
+        summary[1] = mean;
+        //Mediana
+        summary[2] = this.medianInPlace(values, size);
+        //Desviación estandar
+        summary[3] = Math.sqrt(distance/size);
+        //Peor valor
+        summary[4] = (minimization) ? maximum : minimum;
+        //Tasa de factibilidad
+        summary[5] = (100 * feasible) / size;
+        //Tasa de éxito
+        summary[6] = (100 * successful) / size;
+        summary[7] = this.successPerformance(sccp);
+        
+        return summary;
+    }
+    
+    /**
+     * This method calculates the success performance of a run: the average
+     * evaluations of the successful executions multiplied by the executions
+     * and divided by the successful executions.
+     * 
+     * @param sccp the evaluations in which each execution reached the best
+     * known value, 0 if it did not reach it
+     * @return success performance of the run, 0 if no execution succeeded
+     */
+    public double successPerformance(int[] sccp){
+        int pd = 0;
+        double pscp = 0;
+        for (int i = 0; i < sccp.length; i++) {
+            if (sccp[i] > 0) {
+                pd++;
+                pscp = pscp + sccp[i];
+            }
+        }
+        if (pscp > 0 && pd > 0) {
+            pscp = pscp / pd;
+        } else {
+            pscp = 0;
+        }
+        return (pscp > 0) ? Math.floor(pscp * sccp.length) / pd : 0;
     }
         
     /**
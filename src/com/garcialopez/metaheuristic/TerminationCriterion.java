@@ -0,0 +1,92 @@
+package com.garcialopez.metaheuristic;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TerminationCriterion provides an interface for deciding when an independent
+ * execution of a metaheuristic stops. The criterion is checked before each
+ * generation; the execution stops as soon as the evaluation budget
+ * ({@link MetaheuristicBase#setEvaluations(int)}) or any of the criteria added
+ * with {@link MetaheuristicBase#addTerminationCriterion} is met.
+ * <br>
+ * A criterion must not keep state of its own, since it is shared by all the
+ * executions, which may run in different threads; the progress of each
+ * execution is given in the {@link ExecutionState}.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public interface TerminationCriterion {
+
+    /**
+     * Checks whether the execution must stop.
+     *
+     * @param state the progress of the execution.
+     * @return true to stop the execution before the next generation.
+     */
+    public abstract boolean isMet(ExecutionState state);
+
+    /**
+     * Stops an execution when the next generation would exceed a number of
+     * evaluations.
+     *
+     * @param evaluations the maximum number of evaluations.
+     * @return the criterion.
+     */
+    public static TerminationCriterion maxEvaluations(int evaluations) {
+        return state -> state.getEvaluations() + state.getEvaluationsPerGeneration() > evaluations;
+    }
+
+    /**
+     * Stops all the executions when the time since the run started reaches a
+     * limit. The executions that did not start yet perform only their initial
+     * population.
+     *
+     * @param time the maximum time of the run.
+     * @param unit the unit of the time.
+     * @return the criterion.
+     */
+    public static TerminationCriterion maxRunTime(long time, TimeUnit unit) {
+        long nanos = unit.toNanos(time);
+        return state -> state.getRunTimeNanos() >= nanos;
+    }
+
+    /**
+     * Stops an execution when its time reaches a limit.
+     *
+     * @param time the maximum time of each execution.
+     * @param unit the unit of the time.
+     * @return the criterion.
+     */
+    public static TerminationCriterion maxExecutionTime(long time, TimeUnit unit) {
+        long nanos = unit.toNanos(time);
+        return state -> state.getExecutionTimeNanos() >= nanos;
+    }
+
+    /**
+     * Stops an execution when the best individual is feasible and reaches the
+     * best known value of the CNOP, with the tolerance used by the success
+     * rate ({@link Statistics#SUCCESS_TOLERANCE}).
+     *
+     * @return the criterion.
+     */
+    public static TerminationCriterion targetValue() {
+        return state -> state.getBestSumConstraintViolation() == 0
+                && state.getBestObjectiveFunction() - state.getBestKnownValue() <= Statistics.SUCCESS_TOLERANCE;
+    }
+
+    /**
+     * Stops an execution when the best individual has not improved during a
+     * number of consecutive generations.
+     *
+     * @param generations the number of generations without improvement.
+     * @return the criterion.
+     */
+    public static TerminationCriterion stagnation(int generations) {
+        return state -> state.getStagnantGenerations() >= generations;
+    }
+
+}
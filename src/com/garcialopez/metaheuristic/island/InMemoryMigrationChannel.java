@@ -0,0 +1,61 @@
+package com.garcialopez.metaheuristic.island;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * InMemoryMigrationChannel class exchanges the bacteria between colonies that
+ * run in the same process, with a queue of immigrants for each colony.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class InMemoryMigrationChannel implements MigrationChannel {
+
+    private final List<ConcurrentLinkedQueue<double[]>> immigrants;
+
+    /**
+     * Creates the channel.
+     *
+     * @param islands the number of colonies.
+     */
+    public InMemoryMigrationChannel(int islands) {
+        this.immigrants = new ArrayList<>();
+        for (int i = 0; i < islands; i++) {
+            this.immigrants.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    @Override
+    public void send(int from, int to, double[][] emigrants) {
+        ConcurrentLinkedQueue<double[]> queue = this.immigrants.get(to);
+        for (double[] emigrant : emigrants) {
+            queue.add(emigrant);
+        }
+    }
+
+    @Override
+    public double[][] receive(int island) {
+        return drain(this.immigrants.get(island));
+    }
+
+    /**
+     * Takes all the individuals of a queue.
+     *
+     * @param queue the queue of immigrants.
+     * @return the individuals, an empty matrix if the queue is empty.
+     */
+    static double[][] drain(ConcurrentLinkedQueue<double[]> queue) {
+        List<double[]> arrived = new ArrayList<>();
+        double[] individual;
+        while ((individual = queue.poll()) != null) {
+            arrived.add(individual);
+        }
+        return arrived.toArray(new double[arrived.size()][]);
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.garcialopez.metaheuristic.island;
+
+/**
+ * MigrationChannel provides an interface for exchanging bacteria between the
+ * colonies (islands) of a run with the island model. Each colony sends its
+ * emigrants to other colonies and, in its next migration, receives the
+ * immigrants that arrived in the meantime; a colony never waits for the
+ * others.
+ * <br>
+ * The individuals are rows of the population matrix: the positions, the step
+ * sizes, the objective function value and the sum of constraint violations.
+ * A channel is used by the threads of all the colonies at the same time, so
+ * the implementations must be thread-safe. A new channel is created for each
+ * independent execution and closed when the execution finishes.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public interface MigrationChannel extends AutoCloseable {
+
+    /**
+     * Sends individuals from a colony to another one.
+     *
+     * @param from the number of the colony that sends, starting at 0.
+     * @param to the number of the colony that receives.
+     * @param emigrants the individuals, which are not used by the colony that
+     * sends after the call.
+     */
+    public abstract void send(int from, int to, double[][] emigrants);
+
+    /**
+     * Returns the individuals that arrived to a colony since its last call,
+     * without waiting.
+     *
+     * @param island the number of the colony.
+     * @return the immigrants, an empty matrix if none arrived.
+     */
+    public abstract double[][] receive(int island);
+
+    /**
+     * Sets the size of the messages of the execution, so the channel can
+     * reject the individuals of other problems or a corrupt message before
+     * reading it. It is called once, before the colonies start to migrate.
+     *
+     * @param length the length of each individual, 2 * variables + 2.
+     * @param emigrants the maximum number of individuals of a message.
+     */
+    public default void setMessageSize(int length, int emigrants) {
+    }
+
+    /**
+     * Releases the resources of the channel.
+     */
+    @Override
+    public default void close() {
+    }
+
+}
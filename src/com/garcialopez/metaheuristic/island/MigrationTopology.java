@@ -0,0 +1,43 @@
+package com.garcialopez.metaheuristic.island;
+
+/**
+ * MigrationTopology provides an interface for deciding to which colonies each
+ * colony sends its emigrants in the island model.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public interface MigrationTopology {
+
+    /**
+     * Each colony sends its emigrants to the next one, and the last one to the
+     * first one.
+     */
+    public static final MigrationTopology RING = (island, islands) -> new int[]{(island + 1) % islands};
+
+    /**
+     * Each colony sends its emigrants to all the other colonies.
+     */
+    public static final MigrationTopology FULLY_CONNECTED = (island, islands) -> {
+        int[] destinations = new int[islands - 1];
+        for (int i = 0, j = 0; i < islands; i++) {
+            if (i != island) {
+                destinations[j++] = i;
+            }
+        }
+        return destinations;
+    };
+
+    /**
+     * Returns the colonies that receive the emigrants of a colony.
+     *
+     * @param island the number of the colony that sends, starting at 0.
+     * @param islands the number of colonies.
+     * @return the numbers of the colonies that receive.
+     */
+    public abstract int[] getDestinations(int island, int islands);
+
+}
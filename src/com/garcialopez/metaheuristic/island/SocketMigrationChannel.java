@@ -0,0 +1,242 @@
+package com.garcialopez.metaheuristic.island;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * SocketMigrationChannel class exchanges the bacteria between colonies through
+ * TCP sockets on localhost. Each colony listens on its own port and the
+ * emigrants are written as binary messages, so the colonies could run in
+ * different processes.
+ * <br>
+ * A message has the number of individuals, the length of each individual and
+ * the values of the individuals, as written by
+ * {@link DataOutputStream#writeDouble(double)}. The messages received by a
+ * colony are read by a daemon thread and kept until the colony calls
+ * {@link #receive(int)}. A connection that fails while the channel is open,
+ * or that sends a message of other size than the one set with
+ * {@link #setMessageSize(int, int)}, is reported on the standard error, and
+ * the colony stops receiving through it.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class SocketMigrationChannel implements MigrationChannel {
+
+    private final ServerSocket[] servers;
+    private final List<ConcurrentLinkedQueue<double[]>> immigrants;
+
+    // Connections of each colony to the others, only used by the colony that sends
+    private final Socket[][] connections;
+    private final DataOutputStream[][] outputs;
+
+    private final List<Socket> accepted = new ArrayList<>();
+    private volatile boolean closed = false;
+
+    // Size of the messages, 0 while it is not set
+    private volatile int messageLength = 0;
+    private volatile int messageEmigrants = 0;
+
+    /**
+     * Creates the channel, listening on a free port of localhost for each
+     * colony.
+     *
+     * @param islands the number of colonies.
+     */
+    public SocketMigrationChannel(int islands) {
+        this.servers = new ServerSocket[islands];
+        this.immigrants = new ArrayList<>();
+        this.connections = new Socket[islands][islands];
+        this.outputs = new DataOutputStream[islands][islands];
+
+        try {
+            for (int i = 0; i < islands; i++) {
+                this.immigrants.add(new ConcurrentLinkedQueue<>());
+                this.servers[i] = new ServerSocket(0, islands, InetAddress.getLoopbackAddress());
+                this.startAccepting(i);
+            }
+        } catch (IOException e) {
+            this.close();
+            throw new UncheckedIOException("The migration channel could not be opened.", e);
+        }
+    }
+
+    /**
+     * Returns the port on which a colony receives its immigrants.
+     *
+     * @param island the number of the colony.
+     * @return the port.
+     */
+    public int getPort(int island) {
+        return this.servers[island].getLocalPort();
+    }
+
+    @Override
+    public void send(int from, int to, double[][] emigrants) {
+        if (emigrants.length == 0) {
+            return;
+        }
+        try {
+            DataOutputStream output = this.outputs[from][to];
+            if (output == null) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.getPort(to));
+                socket.setTcpNoDelay(true);
+                output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                this.connections[from][to] = socket;
+                this.outputs[from][to] = output;
+            }
+
+            output.writeInt(emigrants.length);
+            output.writeInt(emigrants[0].length);
+            for (double[] emigrant : emigrants) {
+                for (double value : emigrant) {
+                    output.writeDouble(value);
+                }
+            }
+            output.flush();
+        } catch (IOException e) {
+            if (!this.closed) {
+                System.err.println("The emigrants of colony " + (from + 1)
+                        + " could not be sent: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public double[][] receive(int island) {
+        return InMemoryMigrationChannel.drain(this.immigrants.get(island));
+    }
+
+    @Override
+    public void setMessageSize(int length, int emigrants) {
+        this.messageLength = length;
+        this.messageEmigrants = emigrants;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        for (ServerSocket server : this.servers) {
+            closeQuietly(server);
+        }
+        for (Socket[] sockets : this.connections) {
+            for (Socket socket : sockets) {
+                closeQuietly(socket);
+            }
+        }
+        synchronized (this.accepted) {
+            for (Socket socket : this.accepted) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    /**
+     * Starts the thread that accepts the connections of the other colonies to
+     * a colony.
+     *
+     * @param island the number of the colony.
+     */
+    private void startAccepting(int island) {
+        ServerSocket server = this.servers[island];
+        Thread acceptor = new Thread(() -> {
+            while (!this.closed) {
+                try {
+                    Socket socket = server.accept();
+                    synchronized (this.accepted) {
+                        this.accepted.add(socket);
+                    }
+                    this.startReading(island, socket);
+                } catch (IOException e) {
+                    if (!this.closed) {
+                        System.err.println("Colony " + (island + 1) + " stopped receiving: " + e.getMessage());
+                    }
+                    return;
+                }
+            }
+        }, "migration-accept-" + island);
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Starts the thread that reads the messages sent to a colony through a
+     * connection.
+     *
+     * @param island the number of the colony.
+     * @param socket the connection.
+     */
+    private void startReading(int island, Socket socket) {
+        ConcurrentLinkedQueue<double[]> queue = this.immigrants.get(island);
+        Thread reader = new Thread(() -> {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+                while (!this.closed) {
+                    int count = input.readInt();
+                    int length = input.readInt();
+                    if (!this.isMessageSize(count, length)) {
+                        if (!this.closed) {
+                            System.err.println("Colony " + (island + 1) + " stopped receiving immigrants: a message of "
+                                    + count + " individuals of length " + length + " was rejected.");
+                        }
+                        return;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        double[] immigrant = new double[length];
+                        for (int j = 0; j < length; j++) {
+                            immigrant[j] = input.readDouble();
+                        }
+                        queue.add(immigrant);
+                    }
+                }
+            } catch (EOFException e) {
+                // the other colony closed the connection
+            } catch (IOException e) {
+                if (!this.closed) {
+                    System.err.println("Colony " + (island + 1) + " stopped receiving immigrants: "
+                            + e.getMessage());
+                }
+            }
+        }, "migration-read-" + island);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Checks the header of a message against the size of the messages.
+     *
+     * @param count the number of individuals of the message.
+     * @param length the length of each individual.
+     * @return true if the message can be read.
+     */
+    private boolean isMessageSize(int count, int length) {
+        return count > 0 && length > 0
+                && (this.messageLength == 0 || length == this.messageLength)
+                && (this.messageEmigrants == 0 || count <= this.messageEmigrants);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // nothing to do, the channel is closing
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.garcialopez.metaheuristic.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter class counts events, for example the evaluations of the objective
+ * function. It can be incremented by several threads at the same time.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public final class Counter {
+
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Adds one to the counter.
+     */
+    public void increment() {
+        this.count.increment();
+    }
+
+    /**
+     * Adds a number of events to the counter.
+     *
+     * @param events the number of events.
+     */
+    public void add(long events) {
+        this.count.add(events);
+    }
+
+    /**
+     * Returns the number of events counted.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Sets the counter to zero.
+     */
+    public void reset() {
+        this.count.reset();
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.garcialopez.metaheuristic.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * DefaultMetricsRegistry class keeps the metrics in memory.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class DefaultMetricsRegistry implements MetricsRegistry {
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        return this.counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    @Override
+    public Timer timer(String name) {
+        return this.timers.computeIfAbsent(name, key -> new Timer());
+    }
+
+    @Override
+    public Gauge gauge(String name) {
+        return this.gauges.computeIfAbsent(name, key -> new Gauge());
+    }
+
+    @Override
+    public Map<String, Counter> getCounters() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.counters));
+    }
+
+    @Override
+    public Map<String, Timer> getTimers() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.timers));
+    }
+
+    @Override
+    public Map<String, Gauge> getGauges() {
+        return Collections.unmodifiableMap(new TreeMap<>(this.gauges));
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.garcialopez.metaheuristic.metrics;
+
+/**
+ * Gauge class keeps the last value of a measure, for example the ratio of
+ * feasible bacteria in the last generation. It can be written and read by
+ * several threads at the same time.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public final class Gauge {
+
+    private volatile double value;
+
+    /**
+     * Sets the value of the gauge.
+     *
+     * @param value the new value.
+     */
+    public void set(double value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the last value of the gauge.
+     *
+     * @return the value, 0 if it was never set.
+     */
+    public double getValue() {
+        return this.value;
+    }
+
+    /**
+     * Sets the value of the gauge to zero.
+     */
+    public void reset() {
+        this.value = 0;
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.garcialopez.metaheuristic.metrics;
+
+import java.util.Map;
+
+/**
+ * MetricsRegistry provides an interface for creating and finding the metrics
+ * of the optimization engine by name. Asking twice for the same name returns
+ * the same metric, so the engine asks for its metrics once and keeps them.
+ * <br>
+ * The metrics are used by the threads of all the executions at the same time,
+ * so the implementations must be thread-safe. An implementation can forward
+ * the metrics to another monitoring library.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Returns the counter with a name, creating it if it does not exist.
+     *
+     * @param name the name of the counter.
+     * @return the counter.
+     */
+    public abstract Counter counter(String name);
+
+    /**
+     * Returns the timer with a name, creating it if it does not exist.
+     *
+     * @param name the name of the timer.
+     * @return the timer.
+     */
+    public abstract Timer timer(String name);
+
+    /**
+     * Returns the gauge with a name, creating it if it does not exist.
+     *
+     * @param name the name of the gauge.
+     * @return the gauge.
+     */
+    public abstract Gauge gauge(String name);
+
+    /**
+     * Returns the counters of the registry sorted by name.
+     *
+     * @return the counters.
+     */
+    public abstract Map<String, Counter> getCounters();
+
+    /**
+     * Returns the timers of the registry sorted by name.
+     *
+     * @return the timers.
+     */
+    public abstract Map<String, Timer> getTimers();
+
+    /**
+     * Returns the gauges of the registry sorted by name.
+     *
+     * @return the gauges.
+     */
+    public abstract Map<String, Gauge> getGauges();
+
+    /**
+     * Sets all the metrics of the registry to zero.
+     */
+    public default void reset() {
+        this.getCounters().values().forEach(Counter::reset);
+        this.getTimers().values().forEach(Timer::reset);
+        this.getGauges().values().forEach(Gauge::reset);
+    }
+
+}
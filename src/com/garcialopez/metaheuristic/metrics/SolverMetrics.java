@@ -0,0 +1,328 @@
+package com.garcialopez.metaheuristic.metrics;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * SolverMetrics class measures the work of the optimization engine: the
+ * evaluations of the objective function and of the constraints, the sorts of
+ * the population, the swims of the chemotaxis and how many of them are
+ * accepted, the feasible bacteria of each generation and the time of each
+ * phase of the foraging (chemotaxis, reproduction, elimination-dispersal,
+ * step size update and migration).
+ * <br>
+ * The metrics are kept in a {@link MetricsRegistry} with the names of the
+ * constants of this class, so that they can be read with the registry or
+ * forwarded to another monitoring library; the metrics are also available
+ * through JMX after {@link #register(String)}.
+ * <br>
+ * The metrics are only measured when an instance is assigned to the
+ * metaheuristic ({@code setMetrics}); without it the engine does not read the
+ * clock nor count anything. One instance can be shared by all the executions
+ * and colonies of a run, and by several runs.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class SolverMetrics implements SolverMetricsMXBean {
+
+    public static final String OBJECTIVE_EVALUATIONS = "objective.evaluations";
+    public static final String CONSTRAINT_EVALUATIONS = "constraint.evaluations";
+    public static final String SORTS = "population.sorts";
+    public static final String REINSERTIONS = "population.reinsertions";
+    public static final String SWIMS = "chemotaxis.swims";
+    public static final String ACCEPTED_SWIMS = "chemotaxis.swims.accepted";
+    public static final String GENERATIONS = "generations";
+    public static final String BACTERIA = "generations.bacteria";
+    public static final String FEASIBLE_BACTERIA = "generations.bacteria.feasible";
+    public static final String FEASIBLE_RATIO = "generations.feasible.ratio";
+    public static final String CHEMOTAXIS = "phase.chemotaxis";
+    public static final String REPRODUCTION = "phase.reproduction";
+    public static final String ELIMINATION_DISPERSAL = "phase.elimination.dispersal";
+    public static final String STEP_SIZE = "phase.step.size";
+    public static final String MIGRATION = "phase.migration";
+
+    private final MetricsRegistry registry;
+
+    private final Counter objectiveEvaluations;
+    private final Counter constraintEvaluations;
+    private final Counter sorts;
+    private final Counter reinsertions;
+    private final Counter swims;
+    private final Counter acceptedSwims;
+    private final Counter generations;
+    private final Counter bacteria;
+    private final Counter feasibleBacteria;
+    private final Gauge feasibleRatio;
+    private final Timer chemotaxis;
+    private final Timer reproduction;
+    private final Timer eliminationDispersal;
+    private final Timer stepSize;
+    private final Timer migration;
+
+    private ObjectName objectName;
+
+    /**
+     * Creates the metrics in a new {@link DefaultMetricsRegistry}.
+     */
+    public SolverMetrics() {
+        this(new DefaultMetricsRegistry());
+    }
+
+    /**
+     * Creates the metrics in a registry.
+     *
+     * @param registry the registry where the metrics are kept.
+     */
+    public SolverMetrics(MetricsRegistry registry) {
+        this.registry = registry;
+        this.objectiveEvaluations = registry.counter(OBJECTIVE_EVALUATIONS);
+        this.constraintEvaluations = registry.counter(CONSTRAINT_EVALUATIONS);
+        this.sorts = registry.counter(SORTS);
+        this.reinsertions = registry.counter(REINSERTIONS);
+        this.swims = registry.counter(SWIMS);
+        this.acceptedSwims = registry.counter(ACCEPTED_SWIMS);
+        this.generations = registry.counter(GENERATIONS);
+        this.bacteria = registry.counter(BACTERIA);
+        this.feasibleBacteria = registry.counter(FEASIBLE_BACTERIA);
+        this.feasibleRatio = registry.gauge(FEASIBLE_RATIO);
+        this.chemotaxis = registry.timer(CHEMOTAXIS);
+        this.reproduction = registry.timer(REPRODUCTION);
+        this.eliminationDispersal = registry.timer(ELIMINATION_DISPERSAL);
+        this.stepSize = registry.timer(STEP_SIZE);
+        this.migration = registry.timer(MIGRATION);
+    }
+
+    /**
+     * Returns the registry where the metrics are kept.
+     *
+     * @return the registry.
+     */
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Counts the evaluation of candidates.
+     *
+     * @param candidates the number of candidates evaluated.
+     * @param constraints the number of constraints evaluated, the candidates
+     * times the constraints of the CNOP when they are evaluated completely.
+     */
+    public void evaluated(long candidates, long constraints) {
+        this.objectiveEvaluations.add(candidates);
+        this.constraintEvaluations.add(constraints);
+    }
+
+    /**
+     * Counts a sort of the whole population.
+     */
+    public void sorted() {
+        this.sorts.increment();
+    }
+
+    /**
+     * Counts the reinsertions of bacteria in the sorted population.
+     *
+     * @param bacteria the number of bacteria reinserted.
+     */
+    public void reinserted(long bacteria) {
+        this.reinsertions.add(bacteria);
+    }
+
+    /**
+     * Counts the swims of a chemotaxis.
+     *
+     * @param swims the number of new positions compared.
+     * @param accepted the number of new positions that replaced the bacterium.
+     */
+    public void swum(long swims, long accepted) {
+        this.swims.add(swims);
+        this.acceptedSwims.add(accepted);
+    }
+
+    /**
+     * Counts a generation and its feasible bacteria.
+     *
+     * @param feasible the number of feasible bacteria at the end of the
+     * generation.
+     * @param size the size of the population.
+     */
+    public void generationCompleted(int feasible, int size) {
+        this.generations.increment();
+        this.bacteria.add(size);
+        this.feasibleBacteria.add(feasible);
+        this.feasibleRatio.set((size == 0) ? 0 : (100.0 * feasible) / size);
+    }
+
+    /**
+     * Returns the timer of the chemotaxis.
+     *
+     * @return the timer.
+     */
+    public Timer getChemotaxis() {
+        return chemotaxis;
+    }
+
+    /**
+     * Returns the timer of the reproduction.
+     *
+     * @return the timer.
+     */
+    public Timer getReproduction() {
+        return reproduction;
+    }
+
+    /**
+     * Returns the timer of the elimination-dispersal.
+     *
+     * @return the timer.
+     */
+    public Timer getEliminationDispersal() {
+        return eliminationDispersal;
+    }
+
+    /**
+     * Returns the timer of the step size update.
+     *
+     * @return the timer.
+     */
+    public Timer getStepSize() {
+        return stepSize;
+    }
+
+    /**
+     * Returns the timer of the migration of the island model.
+     *
+     * @return the timer.
+     */
+    public Timer getMigration() {
+        return migration;
+    }
+
+    @Override
+    public long getObjectiveEvaluations() {
+        return this.objectiveEvaluations.getCount();
+    }
+
+    @Override
+    public long getConstraintEvaluations() {
+        return this.constraintEvaluations.getCount();
+    }
+
+    @Override
+    public long getSorts() {
+        return this.sorts.getCount();
+    }
+
+    @Override
+    public long getReinsertions() {
+        return this.reinsertions.getCount();
+    }
+
+    @Override
+    public long getSwims() {
+        return this.swims.getCount();
+    }
+
+    @Override
+    public long getAcceptedSwims() {
+        return this.acceptedSwims.getCount();
+    }
+
+    @Override
+    public double getSwimAcceptanceRate() {
+        long total = this.swims.getCount();
+        return (total == 0) ? 0 : (100.0 * this.acceptedSwims.getCount()) / total;
+    }
+
+    @Override
+    public long getGenerations() {
+        return this.generations.getCount();
+    }
+
+    @Override
+    public double getFeasibleRatio() {
+        return this.feasibleRatio.getValue();
+    }
+
+    @Override
+    public double getMeanFeasibleRatio() {
+        long total = this.bacteria.getCount();
+        return (total == 0) ? 0 : (100.0 * this.feasibleBacteria.getCount()) / total;
+    }
+
+    @Override
+    public double getChemotaxisMillis() {
+        return this.chemotaxis.getTotalNanos() / 1e6;
+    }
+
+    @Override
+    public double getReproductionMillis() {
+        return this.reproduction.getTotalNanos() / 1e6;
+    }
+
+    @Override
+    public double getEliminationDispersalMillis() {
+        return this.eliminationDispersal.getTotalNanos() / 1e6;
+    }
+
+    @Override
+    public double getStepSizeMillis() {
+        return this.stepSize.getTotalNanos() / 1e6;
+    }
+
+    @Override
+    public double getMigrationMillis() {
+        return this.migration.getTotalNanos() / 1e6;
+    }
+
+    @Override
+    public void reset() {
+        this.registry.reset();
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server with the name
+     * {@code com.garcialopez.jmetabfop:type=SolverMetrics,name=<name>}.
+     *
+     * @param name the name that identifies the metrics, for example the name
+     * of the problem.
+     */
+    public synchronized void register(String name) {
+        this.unregister();
+        try {
+            ObjectName objectName = new ObjectName("com.garcialopez.jmetabfop:type=SolverMetrics,name="
+                    + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch (JMException ex) {
+            throw new IllegalStateException("The metrics could not be registered in JMX.", ex);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they were
+     * registered.
+     */
+    public synchronized void unregister() {
+        if (this.objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(this.objectName)) {
+                server.unregisterMBean(this.objectName);
+            }
+        } catch (JMException ex) {
+            System.err.println("The metrics could not be removed from JMX: " + ex.getMessage());
+        }
+        this.objectName = null;
+    }
+
+}
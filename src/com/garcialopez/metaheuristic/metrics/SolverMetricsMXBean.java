@@ -0,0 +1,96 @@
+package com.garcialopez.metaheuristic.metrics;
+
+/**
+ * SolverMetricsMXBean provides the management interface of
+ * {@link SolverMetrics}, so that the metrics of a run can be followed with
+ * JConsole, VisualVM or any other JMX client. The times are in milliseconds.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public interface SolverMetricsMXBean {
+
+    /**
+     * @return the evaluations of the objective function.
+     */
+    public abstract long getObjectiveEvaluations();
+
+    /**
+     * @return the evaluations of the constraints.
+     */
+    public abstract long getConstraintEvaluations();
+
+    /**
+     * @return the sorts of the whole population.
+     */
+    public abstract long getSorts();
+
+    /**
+     * @return the reinsertions of one bacterium in the sorted population.
+     */
+    public abstract long getReinsertions();
+
+    /**
+     * @return the new positions of the chemotaxis compared with their bacterium.
+     */
+    public abstract long getSwims();
+
+    /**
+     * @return the new positions that replaced their bacterium.
+     */
+    public abstract long getAcceptedSwims();
+
+    /**
+     * @return the percentage of swims that replaced the bacterium.
+     */
+    public abstract double getSwimAcceptanceRate();
+
+    /**
+     * @return the generations completed.
+     */
+    public abstract long getGenerations();
+
+    /**
+     * @return the percentage of feasible bacteria in the last generation.
+     */
+    public abstract double getFeasibleRatio();
+
+    /**
+     * @return the percentage of feasible bacteria in all the generations.
+     */
+    public abstract double getMeanFeasibleRatio();
+
+    /**
+     * @return the time of the chemotaxis.
+     */
+    public abstract double getChemotaxisMillis();
+
+    /**
+     * @return the time of the reproduction.
+     */
+    public abstract double getReproductionMillis();
+
+    /**
+     * @return the time of the elimination-dispersal.
+     */
+    public abstract double getEliminationDispersalMillis();
+
+    /**
+     * @return the time of the step size update.
+     */
+    public abstract double getStepSizeMillis();
+
+    /**
+     * @return the time of the migration of the island model.
+     */
+    public abstract double getMigrationMillis();
+
+    /**
+     * Sets all the metrics to zero.
+     */
+    public abstract void reset();
+
+}
@@ -0,0 +1,67 @@
+package com.garcialopez.metaheuristic.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timer class accumulates the duration of an activity that is performed many
+ * times, for example the chemotaxis of each generation. It can be used by
+ * several threads at the same time.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public final class Timer {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Adds a duration to the timer.
+     *
+     * @param nanos the duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        this.count.increment();
+        this.totalNanos.add(nanos);
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns the sum of the durations recorded.
+     *
+     * @return the total time in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return this.totalNanos.sum();
+    }
+
+    /**
+     * Returns the average of the durations recorded.
+     *
+     * @return the mean time in nanoseconds, 0 if nothing was recorded.
+     */
+    public double getMeanNanos() {
+        long records = this.count.sum();
+        return (records == 0) ? 0 : (double) this.totalNanos.sum() / records;
+    }
+
+    /**
+     * Removes all the durations recorded.
+     */
+    public void reset() {
+        this.count.reset();
+        this.totalNanos.reset();
+    }
+
+}
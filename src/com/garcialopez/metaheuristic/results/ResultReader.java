@@ -0,0 +1,443 @@
+package com.garcialopez.metaheuristic.results;
+
+import com.garcialopez.metaheuristic.ExecutionStore;
+import com.garcialopez.optimizationmodel.CNOP;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ResultReader class reads a file of results written with
+ * {@link ResultWriter}. The header is read when the file is opened; the rows
+ * are streamed block by block from regions of the file mapped in memory, so
+ * the results of any number of executions are processed without loading them
+ * into the heap, e.g. the statistics of a run:
+ * <pre>
+ * try (ResultReader reader = new ResultReader(Paths.get("g01.results"))) {
+ *     double[] statistic = reader.summary(new G01_CEC2006());
+ * }
+ * </pre>
+ * A reader is used by a single thread.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class ResultReader implements AutoCloseable {
+
+    private static final long REGION = 1 << 24;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long dataStart;
+    private final long dataEnd;
+    private final long traceRows;
+    private final long bestRows;
+
+    private final String nameProblem;
+    private final String type;
+    private final double bestKnownValue;
+    private final List<String> orderVariables;
+    private final Map<String, String> parameters;
+
+    // Region of the file mapped, remapped when a block is outside it
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    /**
+     * Consumer of the rows of convergence.
+     */
+    @FunctionalInterface
+    public interface TraceConsumer {
+
+        /**
+         * Receives a row of convergence.
+         *
+         * @param execution the number of the execution.
+         * @param generation the generation.
+         * @param evaluations the evaluations performed so far.
+         * @param objectiveFunction the best objective function so far.
+         * @param sumConstraintViolation the sum of constraint violations of
+         * the best individual so far.
+         */
+        void accept(int execution, int generation, int evaluations,
+                double objectiveFunction, double sumConstraintViolation);
+    }
+
+    /**
+     * Consumer of the best individuals of the executions.
+     */
+    @FunctionalInterface
+    public interface BestConsumer {
+
+        /**
+         * Receives the best individual of an execution.
+         *
+         * @param execution the number of the execution.
+         * @param best the individual: the variables, the step sizes, the
+         * objective function value and the sum of constraint violations. The
+         * array is reused for the next individual, so it must be copied to be
+         * kept.
+         * @param evaluations the evaluations of the execution.
+         * @param sccp the evaluations in which the execution reached the best
+         * known value, 0 if it did not reach it.
+         * @param timeNanos the time of the execution.
+         */
+        void accept(int execution, double[] best, int evaluations, int sccp, long timeNanos);
+    }
+
+    /**
+     * Opens a file of results and reads its header.
+     *
+     * @param file the file.
+     * @throws UncheckedIOException if the file cannot be read.
+     * @throws IllegalStateException if the file is not a file of results.
+     */
+    public ResultReader(Path file) {
+        this.file = file;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            if (this.channel.size() < ResultWriter.SCHEMA + Integer.BYTES) {
+                throw this.notResults();
+            }
+            ByteBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    ResultWriter.SCHEMA + Integer.BYTES);
+            if (header.getInt() != ResultWriter.MAGIC) {
+                throw this.notResults();
+            }
+            int version = header.getInt();
+            if (version != ResultWriter.VERSION) {
+                throw new IllegalStateException("Version " + version + " of the results " + file
+                        + " is not supported.");
+            }
+            this.dataEnd = header.getLong(ResultWriter.DATA_END);
+            this.traceRows = header.getLong(ResultWriter.TRACE_ROWS);
+            this.bestRows = header.getLong(ResultWriter.BEST_ROWS);
+            int length = header.getInt(ResultWriter.SCHEMA);
+            this.dataStart = ResultWriter.SCHEMA + Integer.BYTES + length;
+            if (this.dataEnd < this.dataStart || this.dataEnd > this.channel.size()) {
+                throw this.notResults();
+            }
+
+            ByteBuffer schema = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                    ResultWriter.SCHEMA + Integer.BYTES, length);
+            this.nameProblem = getString(schema);
+            this.type = getString(schema);
+            this.bestKnownValue = schema.getDouble();
+            int numberVariable = schema.getInt();
+            List<String> variables = new ArrayList<>(numberVariable);
+            for (int j = 0; j < numberVariable; j++) {
+                variables.add(getString(schema));
+            }
+            this.orderVariables = Collections.unmodifiableList(variables);
+            int size = schema.getInt();
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int k = 0; k < size; k++) {
+                String name = getString(schema);
+                values.put(name, getString(schema));
+            }
+            this.parameters = Collections.unmodifiableMap(values);
+        } catch (IOException | RuntimeException e) {
+            this.close();
+            throw (e instanceof IOException) ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+        }
+    }
+
+    private IllegalStateException notResults() {
+        return new IllegalStateException(this.file + " is not a file of results of JMetaBFOP.");
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the name of the problem.
+     *
+     * @return the name
+     */
+    public String getNameProblem() {
+        return nameProblem;
+    }
+
+    /**
+     * Returns the type of the problem, {@link CNOP#MINIMIZATION} or
+     * {@link CNOP#MAXIMIZATION}.
+     *
+     * @return the type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns the best known value of the problem.
+     *
+     * @return the best known value
+     */
+    public double getBestKnownValue() {
+        return bestKnownValue;
+    }
+
+    /**
+     * Returns the names of the variables, in the order of the values of the
+     * individuals.
+     *
+     * @return the names
+     */
+    public List<String> getOrderVariables() {
+        return orderVariables;
+    }
+
+    /**
+     * Returns the number of variables of the problem.
+     *
+     * @return the number of variables
+     */
+    public int getNumberVariable() {
+        return this.orderVariables.size();
+    }
+
+    /**
+     * Returns the parameters of the run by name.
+     *
+     * @return the parameters
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns the number of rows of convergence.
+     *
+     * @return the rows
+     */
+    public long getTraceRows() {
+        return traceRows;
+    }
+
+    /**
+     * Returns the number of best individuals, one per execution.
+     *
+     * @return the rows
+     */
+    public long getBestRows() {
+        return bestRows;
+    }
+
+    /**
+     * Streams the rows of convergence, in the order in which they were
+     * written.
+     *
+     * @param consumer the consumer of the rows.
+     * @throws UncheckedIOException if the file cannot be read.
+     */
+    public void forEachTrace(TraceConsumer consumer) {
+        long position = this.dataStart;
+        while (position < this.dataEnd) {
+            ByteBuffer block = this.block(position, 2 * Integer.BYTES);
+            int kind = block.getInt(block.position());
+            int rows = block.getInt(block.position() + Integer.BYTES);
+            long bytes = this.blockBytes(kind, rows);
+            if (kind == ResultWriter.TRACE) {
+                block = this.block(position, bytes);
+                int execution = block.position() + 2 * Integer.BYTES;
+                int generation = execution + rows * Integer.BYTES;
+                int evaluations = generation + rows * Integer.BYTES;
+                int objective = evaluations + rows * Integer.BYTES;
+                int violation = objective + rows * Double.BYTES;
+                for (int r = 0; r < rows; r++) {
+                    consumer.accept(block.getInt(execution + r * Integer.BYTES),
+                            block.getInt(generation + r * Integer.BYTES),
+                            block.getInt(evaluations + r * Integer.BYTES),
+                            block.getDouble(objective + r * Double.BYTES),
+                            block.getDouble(violation + r * Double.BYTES));
+                }
+            }
+            position += bytes;
+        }
+    }
+
+    /**
+     * Streams the best individuals of the executions, in the order in which
+     * the executions finished.
+     *
+     * @param consumer the consumer of the individuals.
+     * @throws UncheckedIOException if the file cannot be read.
+     */
+    public void forEachBest(BestConsumer consumer) {
+        int sizeValues = this.getNumberVariable() * 2 + 2;
+        double[] best = new double[sizeValues];
+        long position = this.dataStart;
+        while (position < this.dataEnd) {
+            ByteBuffer block = this.block(position, 2 * Integer.BYTES);
+            int kind = block.getInt(block.position());
+            int rows = block.getInt(block.position() + Integer.BYTES);
+            long bytes = this.blockBytes(kind, rows);
+            if (kind == ResultWriter.BEST) {
+                block = this.block(position, bytes);
+                int execution = block.position() + 2 * Integer.BYTES;
+                int evaluations = execution + rows * Integer.BYTES;
+                int sccp = evaluations + rows * Integer.BYTES;
+                int time = sccp + rows * Integer.BYTES;
+                int values = time + rows * Long.BYTES;
+                for (int r = 0; r < rows; r++) {
+                    // The values of an individual are in the same row of each column
+                    for (int c = 0, index = values + r * Double.BYTES; c < sizeValues;
+                            c++, index += rows * Double.BYTES) {
+                        best[c] = block.getDouble(index);
+                    }
+                    consumer.accept(block.getInt(execution + r * Integer.BYTES), best,
+                            block.getInt(evaluations + r * Integer.BYTES),
+                            block.getInt(sccp + r * Integer.BYTES),
+                            block.getLong(time + r * Long.BYTES));
+                }
+            }
+            position += bytes;
+        }
+    }
+
+    /**
+     * Adds the best individuals of the executions to a store, which
+     * calculates the statistics of the run with bounded memory.
+     *
+     * @param cnop the CNOP of the results.
+     * @param capacity the maximum number of individuals kept by the store.
+     * @return the store.
+     * @throws IllegalArgumentException if the results are not of the CNOP.
+     */
+    public ExecutionStore toStore(CNOP cnop, int capacity) {
+        return this.fill(cnop, new ExecutionStore(cnop, capacity), null);
+    }
+
+    /**
+     * Calculates the statistics of the run, in the order of
+     * {@link com.garcialopez.metaheuristic.MetaheuristicBase#getStatisticsName()},
+     * streaming the best individuals into an {@link ExecutionStore} with the
+     * default capacity. Up to that number of executions the statistics are the
+     * same as those of the run, except for the last digits of the mean and
+     * the standard deviation when the executions finished in another order.
+     *
+     * @param cnop the CNOP of the results.
+     * @return the statistics.
+     * @throws IllegalArgumentException if the results are not of the CNOP.
+     * @throws IllegalStateException if there are no executions.
+     */
+    public double[] summary(CNOP cnop) {
+        if (this.bestRows == 0) {
+            throw new IllegalStateException("The results of " + this.file + " have no executions.");
+        }
+        int[] sccp = new int[(int) this.bestRows];
+        return this.fill(cnop, new ExecutionStore(cnop), sccp).summary(sccp);
+    }
+
+    /**
+     * Adds the best individuals to a store in one pass over the file.
+     *
+     * @param cnop the CNOP of the results.
+     * @param store the store.
+     * @param sccp where the evaluations to reach the best known value are
+     * copied, or null.
+     * @return the store.
+     */
+    private ExecutionStore fill(CNOP cnop, ExecutionStore store, int[] sccp) {
+        this.checkProblem(cnop);
+        int[] next = {0};
+        this.forEachBest((execution, best, evaluations, reached, timeNanos) -> {
+            // The store only keeps the first individuals
+            store.add((store.getCount() < store.getCapacity()) ? best.clone() : best);
+            if (sccp != null) {
+                sccp[next[0]++] = reached;
+            }
+        });
+        return store;
+    }
+
+    private void checkProblem(CNOP cnop) {
+        String name = (cnop.getNameProblem() != null) ? cnop.getNameProblem() : "";
+        if (!this.nameProblem.equals(name)
+                || this.getNumberVariable() != cnop.getNumberVariable()) {
+            throw new IllegalArgumentException("The results of " + this.file + " are of the CNOP "
+                    + this.nameProblem + ".");
+        }
+    }
+
+    /**
+     * Calculates the bytes of a block.
+     *
+     * @param kind the kind of the block.
+     * @param rows the rows of the block.
+     * @return the bytes.
+     */
+    private long blockBytes(int kind, int rows) {
+        switch (kind) {
+            case ResultWriter.TRACE:
+                return 2 * Integer.BYTES + (long) rows * ResultWriter.TRACE_ROW_BYTES;
+            case ResultWriter.BEST:
+                return 2 * Integer.BYTES + (long) rows * (ResultWriter.BEST_ROW_BYTES
+                        + (this.getNumberVariable() * 2 + 2) * Double.BYTES);
+            default:
+                throw new IllegalStateException("The results of " + this.file + " are damaged.");
+        }
+    }
+
+    /**
+     * Returns the mapped region that holds a block, positioned at the start of
+     * the block.
+     *
+     * @param position the position of the block in the file.
+     * @param bytes the bytes of the block.
+     * @return the region.
+     */
+    private ByteBuffer block(long position, long bytes) {
+        if (position + bytes > this.dataEnd) {
+            throw new IllegalStateException("The results of " + this.file + " are damaged.");
+        }
+        if (this.region == null || position < this.regionStart
+                || position + bytes > this.regionStart + this.region.capacity()) {
+            try {
+                this.region = this.channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(Math.max(REGION, bytes), this.dataEnd - position));
+                this.regionStart = position;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        this.region.position((int) (position - this.regionStart));
+        return this.region;
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws UncheckedIOException if the file cannot be closed.
+     */
+    @Override
+    public void close() {
+        try {
+            this.region = null;
+            this.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,487 @@
+package com.garcialopez.metaheuristic.results;
+
+import com.garcialopez.metaheuristic.ExecutionState;
+import com.garcialopez.metaheuristic.MetaheuristicListener;
+import com.garcialopez.metaheuristic.Statistics;
+import com.garcialopez.optimizationmodel.CNOP;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ResultWriter class writes the results of the executions of a run to a
+ * binary file while the run is performed, so that the results of thousands of
+ * executions are kept on the disk instead of in memory. It is a
+ * {@link MetaheuristicListener}: it writes one row of convergence per
+ * generation (the best objective function and sum of constraint violations so
+ * far) and the best individual of each execution, e.g.:
+ * <pre>
+ * try (ResultWriter writer = new ResultWriter(Paths.get("g01.results"), cnop,
+ *         tsmbfoa.getParameterValues())) {
+ *     tsmbfoa.addListener(writer);
+ *     tsmbfoa.run();
+ * }
+ * </pre>
+ * The file starts with a header that describes the results: the name and type
+ * of the problem, its best known value, the order of the variables and the
+ * parameters of the run. Then come blocks of rows stored by columns, so that
+ * a column (e.g. the objective function of all the executions) is read
+ * without reading the rest. The rows are collected in the heap up to the size
+ * of a block and then copied to a region of the file mapped in memory; the
+ * header keeps the end of the last block, so a file that was not closed (e.g.
+ * after a crash) can still be read up to its last block.
+ * <br>
+ * The file is read with {@link ResultReader}. The values are written in
+ * big-endian order. The methods are synchronized, so the writer can follow
+ * executions that run concurrently. With the island model of TSMBFOA the
+ * convergence has one row per colony and generation.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class ResultWriter implements MetaheuristicListener, AutoCloseable {
+
+    static final int MAGIC = 0x4A4D4252;
+    static final int VERSION = 1;
+
+    // Positions of the values of the header that change while the file grows
+    static final int DATA_END = 8;
+    static final int TRACE_ROWS = 16;
+    static final int BEST_ROWS = 24;
+    static final int SCHEMA = 32;
+
+    // Kinds of blocks
+    static final int TRACE = 1;
+    static final int BEST = 2;
+
+    // Bytes of a row of convergence: execution, generation, evaluations,
+    // objective function and sum of constraint violations
+    static final int TRACE_ROW_BYTES = 3 * Integer.BYTES + 2 * Double.BYTES;
+
+    // Bytes of a best individual besides its values: execution, evaluations,
+    // evaluations to reach the best known value and time
+    static final int BEST_ROW_BYTES = 3 * Integer.BYTES + Long.BYTES;
+
+    private static final int TRACE_BLOCK = 8192;
+    private static final int BEST_BLOCK_BYTES = 1 << 20;
+    private static final long REGION = 1 << 24;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int sizeValues;
+    private final double bestKnownValue;
+
+    // Region of the file mapped for the blocks, remapped when a block does not fit
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long dataEnd;
+    private long traceRows;
+    private long bestRows;
+    private boolean closed;
+    private int traceSampling = 1;
+
+    // Block of convergence in progress, by columns
+    private final int[] traceExecution = new int[TRACE_BLOCK];
+    private final int[] traceGeneration = new int[TRACE_BLOCK];
+    private final int[] traceEvaluations = new int[TRACE_BLOCK];
+    private final double[] traceObjective = new double[TRACE_BLOCK];
+    private final double[] traceViolation = new double[TRACE_BLOCK];
+    private int traceSize;
+
+    // Block of best individuals in progress, by columns
+    private final int bestBlock;
+    private final int[] bestExecution;
+    private final int[] bestEvaluations;
+    private final int[] bestSccp;
+    private final long[] bestTime;
+    private final double[][] bestValues;
+    private int bestSize;
+
+    // Evaluations in which the executions in progress reached the best known value
+    private final Map<Integer, Integer> sccp = new HashMap<>();
+
+    /**
+     * Creates the file of results of a run, replacing it if it exists.
+     *
+     * @param file the file.
+     * @param cnop the CNOP optimized in the run.
+     * @param parameters the parameters of the run by name, see
+     * {@link com.garcialopez.metaheuristic.MetaheuristicBase#getParameterValues()}.
+     * @throws UncheckedIOException if the file cannot be created.
+     */
+    public ResultWriter(Path file, CNOP cnop, Map<String, String> parameters) {
+        this.file = file;
+        this.sizeValues = cnop.getNumberVariable() * 2 + 2;
+        this.bestKnownValue = cnop.getBestKnownValue();
+
+        // The blocks of best individuals take about the same memory whatever the variables
+        this.bestBlock = Math.max(16, BEST_BLOCK_BYTES / (this.sizeValues * Double.BYTES));
+        this.bestExecution = new int[this.bestBlock];
+        this.bestEvaluations = new int[this.bestBlock];
+        this.bestSccp = new int[this.bestBlock];
+        this.bestTime = new long[this.bestBlock];
+        this.bestValues = new double[this.sizeValues][this.bestBlock];
+
+        byte[] schema = schema(cnop, parameters);
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.dataEnd = SCHEMA + Integer.BYTES + schema.length;
+            this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.dataEnd);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.header.putInt(MAGIC);
+        this.header.putInt(VERSION);
+        this.header.putLong(DATA_END, this.dataEnd);
+        this.header.putLong(TRACE_ROWS, 0);
+        this.header.putLong(BEST_ROWS, 0);
+        this.header.position(SCHEMA);
+        this.header.putInt(schema.length);
+        this.header.put(schema);
+    }
+
+    /**
+     * Encodes the description of the results.
+     *
+     * @param cnop the CNOP optimized.
+     * @param parameters the parameters of the run.
+     * @return the bytes of the description.
+     */
+    private static byte[] schema(CNOP cnop, Map<String, String> parameters) {
+        List<String> variables = cnop.getOrderVariables();
+        Schema schema = new Schema();
+        schema.putString(cnop.getNameProblem());
+        schema.putString(cnop.getType());
+        schema.putDouble(cnop.getBestKnownValue());
+        schema.putInt(cnop.getNumberVariable());
+        for (int j = 0; j < cnop.getNumberVariable(); j++) {
+            schema.putString((variables != null) ? variables.get(j) : "x" + (j + 1));
+        }
+        schema.putInt(parameters.size());
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            schema.putString(parameter.getKey());
+            schema.putString(parameter.getValue());
+        }
+        return schema.toBytes();
+    }
+
+    /**
+     * Returns the file of results.
+     *
+     * @return the file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns every how many generations a row of convergence is written.
+     *
+     * @return the generations
+     */
+    public synchronized int getTraceSampling() {
+        return traceSampling;
+    }
+
+    /**
+     * Assigns every how many generations a row of convergence is written, by
+     * default every generation.
+     *
+     * @param traceSampling the generations, 0 to write no convergence.
+     */
+    public synchronized void setTraceSampling(int traceSampling) {
+        if (traceSampling < 0) {
+            throw new IllegalArgumentException("The sampling of the convergence can not be negative.");
+        }
+        this.traceSampling = traceSampling;
+    }
+
+    /**
+     * Returns a listener that writes the results of an execution with the
+     * given number instead of the number of the execution in its run, e.g.
+     * when each execution of an experiment is a run of its own.
+     *
+     * @param execution the number of the execution written.
+     * @return the listener.
+     */
+    public MetaheuristicListener forExecution(int execution) {
+        return new MetaheuristicListener() {
+            @Override
+            public void generationCompleted(ExecutionState state) {
+                ResultWriter.this.generationCompleted(execution, state);
+            }
+
+            @Override
+            public void executionFinished(ExecutionState state, double[] best) {
+                ResultWriter.this.executionFinished(execution, state, best);
+            }
+        };
+    }
+
+    @Override
+    public void generationCompleted(ExecutionState state) {
+        this.generationCompleted(state.getExecution(), state);
+    }
+
+    @Override
+    public void executionFinished(ExecutionState state, double[] best) {
+        this.executionFinished(state.getExecution(), state, best);
+    }
+
+    private synchronized void generationCompleted(int execution, ExecutionState state) {
+        if (state.getBestSumConstraintViolation() == 0
+                && state.getBestObjectiveFunction() - this.bestKnownValue <= Statistics.SUCCESS_TOLERANCE) {
+            this.sccp.putIfAbsent(execution, state.getEvaluations());
+        }
+        if (this.traceSampling > 0 && state.getGenerations() % this.traceSampling == 0) {
+            this.addTrace(execution, state.getGenerations(), state.getEvaluations(),
+                    state.getBestObjectiveFunction(), state.getBestSumConstraintViolation());
+        }
+    }
+
+    private synchronized void executionFinished(int execution, ExecutionState state, double[] best) {
+        Integer reached = this.sccp.remove(execution);
+        this.addBest(execution, best, state.getEvaluations(), (reached != null) ? reached : 0,
+                state.getExecutionTimeNanos());
+    }
+
+    /**
+     * Adds a row of convergence.
+     *
+     * @param execution the number of the execution.
+     * @param generation the generation.
+     * @param evaluations the evaluations performed so far.
+     * @param objectiveFunction the best objective function so far.
+     * @param sumConstraintViolation the sum of constraint violations of the
+     * best individual so far.
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    public synchronized void addTrace(int execution, int generation, int evaluations,
+            double objectiveFunction, double sumConstraintViolation) {
+        this.checkOpen();
+        int r = this.traceSize++;
+        this.traceExecution[r] = execution;
+        this.traceGeneration[r] = generation;
+        this.traceEvaluations[r] = evaluations;
+        this.traceObjective[r] = objectiveFunction;
+        this.traceViolation[r] = sumConstraintViolation;
+        if (this.traceSize == TRACE_BLOCK) {
+            this.writeTrace();
+        }
+    }
+
+    /**
+     * Adds the best individual of an execution.
+     *
+     * @param execution the number of the execution.
+     * @param best the individual: the variables, the step sizes, the
+     * objective function value and the sum of constraint violations.
+     * @param evaluations the evaluations of the execution.
+     * @param sccp the evaluations in which the execution reached the best
+     * known value, 0 if it did not reach it.
+     * @param timeNanos the time of the execution.
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    public synchronized void addBest(int execution, double[] best, int evaluations, int sccp, long timeNanos) {
+        this.checkOpen();
+        if (best.length != this.sizeValues) {
+            throw new IllegalArgumentException("The individual must have " + this.sizeValues + " values.");
+        }
+        int r = this.bestSize++;
+        this.bestExecution[r] = execution;
+        this.bestEvaluations[r] = evaluations;
+        this.bestSccp[r] = sccp;
+        this.bestTime[r] = timeNanos;
+        for (int c = 0; c < this.sizeValues; c++) {
+            this.bestValues[c][r] = best[c];
+        }
+        if (this.bestSize == this.bestBlock) {
+            this.writeBest();
+        }
+    }
+
+    /**
+     * Writes to the file the rows collected so far.
+     *
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    public synchronized void flush() {
+        this.checkOpen();
+        if (this.traceSize > 0) {
+            this.writeTrace();
+        }
+        if (this.bestSize > 0) {
+            this.writeBest();
+        }
+    }
+
+    /**
+     * Writes the rows collected so far, forces the file to the disk and
+     * closes it.
+     *
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.flush();
+        this.closed = true;
+        try {
+            if (this.region != null) {
+                this.region.force();
+            }
+            this.header.force();
+            try {
+                this.channel.truncate(this.dataEnd);
+            } catch (IOException e) {
+                // Some systems do not truncate a mapped file; the reader stops at the end of the data
+            }
+            this.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("The file of results " + this.file + " is closed.");
+        }
+    }
+
+    private void writeTrace() {
+        int rows = this.traceSize;
+        ByteBuffer block = this.reserve(2 * Integer.BYTES + (long) rows * TRACE_ROW_BYTES);
+        block.putInt(TRACE);
+        block.putInt(rows);
+        putInts(block, this.traceExecution, rows);
+        putInts(block, this.traceGeneration, rows);
+        putInts(block, this.traceEvaluations, rows);
+        putDoubles(block, this.traceObjective, rows);
+        putDoubles(block, this.traceViolation, rows);
+        this.traceRows += rows;
+        this.traceSize = 0;
+        this.commit(block);
+    }
+
+    private void writeBest() {
+        int rows = this.bestSize;
+        ByteBuffer block = this.reserve(2 * Integer.BYTES
+                + (long) rows * (BEST_ROW_BYTES + this.sizeValues * Double.BYTES));
+        block.putInt(BEST);
+        block.putInt(rows);
+        putInts(block, this.bestExecution, rows);
+        putInts(block, this.bestEvaluations, rows);
+        putInts(block, this.bestSccp, rows);
+        block.asLongBuffer().put(this.bestTime, 0, rows);
+        block.position(block.position() + rows * Long.BYTES);
+        for (double[] column : this.bestValues) {
+            putDoubles(block, column, rows);
+        }
+        this.bestRows += rows;
+        this.bestSize = 0;
+        this.commit(block);
+    }
+
+    private static void putInts(ByteBuffer block, int[] column, int rows) {
+        block.asIntBuffer().put(column, 0, rows);
+        block.position(block.position() + rows * Integer.BYTES);
+    }
+
+    private static void putDoubles(ByteBuffer block, double[] column, int rows) {
+        block.asDoubleBuffer().put(column, 0, rows);
+        block.position(block.position() + rows * Double.BYTES);
+    }
+
+    /**
+     * Returns the mapped region where the next block is written, positioned
+     * at the end of the data.
+     *
+     * @param bytes the bytes of the block.
+     * @return the region.
+     */
+    private ByteBuffer reserve(long bytes) {
+        if (this.region == null || this.dataEnd + bytes > this.regionStart + this.region.capacity()) {
+            try {
+                if (this.region != null) {
+                    this.region.force();
+                }
+                this.region = this.channel.map(FileChannel.MapMode.READ_WRITE, this.dataEnd, Math.max(REGION, bytes));
+                this.regionStart = this.dataEnd;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        this.region.position((int) (this.dataEnd - this.regionStart));
+        return this.region;
+    }
+
+    /**
+     * Records in the header that a block was written.
+     *
+     * @param block the region where the block was written.
+     */
+    private void commit(ByteBuffer block) {
+        this.dataEnd = this.regionStart + block.position();
+        this.header.putLong(TRACE_ROWS, this.traceRows);
+        this.header.putLong(BEST_ROWS, this.bestRows);
+        this.header.putLong(DATA_END, this.dataEnd);
+    }
+
+    /**
+     * Buffer of the description of the results, it grows as needed.
+     */
+    private static final class Schema {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+
+        private void putInt(int value) {
+            this.ensure(Integer.BYTES);
+            this.buffer.putInt(value);
+        }
+
+        private void putDouble(double value) {
+            this.ensure(Double.BYTES);
+            this.buffer.putDouble(value);
+        }
+
+        private void putString(String value) {
+            byte[] bytes = (value != null) ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            this.putInt(bytes.length);
+            this.ensure(bytes.length);
+            this.buffer.put(bytes);
+        }
+
+        private void ensure(int bytes) {
+            if (this.buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2,
+                        this.buffer.position() + bytes));
+                this.buffer.flip();
+                larger.put(this.buffer);
+                this.buffer = larger;
+            }
+        }
+
+        private byte[] toBytes() {
+            byte[] bytes = new byte[this.buffer.position()];
+            this.buffer.flip();
+            this.buffer.get(bytes);
+            return bytes;
+        }
+    }
+
+}
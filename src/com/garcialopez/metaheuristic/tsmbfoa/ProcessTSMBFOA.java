@@ -2,8 +2,18 @@ package com.garcialopez.metaheuristic.tsmbfoa;
 
 import com.garcialopez.metaheuristic.NRandom;
 import com.garcialopez.metaheuristic.Population;
+import com.garcialopez.metaheuristic.metrics.SolverMetrics;
 import com.garcialopez.optimizationmodel.CNOP;
+import com.garcialopez.optimizationmodel.EvaluationBatch;
+import com.garcialopez.optimizationmodel.EvaluationCache;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * <b>ProcessTSMBFOA</b> class allows the creation of an object to initiate the
@@ -18,162 +28,695 @@ import java.util.Arrays;
  */
 public class ProcessTSMBFOA implements Foraging {
 
-    private NRandom nRandom;
+    private final NRandom nRandom;
+
+    // Results of the candidates already evaluated, null if there is no cache
+    private EvaluationCache evaluationCache;
+    private long evaluations;
+    private long constraintEvaluations;
+
+    // Metrics of the engine, null if they are not measured
+    private SolverMetrics metrics;
+    private int acceptedSwims;
+
+    // Buffers reused in each generation, so that the foraging allocates no memory
+    private double[][] newBacteria;
+    private double[][] newBacterium;
+    private double[][] angles;
+    private boolean[] flags;
+    private int[] candidates;
+    private double[] stem;
+    private double[] previous;
+    private int[] blockFrom;
+    private int[] blockTo;
+
+    // Violation of each constraint of the bacterium that swims and of its new
+    // position, for the incremental evaluation
+    private double[] violations;
+    private double[] newViolations;
+    private boolean cacheHit;
+    private final int[] selected = new int[3];
+
+    // Batches of the synchronous chemotaxis, one per thread of the pool
+    private EvaluationBatch[] batches;
+    private List<Callable<Void>> batchTasks;
 
+    /**
+     * Creates the process with random numbers that are different in each
+     * run.
+     */
     public ProcessTSMBFOA() {
+        this(new NRandom());
+    }
+
+    /**
+     * Creates the process taking all the random numbers from the given
+     * generator, which must not be shared with other threads.
+     *
+     * @param nRandom the generator of random numbers
+     */
+    public ProcessTSMBFOA(NRandom nRandom) {
+        this.nRandom = nRandom;
+    }
+
+    /**
+     * Returns the cache of the evaluations.
+     *
+     * @return the cache, or null if every candidate is evaluated.
+     */
+    public EvaluationCache getEvaluationCache() {
+        return evaluationCache;
+    }
+
+    /**
+     * Sets a cache so that the candidates that were already evaluated take
+     * their results from it instead of evaluating them again.
+     *
+     * @param evaluationCache the cache, or null to evaluate every candidate.
+     */
+    public void setEvaluationCache(EvaluationCache evaluationCache) {
+        this.evaluationCache = evaluationCache;
+    }
+
+    /**
+     * Returns the number of candidates evaluated with the CNOP, without the
+     * ones taken from the cache.
+     *
+     * @return the number of evaluations.
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Assigns the number of candidates evaluated, when an execution continues
+     * from a checkpoint.
+     *
+     * @param evaluations the number of evaluations.
+     */
+    void setEvaluations(long evaluations) {
+        this.evaluations = evaluations;
+    }
+
+    /**
+     * Returns the metrics where the work of the process is counted.
+     *
+     * @return the metrics, null if they are not measured
+     */
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Assigns the metrics where the work of the process is counted: the
+     * evaluations, the sorts of the population and the swims of the
+     * chemotaxis. With null (the default) nothing is counted.
+     *
+     * @param metrics the metrics to set
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Evaluates a candidate, unless its results are in the cache.
+     *
+     * @param cnop the CNOP to optimize
+     * @param candidate a one-row matrix with the candidate
+     * @return the evaluated candidate
+     */
+    private double[][] evaluate(CNOP cnop, double[][] candidate) {
+        if (this.evaluationCache != null && this.evaluationCache.lookup(candidate[0])) {
+            return candidate;
+        }
+        candidate = cnop.evaluateObjectiveFunction(candidate);
+        this.evaluations++;
+        this.constraintEvaluations += cnop.getNumberConstraints();
+        if (this.evaluationCache != null) {
+            this.evaluationCache.store(candidate[0]);
+        }
+        return candidate;
+    }
+
+    /**
+     * Evaluates a candidate that only changed in a block of variables with
+     * respect to the bacterium it comes from, unless its results are in the
+     * cache.
+     *
+     * @param cnop the CNOP to optimize
+     * @param candidate a one-row matrix with the candidate, with the results
+     * of the bacterium
+     * @param from the first variable of the block
+     * @param to the variable after the last one of the block
+     * @return the evaluated candidate
+     */
+    private double[][] evaluateChange(CNOP cnop, double[][] candidate, int from, int to) {
+        if (this.evaluationCache != null && this.evaluationCache.lookup(candidate[0])) {
+            return candidate;
+        }
+        candidate = cnop.evaluateChange(candidate, from, to, this.previous);
+        this.evaluations++;
+        this.constraintEvaluations += cnop.getNumberConstraints();
+        if (this.evaluationCache != null) {
+            this.evaluationCache.store(candidate[0]);
+        }
+        return candidate;
+    }
+
+    /**
+     * Evaluates a candidate that only changed in a block of variables with
+     * respect to the bacterium it comes from, evaluating only the constraints
+     * of the variables that changed, unless its results are in the cache.
+     * The violations of the constraints of the bacterium are taken from
+     * {@code violations} and the ones of the candidate are written in
+     * {@code newViolations}; they are not known when the results come from
+     * the cache.
+     *
+     * @param cnop the CNOP to optimize
+     * @param candidate a one-row matrix with the candidate, with the results
+     * of the bacterium
+     * @param from the first variable of the block
+     * @param to the variable after the last one of the block
+     * @return the evaluated candidate
+     */
+    private double[][] evaluateIncremental(CNOP cnop, double[][] candidate, int from, int to) {
+        this.cacheHit = this.evaluationCache != null && this.evaluationCache.lookup(candidate[0]);
+        if (this.cacheHit) {
+            return candidate;
+        }
+        System.arraycopy(this.violations, 0, this.newViolations, 0, this.violations.length);
+        candidate = cnop.evaluateChange(candidate, from, to, this.previous, this.newViolations);
+        this.evaluations++;
+        this.constraintEvaluations += cnop.getEvaluatedConstraints();
+        if (this.evaluationCache != null) {
+            this.evaluationCache.store(candidate[0]);
+        }
+        return candidate;
+    }
+
+    /**
+     * Evaluates the violation of each constraint of the bacterium that swims
+     * in the incremental evaluation.
+     *
+     * @param cnop the CNOP to optimize
+     * @param values the bacterium
+     */
+    private void evaluateViolations(CNOP cnop, double[] values) {
+        cnop.evaluateViolations(values, this.violations);
+        this.constraintEvaluations += this.violations.length;
+    }
+
+    /**
+     * Returns true if all the variables of the CNOP are continuous.
+     *
+     * @param cnop the CNOP
+     * @return true if there are no discrete variables
+     */
+    private static boolean isContinuous(CNOP cnop) {
+        for (boolean continuous : cnop.isContinuousVariable()) {
+            if (!continuous) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Chooses at random the block of variables that a bacterium moves in the
+     * coordinate-block chemotaxis.
+     *
+     * @param b the rank of the bacterium
+     * @param numberVariables the number of design variables
+     * @param block the size of the blocks
+     */
+    private void chooseBlock(int b, int numberVariables, int block) {
+        int numberBlocks = (numberVariables + block - 1) / block;
+        this.blockFrom[b] = this.nRandom.getNetxInt(numberBlocks) * block;
+        this.blockTo[b] = Math.min(this.blockFrom[b] + block, numberVariables);
     }
 
     @Override
     public void chemotaxis(CNOP cnop, TSMBFOA bacteria) {
-        this.nRandom = new NRandom();
-        int sizeIndividuals = bacteria.getIndividuals().length;
-        int sizeValues = bacteria.getIndividuals()[0].length;
+        if (bacteria.isSynchronousChemotaxis()) {
+            this.synchronousChemotaxis(cnop, bacteria);
+            return;
+        }
+        Population population = bacteria.getPopulation();
+        int numberVariables = cnop.getNumberVariable();
+        int sizeValues = numberVariables * 2 + 2;
         int indexFO = sizeValues - 2;
         int indexSVR = sizeValues - 1;
-        int numberVariables = cnop.getNumberVariable();
 
         int middle = (int) (bacteria.getNc() / 2.0);
 
-        double[][] newBacterium = new double[1][numberVariables * 2 + 2];
-        double[] angles = new double[numberVariables];
-        double[] stem = new double[numberVariables * 2 + 2];       //vastago
+        this.prepareBuffers(population.getSize(), numberVariables);
+        double[] angles = this.angles[0];
         boolean flag;
+        long evaluationsAux = this.evaluations;
+        long constraintsAux = this.constraintEvaluations;
+        this.acceptedSwims = 0;
+
+        // Coordinate-block chemotaxis: each swim only moves a block of variables
+        int block = bacteria.getCoordinateBlockSize();
+        boolean blocks = block > 0 && block < numberVariables;
+        this.blockFrom[0] = 0;
+        this.blockTo[0] = numberVariables;
+
+        // Incremental evaluation: the violations of the constraints of the
+        // bacterium are kept, so that a swim only evaluates the functions of
+        // the variables that changed. Without blocks only the discrete
+        // variables can keep their values.
+        boolean incremental = cnop.isIncrementalEvaluation() && (blocks || !isContinuous(cnop));
+        boolean sparse = blocks || incremental;
+        if (incremental && (this.violations == null || this.violations.length != cnop.getNumberConstraints())) {
+            this.violations = new double[cnop.getNumberConstraints()];
+            this.newViolations = new double[cnop.getNumberConstraints()];
+        }
 
         for (int b = 0; b < bacteria.getSb(); b++) { //for b
             flag = true;
+            if (sparse) {
+                // The new position is the bacterium except for the variables that move
+                population.getRow(b, this.newBacterium[0]);
+                if (incremental) {
+                    this.evaluateViolations(cnop, this.newBacterium[0]);
+                }
+            }
             for (int c = 0; c < bacteria.getNc(); c++) {   //start chemotaxis - for c                
                 if (flag) {
-                    angles = this.generateAngles(numberVariables);
+                    if (blocks) {
+                        this.chooseBlock(0, numberVariables, block);
+                    }
+                    this.generateAngles(angles, this.blockFrom[0], this.blockTo[0]);
+                }
+                int from = this.blockFrom[0];
+                int to = this.blockTo[0];
+
+                double[][] newBacterium;
+                if (sparse) {
+                    System.arraycopy(this.newBacterium[0], from, this.previous, 0, to - from);
+                    this.swim(cnop, bacteria, population, b, c, middle, angles, this.newBacterium[0], from, to);
+                    newBacterium = (incremental)
+                            ? this.evaluateIncremental(cnop, this.newBacterium, from, to)
+                            : this.evaluateChange(cnop, this.newBacterium, from, to);
+                } else {
+                    this.swim(cnop, bacteria, population, b, c, middle, angles, this.newBacterium[0], from, to);
+                    newBacterium = this.evaluate(cnop, this.newBacterium);
+                }
+
+                int accepted = this.acceptedSwims;
+                flag = this.accept(population, b, newBacterium[0], indexFO, indexSVR, from, to);
+                if (sparse && accepted == this.acceptedSwims) {
+                    // The block moves back to the position of the bacterium
+                    population.getRow(b, newBacterium[0], from, to);
+                } else if (incremental) {
+                    if (this.cacheHit) {
+                        this.evaluateViolations(cnop, newBacterium[0]);
+                    } else {
+                        double[] violationsAux = this.violations;
+                        this.violations = this.newViolations;
+                        this.newViolations = violationsAux;
+                    }
                 }
 
-                int[] v = this.offspring(sizeIndividuals, b);
+            } //for c    
+            // Only bacterium b has moved, the rest of the population is sorted
+            population.reinsert(b);
+        }//for b
 
-                //preguntar si en bact1 es b o v1
-                double[] bact1 = Arrays.copyOf(bacteria.getIndividuals()[v[0]], bacteria.getIndividuals()[v[0]].length);
-                double[] bact2 = Arrays.copyOf(bacteria.getIndividuals()[v[1]], bacteria.getIndividuals()[v[1]].length);
-                double[] bact3 = Arrays.copyOf(bacteria.getIndividuals()[v[2]], bacteria.getIndividuals()[v[2]].length);
+        if (this.metrics != null) {
+            this.metrics.evaluated(this.evaluations - evaluationsAux, this.constraintEvaluations - constraintsAux);
+            this.metrics.swum((long) bacteria.getSb() * bacteria.getNc(), this.acceptedSwims);
+            this.metrics.reinserted(bacteria.getSb());
+        }
 
-                for (int m = 0; m < numberVariables; m++) {
-                    if (cnop.isContinuousVariable()[m]) {
-                        stem[m] = bact1[m] + (bacteria.getScalingFactor() - 1.0) * (bact2[m] - bact3[m]);
-                    } else {
-                        stem[m] = (int) (bact1[m] + (bacteria.getScalingFactor() - 1.0) * (bact2[m] - bact3[m]));
+    }
+
+    /**
+     * Chemotaxis in which all the bacteria move at the same time.
+     * <br>
+     * In each chemotactic step the new position of every bacterium is
+     * calculated with respect to the population at the beginning of the step
+     * (no bacterium is replaced until all the new positions are calculated),
+     * then all the new positions are evaluated together with
+     * {@link CNOP#evaluateBatch(EvaluationBatch)} and finally each bacterium is
+     * compared with its new position using the feasibility rules. The
+     * population is sorted once, at the end of the chemotaxis.
+     * <br>
+     * When the TSMBFOA has a chemotaxis pool, the bacteria are divided into one
+     * batch per thread and the batches are evaluated in parallel, each one
+     * with its own copy of the CNOP. The new positions and the random numbers
+     * are always calculated in the calling thread and in the same order. The
+     * candidates found in the cache are not added to the batches.
+     *
+     * @param cnop the CNOP to optimize
+     * @param bacteria the TSMBFOA with the population
+     */
+    private void synchronousChemotaxis(CNOP cnop, TSMBFOA bacteria) {
+        Population population = bacteria.getPopulation();
+        int numberVariables = cnop.getNumberVariable();
+        int sizeValues = numberVariables * 2 + 2;
+        int indexFO = sizeValues - 2;
+        int indexSVR = sizeValues - 1;
+        int sb = bacteria.getSb();
+
+        int middle = (int) (bacteria.getNc() / 2.0);
+
+        ForkJoinPool pool = bacteria.getChemotaxisPool();
+        int parallelism = (pool == null) ? 1 : Math.min(bacteria.getChemotaxisParallelism(), sb);
+        int chunk = (sb + parallelism - 1) / parallelism;
+
+        if (this.batches == null || this.batches.length != parallelism
+                || this.batches[0].getCapacity() != chunk
+                || this.batches[0].getNumberVariable() != numberVariables) {
+            this.createBatches(cnop, numberVariables, parallelism, chunk);
+        }
+
+        this.prepareBuffers(sb, numberVariables);
+        double[][] newBacteria = this.newBacteria;
+        double[][] angles = this.angles;
+        boolean[] flag = this.flags;
+        Arrays.fill(flag, true);
+
+        // Coordinate-block chemotaxis: each swim only moves a block of variables
+        int block = bacteria.getCoordinateBlockSize();
+        boolean blocks = block > 0 && block < numberVariables;
+        for (int b = 0; b < sb; b++) {
+            this.blockFrom[b] = 0;
+            this.blockTo[b] = numberVariables;
+            if (blocks) {
+                population.getRow(b, newBacteria[b]);
+            }
+        }
+
+        int[] candidate = this.candidates;
+        long evaluationsAux = this.evaluations;
+        long constraintsAux = this.constraintEvaluations;
+        this.acceptedSwims = 0;
+
+        for (int c = 0; c < bacteria.getNc(); c++) {   //start chemotaxis - for c
+            int pending = 0;
+            for (int b = 0; b < sb; b++) {
+                if (flag[b]) {
+                    if (blocks) {
+                        this.chooseBlock(b, numberVariables, block);
                     }
+                    this.generateAngles(angles[b], this.blockFrom[b], this.blockTo[b]);
                 }
+                this.swim(cnop, bacteria, population, b, c, middle, angles[b], newBacteria[b],
+                        this.blockFrom[b], this.blockTo[b]);
 
-                for (int k = 0; k < numberVariables; k++) { //for k   
-                    // if we are in the middle of the chemotactic cycles
-                    if (c > middle || c < middle) {
-                        // preguntamos si es par o impar
-                        if (c % 2 == 0) {
-                            newBacterium[0][k] = stem[k];
-                            newBacterium[0][k + numberVariables] = bacteria.getIndividuals()[b][k + numberVariables];
-                        } else {
-
-                            if (cnop.isContinuousVariable()[k]) {
-                                newBacterium[0][k] = bacteria.getIndividuals()[b][k] + bacteria.getIndividuals()[b][k + numberVariables] * angles[k];
-                                newBacterium[0][k + numberVariables] = bacteria.getIndividuals()[b][k + numberVariables];
-                            } else {
-                                newBacterium[0][k] = (int) (bacteria.getIndividuals()[b][k] + bacteria.getIndividuals()[b][k + numberVariables] * angles[k]);
-                                newBacterium[0][k + numberVariables] = (int) bacteria.getIndividuals()[b][k + numberVariables];
-                            }
-
-                        }
-                    } else { // si mitad == c entonces ocurre el AGRUPAMIENTO
-
-                        if (cnop.isContinuousVariable()[k]) {
-                            newBacterium[0][k] = bacteria.getIndividuals()[b][k] + bacteria.getScalingFactor() * (bacteria.getIndividuals()[0][k] - bacteria.getIndividuals()[b][k]);
-                            newBacterium[0][k + numberVariables] = bacteria.getIndividuals()[0][k + numberVariables];
-                        } else {
-                            newBacterium[0][k] = (int) (bacteria.getIndividuals()[b][k] + bacteria.getScalingFactor() * (bacteria.getIndividuals()[0][k] - bacteria.getIndividuals()[b][k]));
-                            newBacterium[0][k + numberVariables] = (int) bacteria.getIndividuals()[0][k + numberVariables];
-                        }
+                if (this.evaluationCache != null && this.evaluationCache.lookup(newBacteria[b])) {
+                    candidate[b] = -1;
+                } else {
+                    candidate[b] = pending;
+                    this.batches[pending / chunk].setCandidate(pending % chunk, newBacteria[b]);
+                    pending++;
+                }
+            }
+
+            for (int i = 0; i < parallelism; i++) {
+                this.batches[i].setSize(Math.max(0, Math.min(chunk, pending - i * chunk)));
+            }
+            this.evaluations += pending;
+            this.constraintEvaluations += (long) pending * cnop.getNumberConstraints();
+
+            if (parallelism == 1) {
+                cnop.evaluateBatch(this.batches[0]);
+            } else {
+                this.evaluateParallel(pool);
+            }
 
+            for (int b = 0; b < sb; b++) {
+                if (candidate[b] >= 0) {
+                    this.batches[candidate[b] / chunk].getResult(candidate[b] % chunk, newBacteria[b]);
+                    if (this.evaluationCache != null) {
+                        this.evaluationCache.store(newBacteria[b]);
                     }
+                }
+                int accepted = this.acceptedSwims;
+                flag[b] = this.accept(population, b, newBacteria[b], indexFO, indexSVR,
+                        this.blockFrom[b], this.blockTo[b]);
+                if (blocks && accepted == this.acceptedSwims) {
+                    population.getRow(b, newBacteria[b], this.blockFrom[b], this.blockTo[b]);
+                }
+            }
+        } //for c
 
-                    // Se valida que la nueva bacteria este dentro de los rangos de las variables
-                    if (cnop.isContinuousVariable()[k]) {
+        population.sort();
 
-                        if (newBacterium[0][k] < cnop.getVariableRange()[k][0]) {
-                            //System.out.println("revaso menor");
-                            newBacterium[0][k] = (cnop.getVariableRange()[k][0] * 2.0 - newBacterium[0][k]);
-                        }
-                        if (newBacterium[0][k] > cnop.getVariableRange()[k][1]) {
-                            //System.out.println("revaso mayor");
-                            newBacterium[0][k] = (cnop.getVariableRange()[k][1] * 2.0 - newBacterium[0][k]);
-                        }
-                        if (newBacterium[0][k] < cnop.getVariableRange()[k][0] || newBacterium[0][k] > cnop.getVariableRange()[k][1]) {
-                            newBacterium[0][k] = this.nRandom.getRandomRankUnif(cnop.getVariableRange()[k][0], cnop.getVariableRange()[k][1]);
-                            //System.out.println("revaso ambos");
-                        }
+        if (this.metrics != null) {
+            this.metrics.evaluated(this.evaluations - evaluationsAux, this.constraintEvaluations - constraintsAux);
+            this.metrics.swum((long) sb * bacteria.getNc(), this.acceptedSwims);
+            this.metrics.sorted();
+        }
+    }
 
-                    } else {
+    /**
+     * Creates the buffers of the new positions, the angles and the flags of
+     * the bacteria, unless they already have the right size.
+     *
+     * @param sb the number of bacteria
+     * @param numberVariables the number of design variables
+     */
+    private void prepareBuffers(int sb, int numberVariables) {
+        if (this.newBacteria != null && this.newBacteria.length == sb
+                && this.stem.length == numberVariables) {
+            return;
+        }
+        this.newBacteria = new double[sb][numberVariables * 2 + 2];
+        this.newBacterium = new double[][]{this.newBacteria[0]};
+        this.angles = new double[sb][numberVariables];
+        this.flags = new boolean[sb];
+        this.candidates = new int[sb];
+        this.stem = new double[numberVariables];
+        this.previous = new double[numberVariables];
+        this.blockFrom = new int[sb];
+        this.blockTo = new int[sb];
+    }
 
-                        double[] varAux = cnop.getVariableRange()[k];
-                        boolean isExist = false;
+    /**
+     * Creates the batches of the synchronous chemotaxis and, when there are
+     * several, the tasks that evaluate them with a copy of the CNOP each.
+     *
+     * @param cnop the CNOP to optimize
+     * @param numberVariables the number of design variables
+     * @param parallelism the number of batches
+     * @param chunk the capacity of each batch
+     */
+    private void createBatches(CNOP cnop, int numberVariables, int parallelism, int chunk) {
+        this.batches = new EvaluationBatch[parallelism];
+        this.batchTasks = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            EvaluationBatch batchAux = new EvaluationBatch(numberVariables, chunk);
+            this.batches[i] = batchAux;
+            if (parallelism == 1) {
+                break;
+            }
+            CNOP evaluator = cnop.copy();
+            this.batchTasks.add(() -> {
+                evaluator.evaluateBatch(batchAux);
+                return null;
+            });
+        }
+    }
 
-                        for (int i = 0; i < varAux.length; i++) {
-                            if (varAux[i] == newBacterium[0][k]) {
-                                isExist = true;
-                                break;
-                            }
-                        }
+    /**
+     * Evaluates the batches of the synchronous chemotaxis in the threads of
+     * the pool and waits for all of them.
+     *
+     * @param pool the pool of the chemotaxis
+     * @throws CancellationException if the thread is interrupted, with the
+     * interrupt flag set.
+     */
+    private void evaluateParallel(ForkJoinPool pool) {
+        try {
+            for (Future<Void> future : pool.invokeAll(this.batchTasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CancellationException cancellation = new CancellationException("The chemotaxis was interrupted.");
+            cancellation.initCause(e);
+            throw cancellation;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The evaluation of the bacteria failed.", e.getCause());
+        }
+    }
 
-                        if (isExist == false) {
+    /**
+     * Calculates the new position of a bacterium in a chemotactic step: a swim
+     * built from three other bacteria, a tumble in the direction of the angles
+     * or, in the middle of the cycles, a movement towards the best bacterium.
+     * The variables that leave their range are reflected into it.
+     *
+     * @param cnop the CNOP to optimize
+     * @param bacteria the TSMBFOA with the parameters
+     * @param population the population used to calculate the movement
+     * @param b the rank of the bacterium that moves
+     * @param c the chemotactic step
+     * @param middle the step in which the grouping happens
+     * @param angles the direction of the tumble
+     * @param newBacterium the row where the variables and step sizes of the new
+     * position are written
+     * @param from the first variable that moves
+     * @param to the variable after the last one that moves; the rest of the
+     * row is not written
+     */
+    private void swim(CNOP cnop, TSMBFOA bacteria, Population population, int b, int c,
+            int middle, double[] angles, double[] newBacterium, int from, int to) {
 
-                            if (newBacterium[0][k] < cnop.getVariableRange()[k][0]) {
-                                //System.out.println("revaso menor");
-                                newBacterium[0][k] = (int) (cnop.getVariableRange()[k][0] * 2.0 - newBacterium[0][k]);
+        int numberVariables = cnop.getNumberVariable();
+        double[] stem = this.stem;       //vastago
 
-                            }
-                            if (newBacterium[0][k] > cnop.getVariableRange()[k][1]) {
-                                //System.out.println("revaso mayor");
-                                newBacterium[0][k] = (int) (cnop.getVariableRange()[k][1] * 2.0 - newBacterium[0][k]);
-                            }
-                            if (newBacterium[0][k] < cnop.getVariableRange()[k][0] || newBacterium[0][k] > cnop.getVariableRange()[k][1]) {
+        int[] v = this.offspring(population.getSize(), b);
 
-                                int indice;
-                                indice = nRandom.getNetxInt(cnop.getVariableRange()[k].length);
-                                newBacterium[0][k] = cnop.getVariableRange()[k][indice];
-                                //System.out.println("revaso ambos");
-                            }
-                        }
+        // The values of the individuals are read from the arrays of the population
+        double[] positions = population.getPositions();
 
-                    }
+        //preguntar si en bact1 es b o v1
+        int bact1 = population.getSlot(v[0]) * numberVariables;
+        int bact2 = population.getSlot(v[1]) * numberVariables;
+        int bact3 = population.getSlot(v[2]) * numberVariables;
+        int bacterium = population.getSlot(b) * numberVariables;
+        int best = population.getSlot(0) * numberVariables;
 
-                }// for k
+        for (int m = from; m < to; m++) {
+            if (cnop.isContinuousVariable()[m]) {
+                stem[m] = positions[bact1 + m] + (bacteria.getScalingFactor() - 1.0) * (positions[bact2 + m] - positions[bact3 + m]);
+            } else {
+                stem[m] = (int) (positions[bact1 + m] + (bacteria.getScalingFactor() - 1.0) * (positions[bact2 + m] - positions[bact3 + m]));
+            }
+        }
 
-                newBacterium = cnop.evaluateObjectiveFunction(newBacterium);
+        for (int k = from; k < to; k++) { //for k   
+            // if we are in the middle of the chemotactic cycles
+            if (c > middle || c < middle) {
+                // preguntamos si es par o impar
+                if (c % 2 == 0) {
+                    newBacterium[k] = stem[k];
+                    newBacterium[k + numberVariables] = population.getStepSizeAt(bacterium + k);
+                } else {
 
-                // Despues de la evaluación en la función objetivo de la nueva bacteria, 
-                // se compara con la bacteria en proceso usando reglas de factibilidad
-                if (newBacterium[0][indexSVR] == 0 && bacteria.getIndividuals()[b][indexSVR] == 0) {
-                    if (newBacterium[0][indexFO] < bacteria.getIndividuals()[b][indexFO]) {
-                        flag = false;
-                        bacteria.getIndividuals()[b] = Arrays.copyOf(newBacterium[0], newBacterium[0].length);
+                    if (cnop.isContinuousVariable()[k]) {
+                        newBacterium[k] = positions[bacterium + k] + population.getStepSizeAt(bacterium + k) * angles[k];
+                        newBacterium[k + numberVariables] = population.getStepSizeAt(bacterium + k);
                     } else {
-                        flag = true;
+                        newBacterium[k] = (int) (positions[bacterium + k] + population.getStepSizeAt(bacterium + k) * angles[k]);
+                        newBacterium[k + numberVariables] = (int) population.getStepSizeAt(bacterium + k);
                     }
+
                 }
-                if (newBacterium[0][indexSVR] > 0 && bacteria.getIndividuals()[b][indexSVR] > 0) {
-                    if (newBacterium[0][indexSVR] < bacteria.getIndividuals()[b][indexSVR]) {
-                        flag = false;
-                        bacteria.getIndividuals()[b] = Arrays.copyOf(newBacterium[0], newBacterium[0].length);
-                    } else {
-                        flag = true;
+            } else { // si mitad == c entonces ocurre el AGRUPAMIENTO
+
+                if (cnop.isContinuousVariable()[k]) {
+                    newBacterium[k] = positions[bacterium + k] + bacteria.getScalingFactor() * (positions[best + k] - positions[bacterium + k]);
+                    newBacterium[k + numberVariables] = population.getStepSizeAt(best + k);
+                } else {
+                    newBacterium[k] = (int) (positions[bacterium + k] + bacteria.getScalingFactor() * (positions[best + k] - positions[bacterium + k]));
+                    newBacterium[k + numberVariables] = (int) population.getStepSizeAt(best + k);
+                }
+
+            }
+
+            // Se valida que la nueva bacteria este dentro de los rangos de las variables
+            if (cnop.isContinuousVariable()[k]) {
+
+                if (newBacterium[k] < cnop.getVariableRange()[k][0]) {
+                    //System.out.println("revaso menor");
+                    newBacterium[k] = (cnop.getVariableRange()[k][0] * 2.0 - newBacterium[k]);
+                }
+                if (newBacterium[k] > cnop.getVariableRange()[k][1]) {
+                    //System.out.println("revaso mayor");
+                    newBacterium[k] = (cnop.getVariableRange()[k][1] * 2.0 - newBacterium[k]);
+                }
+                if (newBacterium[k] < cnop.getVariableRange()[k][0] || newBacterium[k] > cnop.getVariableRange()[k][1]) {
+                    newBacterium[k] = this.nRandom.getRandomRankUnif(cnop.getVariableRange()[k][0], cnop.getVariableRange()[k][1]);
+                    //System.out.println("revaso ambos");
+                }
+
+            } else {
+
+                double[] varAux = cnop.getVariableRange()[k];
+                boolean isExist = false;
+
+                for (int i = 0; i < varAux.length; i++) {
+                    if (varAux[i] == newBacterium[k]) {
+                        isExist = true;
+                        break;
                     }
                 }
-                if (newBacterium[0][indexSVR] == 0 && bacteria.getIndividuals()[b][indexSVR] > 0) {
-                    flag = false;
-                    bacteria.getIndividuals()[b] = Arrays.copyOf(newBacterium[0], newBacterium[0].length);
-                } else {
-                    flag = true;
+
+                if (isExist == false) {
+
+                    if (newBacterium[k] < cnop.getVariableRange()[k][0]) {
+                        //System.out.println("revaso menor");
+                        newBacterium[k] = (int) (cnop.getVariableRange()[k][0] * 2.0 - newBacterium[k]);
+
+                    }
+                    if (newBacterium[k] > cnop.getVariableRange()[k][1]) {
+                        //System.out.println("revaso mayor");
+                        newBacterium[k] = (int) (cnop.getVariableRange()[k][1] * 2.0 - newBacterium[k]);
+                    }
+                    if (newBacterium[k] < cnop.getVariableRange()[k][0] || newBacterium[k] > cnop.getVariableRange()[k][1]) {
+
+                        int indice;
+                        indice = this.nRandom.getNetxInt(cnop.getVariableRange()[k].length);
+                        newBacterium[k] = cnop.getVariableRange()[k][indice];
+                        //System.out.println("revaso ambos");
+                    }
                 }
 
-            } //for c    
-            bacteria.setIndividuals(Population.sortPopulation(bacteria.getIndividuals()));
-        }//for b
+            }
+
+        }// for k
+    }
 
+    /**
+     * Compares a bacterium with its new position using the feasibility rules
+     * and, if the new position is better, replaces the values of the bacterium
+     * with the ones of the new position.
+     *
+     * @param population the population
+     * @param b the rank of the bacterium
+     * @param newBacterium the evaluated new position
+     * @param indexFO the position of the objective function value
+     * @param indexSVR the position of the sum of constraint violations
+     * @param from the first variable that moved
+     * @param to the variable after the last one that moved
+     * @return true if new angles must be generated for the next step
+     */
+    private boolean accept(Population population, int b, double[] newBacterium, int indexFO, int indexSVR,
+            int from, int to) {
+        boolean flag = true;
+        // Despues de la evaluación en la función objetivo de la nueva bacteria, 
+        // se compara con la bacteria en proceso usando reglas de factibilidad
+        if (newBacterium[indexSVR] == 0 && population.getSumConstraintViolation(b) == 0) {
+            if (newBacterium[indexFO] < population.getObjectiveFunction(b)) {
+                flag = false;
+                population.setRow(b, newBacterium, from, to);
+                this.acceptedSwims++;
+            } else {
+                flag = true;
+            }
+        }
+        if (newBacterium[indexSVR] > 0 && population.getSumConstraintViolation(b) > 0) {
+            if (newBacterium[indexSVR] < population.getSumConstraintViolation(b)) {
+                flag = false;
+                population.setRow(b, newBacterium, from, to);
+                this.acceptedSwims++;
+            } else {
+                flag = true;
+            }
+        }
+        if (newBacterium[indexSVR] == 0 && population.getSumConstraintViolation(b) > 0) {
+            flag = false;
+            population.setRow(b, newBacterium, from, to);
+            this.acceptedSwims++;
+        } else {
+            flag = true;
+        }
+        return flag;
     }
 
     @Override
@@ -184,24 +727,29 @@ public class ProcessTSMBFOA implements Foraging {
     @Override
     public void reproduction(TSMBFOA bacteria) {
         if (bacteria.getGmax() % bacteria.getRepcycle() == 0) {
-            int row = bacteria.getIndividuals().length;
-            int column = bacteria.getIndividuals()[0].length;
+            Population population = bacteria.getPopulation();
+            int row = population.getSize();
 
             for (int y = (row - bacteria.getBacteriaReproduce()); y < row; y++) {
-                bacteria.getIndividuals()[y] = Arrays.copyOf(bacteria.getIndividuals()[((row - 1) - y)], column);
+                population.copyIndividual((row - 1) - y, y);
+            }
+            population.sort();
+            if (this.metrics != null) {
+                this.metrics.sorted();
             }
-            bacteria.setIndividuals(Population.sortPopulation(bacteria.getIndividuals()));
         }
     }
 
     @Override
     public void eliminationDispersal(CNOP cnop, TSMBFOA bacteria) {
-        this.nRandom = new NRandom();
+        Population population = bacteria.getPopulation();
         int numberVar = cnop.getNumberVariable();
-        int sizeInd = bacteria.getIndividuals().length;
+        int sizeInd = population.getSize();
 
-        double[] angles = this.generateAngles(numberVar);
-        double[][] bacter = new double[1][numberVar * 2 + 2];
+        this.prepareBuffers(sizeInd, numberVar);
+        double[] angles = this.angles[0];
+        this.generateAngles(angles, 0, numberVar);
+        double[][] bacter = this.newBacterium;
 
         for (int j = 0; j < numberVar; j++) {
 
@@ -216,23 +764,30 @@ public class ProcessTSMBFOA implements Foraging {
 
         }
 
-        bacter = cnop.evaluateObjectiveFunction(bacter);
-        bacteria.getIndividuals()[sizeInd - 1] = Arrays.copyOf(bacter[0], bacter[0].length);
-        bacteria.setIndividuals(Population.sortPopulation(bacteria.getIndividuals()));
+        long evaluationsAux = this.evaluations;
+        long constraintsAux = this.constraintEvaluations;
+        bacter = this.evaluate(cnop, bacter);
+        population.setRow(sizeInd - 1, bacter[0]);
+        population.reinsert(sizeInd - 1);
+
+        if (this.metrics != null) {
+            this.metrics.evaluated(this.evaluations - evaluationsAux, this.constraintEvaluations - constraintsAux);
+            this.metrics.reinserted(1);
+        }
     }
 
     @Override
     public void updateStepSize(CNOP cnop, TSMBFOA bacteria) {
-        this.nRandom = new NRandom();
+        Population population = bacteria.getPopulation();
         int sizeVar = cnop.getNumberVariable();
         for (int i = 0; i < bacteria.getSb(); i++) {
             for (int j = 0; j < sizeVar; j++) {
 
                 if (cnop.isContinuousVariable()[j]) {
-                    bacteria.getIndividuals()[i][sizeVar + j] = this.nRandom.getRandomRankUnif(cnop.getVariableRange()[j][0], cnop.getVariableRange()[j][1] * bacteria.getStepSize());
+                    population.setStepSize(i, j, this.nRandom.getRandomRankUnif(cnop.getVariableRange()[j][0], cnop.getVariableRange()[j][1] * bacteria.getStepSize()));
                 } else {
                     int indice = this.nRandom.getNetxInt(cnop.getVariableRange()[j].length);
-                    bacteria.getIndividuals()[i][sizeVar + j] = cnop.getVariableRange()[j][indice];
+                    population.setStepSize(i, j, cnop.getVariableRange()[j][indice]);
                 }
 
             }
@@ -247,22 +802,20 @@ public class ProcessTSMBFOA implements Foraging {
      * used to determine the rotation of bacteria during the chemotaxis process.
      * <br>
      *
-     * @param numberVariables the size of the objective function variables
-     * @return a vector of angles with the specified number of variables
+     * @param angles the vector where the angles are written, with the size of
+     * the objective function variables
+     * @param from the first variable of the direction
+     * @param to the variable after the last one of the direction; the angles
+     * outside the block are not written
      */
-    private double[] generateAngles(int numberVariables) {
-        this.nRandom = new NRandom();
+    private void generateAngles(double[] angles, int from, int to) {
         //An accumulator variable is created of angles i ^ 2
         double accum = 0.0;
-        /* The vector is created to to store the random modules with sizes 
-         * with sizes of the number of variables of the objective function.
-         */
-        double[] angles = new double[numberVariables];
 
-        for (int i = 0; i < angles.length; i++) { // Inicia for i
+        for (int i = from; i < to; i++) { // Inicia for i
             // Se genera un número aleatorio entre -1 y 1 y se asigna a 
             // angles en su posición i
-            angles[i] = nRandom.getRandomRankUnif(-1.0, 1.0);
+            angles[i] = this.nRandom.getRandomRankUnif(-1.0, 1.0);
             // Se hace la suma de acumm con angles en su posición i 
             // elevado al cuadrado
             accum += (angles[i] * angles[i]);
@@ -271,11 +824,9 @@ public class ProcessTSMBFOA implements Foraging {
         double root = Math.sqrt(accum);
         // Se itera el vector de angles y en su posicón i se evalua la posición 
         // dividiendola entre la raiz cuadrada de accum.
-        for (int i = 0; i < angles.length; i++) {
+        for (int i = from; i < to; i++) {
             angles[i] /= root;
         }
-        //Termino for y devuelve el vector de angulos
-        return angles;
     }
 
     /**
@@ -288,13 +839,13 @@ public class ProcessTSMBFOA implements Foraging {
      *
      * @param limit the upper limit of the positions
      * @param different the position to be excluded
-     * @return an array of three random positions
+     * @return an array of three random positions, reused in each call
      */
     private int[] offspring(int limit, int different) {
         //restamos 1 para el control de posiciones
         limit = limit - 1;
 
-        int[] pos = new int[3];
+        int[] pos = this.selected;
 
         pos[0] = this.nRandom.getRandomRankUnif(0, limit);
         pos[1] = this.nRandom.getRandomRankUnif(0, limit);
@@ -1,12 +1,38 @@
 package com.garcialopez.metaheuristic.tsmbfoa;
 
+import com.garcialopez.metaheuristic.Checkpoint;
+import com.garcialopez.metaheuristic.ConvergenceTrace;
+import com.garcialopez.metaheuristic.ExecutionState;
+import com.garcialopez.metaheuristic.MetaheuristicListener;
 import com.garcialopez.metaheuristic.MetaheuristicBase;
+import com.garcialopez.metaheuristic.NRandom;
 import com.garcialopez.metaheuristic.Population;
 import com.garcialopez.metaheuristic.Statistics;
+import com.garcialopez.metaheuristic.TerminationCriterion;
+import com.garcialopez.metaheuristic.island.InMemoryMigrationChannel;
+import com.garcialopez.metaheuristic.island.MigrationChannel;
+import com.garcialopez.metaheuristic.island.MigrationTopology;
+import com.garcialopez.metaheuristic.metrics.SolverMetrics;
+import com.garcialopez.metaheuristic.metrics.Timer;
 import com.garcialopez.optimizationmodel.CNOP;
+import com.garcialopez.optimizationmodel.EvaluationCache;
+import com.garcialopez.optimizationmodel.FunctionalCNOP;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 
 /**
  *
@@ -53,7 +79,47 @@ public class TSMBFOA extends MetaheuristicBase {
     private final CNOP cnop;
     private final boolean debug;
 
-    private double[][] individuals;
+    private int workers = 1;
+    private boolean synchronousChemotaxis = false;
+    private int chemotaxisParallelism = 1;
+    private ForkJoinPool chemotaxisPool;
+
+    // Metrics of the engine, null if they are not measured
+    private SolverMetrics metrics;
+
+    // Cache of the evaluations
+    private int evaluationCacheSize = 0;
+    private double evaluationCacheQuantum = 0;
+    private boolean cacheHitsCounted = true;
+    private long cacheHits;
+    private long cacheMisses;
+
+    // High-dimensional problems
+    private int coordinateBlockSize = 0;
+    private boolean compactStepSizes = false;
+
+    // Whether the messages of the start and the end of the run are shown
+    private boolean quiet = false;
+
+    // Checkpoints of the run, none without a file
+    private Path checkpointFile;
+    private long checkpointInterval = 10000;
+    private Checkpoint checkpoint;
+    private Checkpoint.Input resumedExecution;
+
+    // Island model
+    private int islands = 1;
+    private int migrationInterval = 10;
+    private int emigrants = 1;
+    private MigrationTopology migrationTopology = MigrationTopology.RING;
+    private IntFunction<MigrationChannel> migrationChannel = InMemoryMigrationChannel::new;
+
+    // Colony of this instance when it runs in an island model
+    private int island;
+    private MigrationChannel channel;
+    private int completedExecutions;
+
+    private Population population;
 
     public TSMBFOA(CNOP cnop, boolean debug) {
         
@@ -177,257 +243,638 @@ public class TSMBFOA extends MetaheuristicBase {
         this.stepSize = stepSize;
     }
 
-    @Override
-    public double[][] getIndividuals() {
-        return individuals;
+    /**
+     * Method returns the number of threads used to run the independent
+     * executions.
+     *
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return workers;
     }
 
-    @Override
-    public void setIndividuals(double[][] individuals) {
-        this.individuals = individuals;
+    /**
+     * Method that assigns the number of threads used to run the independent
+     * executions concurrently.<br>
+     * With 1 (the default) the executions are run one after the other. The
+     * value can be, for example, {@code Runtime.getRuntime().availableProcessors()}.
+     *
+     * @param workers the number of workers to set
+     */
+    public void setWorkers(int workers) {
+        this.workers = workers;
     }
 
-    @Override
-    public void run() {
+    /**
+     * Method returns whether the chemotaxis moves all the bacteria at the same
+     * time.
+     *
+     * @return true if the chemotaxis is synchronous
+     */
+    public boolean isSynchronousChemotaxis() {
+        return synchronousChemotaxis;
+    }
 
-        // Validate if the number of iterations is between [1 - 30].
-        if (this.getExecutions() >= 1 && this.getExecutions() <= 30) {
-            // Code to be executed if the number of iterations is between 1 and 30
+    /**
+     * Method that assigns how the bacteria move in the chemotaxis.<br>
+     * With false (the default) each bacterium completes its chemotactic cycles
+     * before the next one moves, as in the original TS-MBFOA. With true, in
+     * each chemotactic step all the bacteria move with respect to the same
+     * population and the new positions are evaluated together with
+     * {@link CNOP#evaluateBatch}.
+     *
+     * @param synchronousChemotaxis true to move all the bacteria at once
+     */
+    public void setSynchronousChemotaxis(boolean synchronousChemotaxis) {
+        this.synchronousChemotaxis = synchronousChemotaxis;
+    }
 
-            Statistics st = new Statistics();
-            this.iniResults();
+    /**
+     * Method returns the number of threads that evaluate the bacteria in the
+     * synchronous chemotaxis.
+     *
+     * @return the parallelism of the chemotaxis
+     */
+    public int getChemotaxisParallelism() {
+        return chemotaxisParallelism;
+    }
 
-            System.out.println("Starting TS-MBFOA...");
+    /**
+     * Method that assigns the number of threads that evaluate the bacteria in
+     * the synchronous chemotaxis.<br>
+     * With 1 (the default) the bacteria are evaluated in the thread of the
+     * execution. With more threads, in each chemotactic step the bacteria are
+     * divided among the threads of a fork-join pool, each one with its own copy
+     * of the CNOP. The new positions are calculated in the same order, so the
+     * results do not depend on the number of threads. It is useful when the
+     * objective function is expensive; it only applies when
+     * {@link #setSynchronousChemotaxis(boolean)} is true.
+     *
+     * @param chemotaxisParallelism the number of threads to set
+     */
+    public void setChemotaxisParallelism(int chemotaxisParallelism) {
+        this.chemotaxisParallelism = chemotaxisParallelism;
+    }
 
-            if (this.debug) {
-                System.out.println(printParameters());
-            }
+    /**
+     * Method returns the maximum number of candidates kept by the cache of the
+     * evaluations of each execution.
+     *
+     * @return the size of the cache, 0 if there is no cache
+     */
+    public int getEvaluationCacheSize() {
+        return evaluationCacheSize;
+    }
 
-            ProcessTSMBFOA tsmbfoa = new ProcessTSMBFOA();
+    /**
+     * Method that assigns the maximum number of candidates kept by the cache
+     * of the evaluations of each execution.<br>
+     * With 0 (the default) every candidate is evaluated. With a cache, the
+     * candidates of the foraging that were already evaluated take their
+     * results from it, which avoids many evaluations in problems with
+     * discrete variables. See {@link EvaluationCache}.
+     *
+     * @param evaluationCacheSize the size of the cache to set
+     */
+    public void setEvaluationCacheSize(int evaluationCacheSize) {
+        this.evaluationCacheSize = evaluationCacheSize;
+    }
 
-            // Checking the median of the executions
-            int medianExecution = (this.getExecutions() > 1) ? (int) this.getExecutions() / 2 : 1;
-            double bestValueAux = Double.POSITIVE_INFINITY;
-            boolean flag = true;
-            List<Double> x_auxConver = new ArrayList();
-            List<Double> y_auxConver = new ArrayList();
+    /**
+     * Method returns the quantum used by the cache to compare the variables.
+     *
+     * @return the quantum of the cache
+     */
+    public double getEvaluationCacheQuantum() {
+        return evaluationCacheQuantum;
+    }
 
-            int[] sccp = new int[this.getExecutions()];
+    /**
+     * Method that assigns the quantum used by the cache to compare the
+     * variables: the values are rounded to multiples of the quantum. With 0
+     * (the default) the values must be identical, so the results are the same
+     * as without cache.
+     *
+     * @param evaluationCacheQuantum the quantum of the cache to set
+     */
+    public void setEvaluationCacheQuantum(double evaluationCacheQuantum) {
+        this.evaluationCacheQuantum = evaluationCacheQuantum;
+    }
 
-            // Calculate the position of the objective function
-            int positionOF = cnop.getNumberVariable() * 2;
-            int positionSVR = cnop.getNumberVariable() * 2 + 1;
+    /**
+     * Method returns whether the candidates found in the cache count as
+     * evaluations.
+     *
+     * @return true if the hits of the cache count as evaluations
+     */
+    public boolean isCacheHitsCounted() {
+        return cacheHitsCounted;
+    }
 
-            long timeAux = System.nanoTime();
+    /**
+     * Method that assigns whether the candidates found in the cache count
+     * against the evaluations of each execution.<br>
+     * With true (the default) the executions perform the same generations as
+     * without cache. With false only the evaluations of the CNOP count, so the
+     * executions perform more generations with the same evaluations; each
+     * generation counts at least one evaluation, so the executions always
+     * end.
+     *
+     * @param cacheHitsCounted true to count the hits of the cache
+     */
+    public void setCacheHitsCounted(boolean cacheHitsCounted) {
+        this.cacheHitsCounted = cacheHitsCounted;
+    }
 
-            //Se incluye el porcentaje de avance del algoritmo
-            int percentageIncrease = (int) (100 / this.getExecutions());
-            this.setAdvance(1);
+    /**
+     * Returns the number of candidates found in the cache in the last run.
+     *
+     * @return the hits of the cache
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
 
-            //medimos el tiempo de inicio
-            timeAux = System.nanoTime();
-            for (int i = 0; i < this.getExecutions(); i++) {
+    /**
+     * Returns the number of candidates not found in the cache in the last run.
+     *
+     * @return the misses of the cache
+     */
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
 
-                //Variables to calculate performance.
-                int bp = 0;
-                int sperformace = 0;
+    /**
+     * Returns the percentage of candidates found in the cache in the last run.
+     *
+     * @return the hit rate, between 0 and 100
+     */
+    public double getCacheHitRate() {
+        long searches = this.cacheHits + this.cacheMisses;
+        return (searches == 0) ? 0 : (100.0 * this.cacheHits) / searches;
+    }
 
-                //Se hace depuraciones por partes si el debug esta habilitado
-                if (this.debug) {
-                    System.out.println("Start execution: " + (i + 1));
-                    System.out.println("Generating population...");
-                }
+    /**
+     * Method returns the number of variables moved by each swim of the
+     * chemotaxis.
+     *
+     * @return the size of the coordinate blocks, 0 if all the variables move
+     */
+    public int getCoordinateBlockSize() {
+        return coordinateBlockSize;
+    }
 
-                // The bacteria population is initialized.
-                this.individuals = Population.startPopulation(this.cnop, this.sb, true);
+    /**
+     * Method that assigns the number of variables moved by each swim of the
+     * chemotaxis, for problems with thousands of variables.<br>
+     * With 0 (the default) every swim moves all the variables, as in the
+     * original TS-MBFOA. With a block size, the variables are divided into
+     * consecutive blocks and each tumble chooses one block at random: the
+     * direction, the swim and the copy of the new position only involve the
+     * variables of the block, and the new position is evaluated with
+     * {@link CNOP#evaluateChange}, which a {@link FunctionalCNOP} can update
+     * without evaluating the whole problem. When
+     * {@link CNOP#isIncrementalEvaluation()} is true, the violation of each
+     * constraint of the bacterium is kept during its chemotaxis and only the
+     * constraints of the variables that changed are evaluated again; this is
+     * also done without blocks when the CNOP has discrete variables. The
+     * synchronous chemotaxis moves the blocks in the same way, but evaluates
+     * the complete new positions in its batches.
+     *
+     * @param coordinateBlockSize the size of the blocks to set
+     */
+    public void setCoordinateBlockSize(int coordinateBlockSize) {
+        if (coordinateBlockSize < 0) {
+            throw new IllegalArgumentException("The size of the coordinate blocks can not be negative.");
+        }
+        this.coordinateBlockSize = coordinateBlockSize;
+    }
 
-                // The objective function and constraints are evaluated, and assigned to the population matrix.
-                this.individuals = cnop.evaluateObjectiveFunction(this.individuals);
+    /**
+     * Method returns whether the population stores the step sizes as float
+     * values.
+     *
+     * @return true if the step sizes are compact
+     */
+    public boolean isCompactStepSizes() {
+        return compactStepSizes;
+    }
 
-                // We sort the population based on feasibility rules
-                this.individuals = Population.sortPopulation(this.individuals);
+    /**
+     * Method that assigns whether the population stores the step sizes as
+     * float values, which reduces its memory by a quarter for problems with
+     * thousands of variables. The default is false. See {@link Population}.
+     *
+     * @param compactStepSizes true to store the step sizes compactly
+     */
+    public void setCompactStepSizes(boolean compactStepSizes) {
+        this.compactStepSizes = compactStepSizes;
+    }
 
-                if (debug) {
-                    System.out.println("Initial population sorted.\n"
-                            + this.getDescription(this.getIndividuals(), cnop.getNumberVariable()));
-                }
+    /**
+     * Method returns whether the run is performed without showing the
+     * messages of its start and end.
+     *
+     * @return true if the run is quiet
+     */
+    public boolean isQuiet() {
+        return quiet;
+    }
 
-                // Auxiliary counters
-                int count = 0;
-                this.setGmax(0);
+    /**
+     * Method that assigns whether the run is performed without showing the
+     * messages of its start and end, e.g. when the runs are part of an
+     * experiment with thousands of them. The default is false. The errors and
+     * the messages of the debug are still shown.
+     *
+     * @param quiet true to hide the messages
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
 
-                if (this.debug) {
-                    System.out.println("Bacterial foraging begins.");
-                }
+    /**
+     * Method returns the file where the checkpoints of the run are saved.
+     *
+     * @return the file, null if no checkpoints are saved
+     */
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
 
-                /**
-                 * Starting TS-MBFOA...
-                 */
-                // Calculate current evaluations for the stopping condition
-                while ((count + (this.getSb() * this.getNc())) <= this.getEvaluations()) {   //stopping condition                 
-                    
-                    //Generation increment
-                    this.incrementGmax(1);
+    /**
+     * Method that assigns the file where the checkpoints of the run are saved,
+     * so that a long run can continue with {@link #resume()} after a crash.
+     * With null (the default) no checkpoints are saved.<br>
+     * The results of the executions that finished are saved in the file after
+     * each execution. When the executions run one after the other with one
+     * colony, the execution in progress (population, generation, evaluations,
+     * random numbers and convergence) is also saved every
+     * {@link #getCheckpointInterval()} milliseconds in the same file with the
+     * extension {@code .execution}; otherwise the executions in progress start
+     * again when the run is resumed. The files are deleted when the run
+     * finishes. See {@link Checkpoint}.
+     *
+     * @param checkpointFile the file to set
+     */
+    public void setCheckpointFile(Path checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
 
-                    if (this.debug) {
-                        System.out.println("\n> Start of generation " + this.getGmax()
-                                + " of execution " + (i + 1)
-                                + "\n> Starts the chemotaxic process...");
-                    }
+    /**
+     * Method returns the minimum time between two checkpoints of the
+     * execution in progress.
+     *
+     * @return the interval in milliseconds
+     */
+    public long getCheckpointInterval() {
+        return checkpointInterval;
+    }
 
-                    //Chemotactic process
-                    tsmbfoa.chemotaxis(this.cnop, this);
+    /**
+     * Method that assigns the minimum time between two checkpoints of the
+     * execution in progress, by default 10 seconds. A checkpoint only writes
+     * one population, so it can be saved every few seconds.
+     *
+     * @param checkpointInterval the interval in milliseconds
+     */
+    public void setCheckpointInterval(long checkpointInterval) {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("The interval of the checkpoints can not be negative.");
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
 
-                    count += this.getSb() * this.getNc();
-                    if (this.debug) {
-                        System.out.println("> Starts the process of grouping and reproduction.");
-                    }
-                    //reproduction
-                    tsmbfoa.reproduction(this);
-                    if (debug) {
-                        System.out.println("> Elimination-dispersion.");
-                    }
-                    // Elimination-dispersion
-                    tsmbfoa.eliminationDispersal(cnop, this);
-                    // Increment counter
-                    count++;
-                    if (this.debug) {
-                        System.out.println("> Step size is updated.");
-                    }
-                    // Updating static step size
-                    tsmbfoa.updateStepSize(this.cnop, this);
+    /**
+     * Method returns the number of colonies of each execution.
+     *
+     * @return the number of islands
+     */
+    public int getIslands() {
+        return islands;
+    }
 
-                    if ((i + 1) == medianExecution) {
+    /**
+     * Method that assigns the number of colonies of each execution (island
+     * model).<br>
+     * With 1 (the default) each execution has one colony of Sb bacteria. With
+     * more, each execution runs that number of colonies concurrently, each
+     * one with Sb bacteria and the whole evaluation budget, and every
+     * {@link #getMigrationInterval()} generations the colonies exchange their
+     * best bacteria through a {@link MigrationChannel}. The result of the
+     * execution is the one of the colony with the best bacterium, and its
+     * evaluations are the ones of all the colonies.<br>
+     * The colonies do not wait for each other to migrate, so a run with seed
+     * and several islands may not be repeated exactly.
+     *
+     * @param islands the number of islands to set
+     */
+    public void setIslands(int islands) {
+        this.islands = islands;
+    }
 
-                        this.addBestSolutionConvergenceMedia(
-                                count, this.individuals[0][positionOF]
-                        );
-                    }
+    /**
+     * Method returns the number of generations between two migrations.
+     *
+     * @return the migration interval
+     */
+    public int getMigrationInterval() {
+        return migrationInterval;
+    }
 
-                    if (this.individuals[0][positionSVR] == 0) {
-                        sperformace = st.successPerformance(this.individuals, this.cnop.getBestKnownValue());
-                        if ((bp == 0) && (sperformace == 1)) {
-                            sccp[i] = count;
-                            bp = 1;
-                        }
-                    }
+    /**
+     * Method that assigns the number of generations between two migrations of
+     * the island model. The default is 10.
+     *
+     * @param migrationInterval the migration interval to set
+     */
+    public void setMigrationInterval(int migrationInterval) {
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("The migration interval must be at least 1.");
+        }
+        this.migrationInterval = migrationInterval;
+    }
 
-                    x_auxConver.add(Double.parseDouble(String.valueOf(count)));
-                    y_auxConver.add(this.individuals[0][positionOF]);
+    /**
+     * Method returns the number of best bacteria that each colony sends in a
+     * migration.
+     *
+     * @return the number of emigrants
+     */
+    public int getEmigrants() {
+        return emigrants;
+    }
 
-                } //Close while the evaluation -> Bacterial foraging
+    /**
+     * Method that assigns the number of best bacteria that each colony sends
+     * to each of its destinations in a migration. The immigrants replace the
+     * worst bacteria of the colony that receives them. The default is 1.
+     *
+     * @param emigrants the number of emigrants to set
+     */
+    public void setEmigrants(int emigrants) {
+        if (emigrants < 1) {
+            throw new IllegalArgumentException("The number of emigrants must be at least 1.");
+        }
+        this.emigrants = emigrants;
+    }
 
-                if (debug) {
-                    System.out.println("\nTerminates bacterial foraging with "
-                            + this.getGmax() + " generations.");
-
-//                    System.out.println(this.getDescription(this.getIndividuals(), cnop.getNumberVariable()));
-                } 
-
-                if (this.getExecutions() > 1) {
-                    double[] aux = {};
-                    switch (this.cnop.getType()) {
-                        case CNOP.MINIMIZATION:
-                            aux = this.individuals[0];
-
-                            break;
-                        case CNOP.MAXIMIZATION:
-                            aux = this.individuals[this.getSb() - 1];
-                            break;
-                        default:
-                            System.err.println("Results cannot be saved, if min or max.");
-                    }
+    /**
+     * Method returns the colonies to which each colony sends its emigrants.
+     *
+     * @return the migration topology
+     */
+    public MigrationTopology getMigrationTopology() {
+        return migrationTopology;
+    }
 
-                    this.addBestResults(aux);
-                    //Se guarda la convergencia de la mejor solución en caso de la iteración ser mayor a 1                                                               
-
-                    if (aux[positionOF] < bestValueAux && aux[positionSVR] == 0) {
-                        this.clearConvergenceBestSolution();
-                        bestValueAux = aux[positionOF];
-                        this.addBestSolutionConvergence(x_auxConver, y_auxConver);
-                        x_auxConver = new ArrayList();
-                        y_auxConver = new ArrayList();
-                    } else {
-                        x_auxConver = new ArrayList();
-                        y_auxConver = new ArrayList();
-                    }
+    /**
+     * Method that assigns the colonies to which each colony sends its
+     * emigrants. The default is {@link MigrationTopology#RING}.
+     *
+     * @param migrationTopology the migration topology to set
+     */
+    public void setMigrationTopology(MigrationTopology migrationTopology) {
+        this.migrationTopology = migrationTopology;
+    }
 
-                } else {
+    /**
+     * Method that assigns how the channel of each execution is created from
+     * the number of colonies. The default is
+     * {@code InMemoryMigrationChannel::new}; the colonies can also exchange
+     * the bacteria through sockets with {@code SocketMigrationChannel::new}.
+     *
+     * @param migrationChannel the creator of the migration channels
+     */
+    public void setMigrationChannel(IntFunction<MigrationChannel> migrationChannel) {
+        this.migrationChannel = migrationChannel;
+    }
 
-                    for (double[] individual : this.individuals) {
-                        this.addBestResults(individual);
-                    }
+    /**
+     * Returns the pool that evaluates the bacteria in the synchronous
+     * chemotaxis during a run.
+     *
+     * @return the pool, or null if the bacteria are evaluated in the thread of
+     * the execution.
+     */
+    ForkJoinPool getChemotaxisPool() {
+        return chemotaxisPool;
+    }
 
-                    if (debug) {
-                        System.out.println("As there is 1 independent execution, the results are"
-                                + "\nevaluated with the only population generated.");
-                    }
+    /**
+     * Returns a copy of the population as a matrix, one row per bacterium
+     * ordered by the feasibility rules.
+     * <br>
+     * The population is no longer stored as a matrix, so the matrix is a new
+     * copy in each call and changing it does not change the population. To
+     * change the population, modify the rows with {@link #getPopulation()}
+     * (see {@link Population#setRow(int, double[])}) or replace it with
+     * {@link #setIndividuals(double[][])}.
+     *
+     * @return a new matrix with the population, or null if there is no
+     * population.
+     */
+    @Override
+    public double[][] getIndividuals() {
+        return (this.population == null) ? null : this.population.toMatrix();
+    }
 
-                }
+    /**
+     * Sets the population from a matrix with one row per bacterium: the
+     * positions, the step sizes, the objective function value and the sum of
+     * constraint violations. The values are copied.
+     *
+     * @param individuals the population matrix
+     */
+    @Override
+    public void setIndividuals(double[][] individuals) {
+        this.population = Population.fromMatrix(individuals, this.compactStepSizes);
+    }
 
-                //se calcula el porcentaje de avance
-                if (this.getAdvance() + percentageIncrease - 1 >= 100) {
-                    this.setAdvance(99);
-                } else {
-                    this.setAdvance(this.getAdvance() + percentageIncrease - 1);
+    /**
+     * Method returns the population of bacteria used by the foraging.
+     *
+     * @return the population
+     */
+    public Population getPopulation() {
+        return population;
+    }
+
+    /**
+     * Method that assigns the population of bacteria used by the foraging.
+     *
+     * @param population the population to set
+     */
+    public void setPopulation(Population population) {
+        this.population = population;
+    }
+
+    /**
+     * Method returns the metrics where the work of the engine is measured.
+     *
+     * @return the metrics, null if they are not measured
+     */
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Method that assigns the metrics where the work of the engine is
+     * measured: the evaluations, the sorts, the swims of the chemotaxis, the
+     * feasible bacteria of each generation and the time of each phase. The
+     * metrics are shared by all the executions and colonies of the run and
+     * accumulate between runs. With null (the default) nothing is measured.
+     *
+     * @param metrics the metrics to set
+     */
+    public void setMetrics(SolverMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Performs the run: the independent executions, the statistics and the
+     * convergence of the results.
+     *
+     * @throws CancellationException if the thread is interrupted while the
+     * executions run concurrently; the interrupt flag of the thread remains
+     * set, no statistics are calculated and the checkpoint, if any, is kept
+     * so that the run can be resumed.
+     */
+    @Override
+    public void run() {
+        this.run(false);
+    }
+
+    /**
+     * Resumes the run saved in the checkpoint file: the executions that
+     * finished are not performed again and the execution in progress
+     * continues from its last checkpoint. With the same parameters and seed,
+     * the results are the same as those of a run without interruptions, as
+     * long as the cache of the evaluations is not used (it starts empty). If
+     * the file does not exist, a new run starts as with {@link #run()}.
+     *
+     * @throws IllegalStateException if there is no checkpoint file or the
+     * checkpoint belongs to a run with other parameters.
+     */
+    public void resume() {
+        if (this.checkpointFile == null) {
+            throw new IllegalStateException("There is no checkpoint file to resume the run.");
+        }
+        this.run(true);
+    }
+
+    /**
+     * Performs the run.
+     *
+     * @param resume true to continue the run saved in the checkpoint file.
+     */
+    private void run(boolean resume) {
+
+        // Validate that there is at least one execution.
+        if (this.getExecutions() >= 1) {
+
+            this.iniResults(this.cnop);
+            this.resetStop();
+
+            if (!this.quiet) {
+                System.out.println("Starting TS-MBFOA...");
+            }
+
+            if (this.debug) {
+                System.out.println(printParameters());
+            }
+
+            //Se incluye el porcentaje de avance del algoritmo
+            this.completedExecutions = 0;
+            this.setAdvance(1);
+
+            //medimos el tiempo de inicio
+            long timeAux = System.nanoTime();
+
+            // The results are merged in the order of the executions as they finish
+            RunMerger merger = new RunMerger();
+            NRandom master = this.createRandom();
+            int first = 0;
+            Checkpoint.Input execution = null;
+
+            if (this.checkpointFile != null) {
+                this.checkpoint = new Checkpoint(this.checkpointFile, this.checkpointInterval);
+                Checkpoint.Input saved = (resume) ? this.checkpoint.loadRun() : null;
+                if (saved != null) {
+                    this.checkParameters(saved);
+                    master = saved.getRandom();
+                    first = saved.getInt();
+                    timeAux -= saved.getLong();
+                    merger.restore(saved);
+
+                    // The execution in progress, if its checkpoint is not older than the run
+                    execution = this.checkpoint.loadExecution();
+                    if (execution != null) {
+                        this.checkParameters(execution);
+                        if (execution.getInt() != first) {
+                            execution = null;
+                        }
+                    }
+                    this.completedExecutions = first;
+                    if (!this.quiet) {
+                        System.out.println("Resuming TS-MBFOA from execution " + (first + 1) + "...");
+                    }
+                }
+                merger.start(master.copy(), timeAux);
+                for (int i = 0; i < first; i++) {
+                    master.split();
                 }
+                merger.save(first);
+            }
 
-            } // close for Executions
+            // The pool of the chemotaxis is shared by all the executions of the run
+            if (this.synchronousChemotaxis && this.chemotaxisParallelism > 1) {
+                this.chemotaxisPool = new ForkJoinPool(this.chemotaxisParallelism);
+            }
 
-            //Se añade el tiempo en segundos
-            this.setTimeSeconds(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - timeAux));
-            if (debug) {
-                System.out.println("Final Results.\n" + this.getDescription(Population.sortPopulation(this.getBestResults()), cnop.getNumberVariable()));
-            }
-            //Mejor valor dependiendo el objetivos de max o min
-            this.addStatistic(
-                    (cnop.getType().equals(CNOP.MINIMIZATION))
-                    ? st.best(this.getBestResults(), positionOF)
-                    : st.worst(this.getBestResults(), positionOF)
-            );
-
-            //Media
-            this.addStatistic(st.mean(this.getBestResults(), positionOF));
-
-            //Mediana
-            this.addStatistic(st.median(this.getBestResults(), positionOF));
-
-            //Desviación estandar
-            this.addStatistic(st.standardDeviation(this.getBestResults(), positionOF));
-
-            //Peor valor
-            this.addStatistic(
-                    (cnop.getType().equals(cnop.MINIMIZATION))
-                    ? st.worst(this.getBestResults(), positionOF)
-                    : st.best(this.getBestResults(), positionOF)
-            );
-
-            //Tasa de factibilidad
-            this.addStatistic(st.feasibleRate(this.getBestResults(), positionSVR));
-            //Tasa de éxito
-            this.addStatistic(st.successRate(this.getBestResults(), positionOF, cnop.getBestKnownValue()));
-
-            int pd = 0;
-            double pscp = 0;
-
-            for (int i = 0; i < sccp.length; i++) {
-                if (sccp[i] > 0) {
-                    pd++;
-                    pscp = pscp + sccp[i];
+            try {
+                if (this.workers > 1 && this.getExecutions() > 1) {
+                    this.executeParallel(timeAux, merger, master, first);
+                } else {
+                    this.executeSequential(timeAux, merger, master, first, execution);
                 }
+            } catch (RuntimeException e) {
+                // The checkpoint is kept, so that the run can be resumed
+                this.checkpoint = null;
+                throw e;
+            } finally {
+                if (this.chemotaxisPool != null) {
+                    this.chemotaxisPool.shutdown();
+                    this.chemotaxisPool = null;
+                }
+            }
 
+            if (this.checkpoint != null) {
+                try {
+                    this.checkpoint.delete();
+                } catch (UncheckedIOException e) {
+                    System.err.println("The checkpoint could not be deleted: " + e.getMessage());
+                }
+                this.checkpoint = null;
             }
 
-            if (pscp > 0 && pd > 0) {
-                pscp = pscp / pd;
-            } else {
-                pscp = 0;
+            // The state of the last execution remains available
+            if (merger.last != null) {
+                this.population = merger.last.population;
+                this.setGmax(merger.last.generations);
             }
 
-            if (pscp > 0) {
-                this.addStatistic(Math.floor(pscp * this.getExecutions()) / pd);
-            } else {
-                this.addStatistic(0);
+            //Se añade el tiempo en segundos
+            this.setTimeNanos(System.nanoTime() - timeAux);
+            this.setTimeSeconds(TimeUnit.NANOSECONDS.toSeconds(this.getTimeNanos()));
+            this.setExecutionTimeNanos(merger.executionTimeNanos);
+            this.setExecutionEvaluations(merger.executionEvaluations);
+            if (debug) {
+                System.out.println("Final Results.\n" + this.getDescription(Population.sortPopulation(this.getBestResults().clone()), cnop.getNumberVariable()));
+            }
+            // Best, mean, median, st.d, worst, feasible rate, success rate and success performance
+            for (double statistic : this.getExecutionStore().summary(merger.sccp)) {
+                this.addStatistic(statistic);
             }
 
             if (debug) {
@@ -444,14 +891,784 @@ public class TSMBFOA extends MetaheuristicBase {
                 this.setAdvance(100);
             }
 
-            System.out.println("JMetaBFOP completed.");
+            if (!this.quiet && !this.getExecutionStore().isComplete()) {
+                System.err.println("Only the best results of the first " + this.getExecutionStore().getCapacity()
+                        + " of " + this.getExecutions() + " executions were kept, see setRetainedResults.");
+            }
+            if (!this.quiet) {
+                System.out.println("JMetaBFOP completed.");
+            }
+
+            if (this.hasListeners()) {
+                this.fireRunFinished();
+            }
 
         } else {
-            System.err.println("The number of iterations should be between [1 - 30.]");
+            System.err.println("The number of executions should be at least 1.");
         }// close else
 
     }//close run
 
+    /**
+     * Runs all the independent executions one after the other in the calling
+     * thread, merging each result when it finishes.
+     *
+     * With checkpoints and one colony, the worker of each execution saves
+     * its progress and the first execution can continue from a checkpoint.
+     *
+     * @param runStartNanos the start time of the run.
+     * @param merger where the results are merged.
+     * @param master the generator from which the generator of each execution
+     * is split.
+     * @param first the first execution to perform.
+     * @param execution the checkpoint of the first execution, or null to
+     * start it from the beginning.
+     */
+    private void executeSequential(long runStartNanos, RunMerger merger, NRandom master,
+            int first, Checkpoint.Input execution) {
+        for (int i = first; i < this.getExecutions(); i++) {
+            TSMBFOA worker = this.newWorker(this.debug);
+            NRandom random = master.split();
+            if (this.checkpoint != null && this.islands == 1) {
+                worker.checkpoint = this.checkpoint;
+                if (i == first && execution != null) {
+                    random = execution.getRandom();
+                    worker.resumedExecution = execution;
+                }
+            }
+            merger.merge(i, worker.execute(i, random, runStartNanos));
+            this.increaseAdvance();
+        }
+    }
+
+    /**
+     * Runs the independent executions concurrently on a pool of
+     * {@link #getWorkers()} threads. Each execution is performed by a worker
+     * TSMBFOA with its own population, ProcessTSMBFOA, stream of random
+     * numbers and a thread-confined copy of the CNOP.
+     * <br>
+     * Only a few executions per thread are submitted ahead, and the results
+     * are merged in the order of the executions as soon as possible, so the
+     * memory does not grow with the number of executions.
+     *
+     * @param runStartNanos the start time of the run.
+     * @param merger where the results are merged.
+     * @param master the generator from which the generator of each execution
+     * is split.
+     * @param first the first execution to perform.
+     * @throws CancellationException if the thread is interrupted, with the
+     * interrupt flag set.
+     */
+    private void executeParallel(long runStartNanos, RunMerger merger, NRandom master, int first) {
+        int poolSize = Math.min(this.workers, this.getExecutions() - first);
+        int window = poolSize * 2;
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, poolSize));
+
+        try {
+            ArrayDeque<Future<ExecutionResult>> pending = new ArrayDeque<>();
+            int merged = first;
+            for (int i = first; i < this.getExecutions(); i++) {
+                final int execution = i;
+                final NRandom random = master.split();
+                pending.add(pool.submit(() -> {
+                    ExecutionResult result = this.newWorker(false).execute(execution, random, runStartNanos);
+                    this.increaseAdvance();
+                    if (this.debug) {
+                        System.out.println("Execution " + (execution + 1) + " finished with "
+                                + result.generations + " generations.");
+                    }
+                    return result;
+                }));
+                if (pending.size() >= window) {
+                    merger.merge(merged++, pending.poll().get());
+                }
+            }
+            while (!pending.isEmpty()) {
+                merger.merge(merged++, pending.poll().get());
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CancellationException cancellation = new CancellationException("TS-MBFOA was interrupted.");
+            cancellation.initCause(e);
+            throw cancellation;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("An execution of TS-MBFOA failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a TSMBFOA with the same parameters to run one independent
+     * execution. The worker evaluates its own copy of the CNOP, so the CNOP of
+     * this instance can be shared with other runs at the same time.
+     *
+     * @param debug whether the worker shows its progress.
+     * @return the worker TSMBFOA.
+     */
+    private TSMBFOA newWorker(boolean debug) {
+        TSMBFOA worker = new TSMBFOA(this.cnop.copy(), debug);
+        worker.setSb(this.sb);
+        worker.setNc(this.nc);
+        worker.setBacteriaReproduce(this.bacteriaReproduce);
+        worker.setRepcycle(this.repcycle);
+        worker.setScalingFactor(this.scalingFactor);
+        worker.setStepSize(this.stepSize);
+        worker.setSynchronousChemotaxis(this.synchronousChemotaxis);
+        worker.setChemotaxisParallelism(this.chemotaxisParallelism);
+        worker.chemotaxisPool = this.chemotaxisPool;
+        worker.setEvaluations(this.getEvaluations());
+        worker.setExecutions(this.getExecutions());
+        worker.setConvergenceSampling(this.getConvergenceSampling());
+        worker.setIslands(this.islands);
+        worker.setMigrationInterval(this.migrationInterval);
+        worker.setEmigrants(this.emigrants);
+        worker.setMigrationTopology(this.migrationTopology);
+        worker.setMigrationChannel(this.migrationChannel);
+        worker.setMetrics(this.metrics);
+        worker.setEvaluationCacheSize(this.evaluationCacheSize);
+        worker.setEvaluationCacheQuantum(this.evaluationCacheQuantum);
+        worker.setCacheHitsCounted(this.cacheHitsCounted);
+        worker.setCoordinateBlockSize(this.coordinateBlockSize);
+        worker.setCompactStepSizes(this.compactStepSizes);
+        for (TerminationCriterion criterion : this.getTerminationCriteria()) {
+            worker.addTerminationCriterion(criterion);
+        }
+        for (MetaheuristicListener listener : this.getListeners()) {
+            worker.addListener(listener);
+        }
+        worker.shareStop(this);
+        return worker;
+    }
+
+    /**
+     * Performs one independent execution of the TS-MBFOA, with one colony or
+     * with the island model.
+     *
+     * @param i the number of the execution, starting at 0.
+     * @param nRandom the generator of random numbers of the execution.
+     * @param runStartNanos the start time of the run, for the termination
+     * criteria.
+     * @return the result of the execution.
+     */
+    private ExecutionResult execute(int i, NRandom nRandom, long runStartNanos) {
+        return (this.islands > 1)
+                ? this.executeIslands(i, nRandom, runStartNanos)
+                : this.executeColony(i, nRandom, runStartNanos);
+    }
+
+    /**
+     * Performs one independent execution with the island model: the colonies
+     * run concurrently, each one in its own thread with a worker TSMBFOA, and
+     * migrate through a channel created for the execution.
+     *
+     * @param i the number of the execution, starting at 0.
+     * @param nRandom the generator of random numbers of the execution.
+     * @param runStartNanos the start time of the run, for the termination
+     * criteria.
+     * @return the result of the colony with the best bacterium.
+     * @throws CancellationException if the thread is interrupted, with the
+     * interrupt flag set.
+     */
+    private ExecutionResult executeIslands(int i, NRandom nRandom, long runStartNanos) {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(this.islands);
+
+        try (MigrationChannel migration = this.migrationChannel.apply(this.islands)) {
+            migration.setMessageSize(this.cnop.getNumberVariable() * 2 + 2, this.emigrants);
+            List<Callable<ExecutionResult>> tasks = new ArrayList<>();
+            for (int k = 0; k < this.islands; k++) {
+                TSMBFOA colony = this.newWorker(false);
+                colony.island = k;
+                colony.channel = migration;
+                NRandom colonyRandom = nRandom.split();
+                tasks.add(() -> colony.executeColony(i, colonyRandom, runStartNanos));
+            }
+
+            List<Future<ExecutionResult>> futures = pool.invokeAll(tasks);
+
+            // The result of the best colony, with the evaluations of all of them
+            ExecutionResult best = null;
+            int evaluationsAux = 0;
+            long hitsAux = 0;
+            long missesAux = 0;
+            int sccpAux = 0;
+            for (Future<ExecutionResult> future : futures) {
+                ExecutionResult result = future.get();
+                evaluationsAux += result.evaluations;
+                hitsAux += result.cacheHits;
+                missesAux += result.cacheMisses;
+                if (result.sccp > 0 && (sccpAux == 0 || result.sccp < sccpAux)) {
+                    sccpAux = result.sccp;
+                }
+                if (best == null || Population.FEASIBILITY_RULES.compare(
+                        result.individuals[0], best.individuals[0]) < 0) {
+                    best = result;
+                }
+            }
+
+            best.evaluations = evaluationsAux;
+            best.cacheHits = hitsAux;
+            best.cacheMisses = missesAux;
+            best.sccp = sccpAux;
+            best.timeNanos = System.nanoTime() - start;
+            if (this.hasListeners()) {
+                ExecutionState state = new ExecutionState(i, runStartNanos,
+                        this.getSb() * this.getNc(), this.cnop.getBestKnownValue());
+                state.update(best.evaluations, best.generations, best.individuals[0]);
+                this.fireExecutionFinished(state, best.best);
+            }
+            return best;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CancellationException cancellation = new CancellationException("The colonies of execution "
+                    + (i + 1) + " were interrupted.");
+            cancellation.initCause(e);
+            throw cancellation;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A colony of execution " + (i + 1) + " failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Sends the best bacteria of the colony to its destinations and replaces
+     * the worst bacteria with the immigrants that arrived, if any. The
+     * immigrants whose length is not the one of the rows of the population
+     * are discarded.
+     */
+    private void migrate() {
+        int sizeValues = this.cnop.getNumberVariable() * 2 + 2;
+        int count = Math.min(this.emigrants, this.population.getSize());
+
+        for (int destination : this.migrationTopology.getDestinations(this.island, this.islands)) {
+            double[][] emigrantsAux = new double[count][];
+            for (int r = 0; r < count; r++) {
+                emigrantsAux[r] = this.population.getRow(r, new double[sizeValues]);
+            }
+            this.channel.send(this.island, destination, emigrantsAux);
+        }
+
+        double[][] immigrants = this.channel.receive(this.island);
+        int size = this.population.getSize();
+        int replaced = 0;
+        for (int r = 0; r < immigrants.length && replaced < size; r++) {
+            if (immigrants[r].length == sizeValues) {
+                this.population.setRow(size - 1 - replaced++, immigrants[r]);
+            }
+        }
+        if (replaced > 0) {
+            this.population.sort();
+            if (this.metrics != null) {
+                this.metrics.sorted();
+            }
+        }
+    }
+
+    /**
+     * Records the time of a phase of the foraging.
+     *
+     * @param timer the timer of the phase
+     * @param startNanos the start of the phase
+     * @return the end of the phase, which is the start of the next one
+     */
+    private static long lap(Timer timer, long startNanos) {
+        long nanos = System.nanoTime();
+        timer.record(nanos - startNanos);
+        return nanos;
+    }
+
+    /**
+     * Performs one independent execution of the TS-MBFOA over the population of
+     * this instance.
+     *
+     * @param i the number of the execution, starting at 0.
+     * @param nRandom the generator of random numbers of the execution.
+     * @param runStartNanos the start time of the run, for the termination
+     * criteria.
+     * @return the result of the execution.
+     */
+    private ExecutionResult executeColony(int i, NRandom nRandom, long runStartNanos) {
+
+        Statistics st = new Statistics();
+        ProcessTSMBFOA tsmbfoa = new ProcessTSMBFOA(nRandom);
+        if (this.evaluationCacheSize > 0) {
+            tsmbfoa.setEvaluationCache(new EvaluationCache(this.cnop.getNumberVariable(),
+                    this.evaluationCacheSize, this.evaluationCacheQuantum));
+        }
+        long evaluationsAux;
+        SolverMetrics metrics = this.metrics;
+        tsmbfoa.setMetrics(metrics);
+        long phaseNanos = 0;
+        ExecutionResult result = new ExecutionResult();
+
+        // One point of convergence per generation
+        result.convergence = new ConvergenceTrace(
+                this.getEvaluations() / (this.getSb() * this.getNc()) + 1,
+                this.getConvergenceSampling());
+
+        // Calculate the position of the objective function
+        int positionOF = cnop.getNumberVariable() * 2;
+        int positionSVR = cnop.getNumberVariable() * 2 + 1;
+
+        //Variables to calculate performance.
+        int bp = 0;
+        int sperformace = 0;
+
+        // Auxiliary counters
+        int count = 0;
+        ExecutionState state;
+        double[] best;
+
+        if (this.resumedExecution != null) {
+            // The execution continues from its checkpoint
+            Checkpoint.Input input = this.resumedExecution;
+            this.resumedExecution = null;
+            this.setGmax(input.getInt());
+            count = input.getInt();
+            bp = input.getInt();
+            result.sccp = input.getInt();
+            tsmbfoa.setEvaluations(input.getLong());
+            state = input.getState(runStartNanos);
+            result.convergence = input.getTrace();
+            this.population = input.getPopulation(this.compactStepSizes);
+            best = this.population.getRow(0, new double[positionSVR + 1]);
+
+            if (this.debug) {
+                System.out.println("Resuming execution " + (i + 1) + " from generation " + this.getGmax() + ".");
+            }
+
+        } else {
+
+            //Se hace depuraciones por partes si el debug esta habilitado
+            if (this.debug) {
+                System.out.println("Start execution: " + (i + 1));
+                System.out.println("Generating population...");
+            }
+
+            // The bacteria population is initialized.
+            double[][] initial = Population.startPopulation(this.cnop, this.sb, true, nRandom);
+
+            // The objective function and constraints are evaluated, and assigned to the population matrix.
+            initial = cnop.evaluateObjectiveFunction(initial);
+
+            // We sort the population based on feasibility rules
+            this.population = Population.fromMatrix(initial, this.compactStepSizes);
+            this.population.sort();
+            if (metrics != null) {
+                metrics.evaluated(this.sb, (long) this.sb * this.cnop.getNumberConstraints());
+                metrics.sorted();
+            }
+
+            // Copy of the best bacterium, updated after each generation
+            best = this.population.getRow(0, new double[positionSVR + 1]);
+
+            if (debug) {
+                System.out.println("Initial population sorted.\n"
+                        + this.getDescription(this.getIndividuals(), cnop.getNumberVariable()));
+            }
+
+            this.setGmax(0);
+
+            // Progress of the execution, checked by the termination criteria
+            state = new ExecutionState(i, runStartNanos,
+                    this.getSb() * this.getNc(), this.cnop.getBestKnownValue());
+            state.update(count, this.getGmax(), best);
+        }
+        double[][] bestMatrix = {best};
+
+        // The events are only prepared when there are listeners
+        boolean notify = this.hasListeners();
+        if (notify) {
+            this.fireNewBestFound(state, best);
+        }
+
+        if (this.debug) {
+            System.out.println("Bacterial foraging begins.");
+        }
+
+        /**
+         * Starting TS-MBFOA...
+         */
+        // Stop when the next generation exceeds the evaluations or a termination criterion is met
+        while (!this.isTerminationMet(state)) {   //stopping condition                 
+
+            //Generation increment
+            this.incrementGmax(1);
+
+            if (this.debug) {
+                System.out.println("\n> Start of generation " + this.getGmax()
+                        + " of execution " + (i + 1)
+                        + "\n> Starts the chemotaxic process...");
+            }
+
+            //Chemotactic process
+            if (metrics != null) {
+                phaseNanos = System.nanoTime();
+            }
+            evaluationsAux = tsmbfoa.getEvaluations();
+            tsmbfoa.chemotaxis(this.cnop, this);
+            if (metrics != null) {
+                phaseNanos = lap(metrics.getChemotaxis(), phaseNanos);
+            }
+
+            count += (this.cacheHitsCounted)
+                    ? this.getSb() * this.getNc()
+                    : (int) Math.max(1, tsmbfoa.getEvaluations() - evaluationsAux);
+            if (this.debug) {
+                System.out.println("> Starts the process of grouping and reproduction.");
+            }
+            //reproduction
+            tsmbfoa.reproduction(this);
+            if (metrics != null) {
+                phaseNanos = lap(metrics.getReproduction(), phaseNanos);
+            }
+            if (debug) {
+                System.out.println("> Elimination-dispersion.");
+            }
+            // Elimination-dispersion
+            evaluationsAux = tsmbfoa.getEvaluations();
+            tsmbfoa.eliminationDispersal(cnop, this);
+            if (metrics != null) {
+                phaseNanos = lap(metrics.getEliminationDispersal(), phaseNanos);
+            }
+            // Increment counter
+            count += (this.cacheHitsCounted) ? 1 : (int) (tsmbfoa.getEvaluations() - evaluationsAux);
+            if (this.debug) {
+                System.out.println("> Step size is updated.");
+            }
+            // Updating static step size
+            tsmbfoa.updateStepSize(this.cnop, this);
+            if (metrics != null) {
+                phaseNanos = lap(metrics.getStepSize(), phaseNanos);
+            }
+
+            // Migration between the colonies of the island model
+            if (this.channel != null && this.getGmax() % this.migrationInterval == 0) {
+                this.migrate();
+                if (metrics != null) {
+                    lap(metrics.getMigration(), phaseNanos);
+                }
+            }
+
+            if (metrics != null) {
+                // The feasible bacteria are the first ones of the sorted population
+                int feasible = 0;
+                while (feasible < this.population.getSize()
+                        && this.population.getSumConstraintViolation(feasible) == 0) {
+                    feasible++;
+                }
+                metrics.generationCompleted(feasible, this.population.getSize());
+            }
+
+            this.population.getRow(0, best);
+
+            if (best[positionSVR] == 0) {
+                sperformace = st.successPerformance(bestMatrix, this.cnop.getBestKnownValue());
+                if ((bp == 0) && (sperformace == 1)) {
+                    result.sccp = count;
+                    bp = 1;
+                }
+            }
+
+            result.convergence.add(count, best[positionOF]);
+
+            boolean improved = state.update(count, this.getGmax(), best);
+
+            if (notify) {
+                if (improved) {
+                    this.fireNewBestFound(state, best);
+                }
+                this.fireGenerationCompleted(state);
+            }
+
+            if (this.checkpoint != null && this.checkpoint.isDue()) {
+                this.saveExecution(i, nRandom, tsmbfoa, count, bp, state, result);
+            }
+
+        } //Close while the evaluation -> Bacterial foraging
+
+        if (debug) {
+            System.out.println("\nTerminates bacterial foraging with "
+                    + this.getGmax() + " generations.");
+        }
+
+        result.individuals = this.population.toMatrix();
+
+        switch (this.cnop.getType()) {
+            case CNOP.MINIMIZATION:
+                result.best = result.individuals[0];
+                break;
+            case CNOP.MAXIMIZATION:
+                result.best = result.individuals[this.getSb() - 1];
+                break;
+            default:
+                result.best = new double[]{};
+                System.err.println("Results cannot be saved, if min or max.");
+        }
+
+        result.population = this.population;
+        result.generations = this.getGmax();
+        result.evaluations = count;
+        result.timeNanos = state.getExecutionTimeNanos();
+        if (tsmbfoa.getEvaluationCache() != null) {
+            result.cacheHits = tsmbfoa.getEvaluationCache().getHits();
+            result.cacheMisses = tsmbfoa.getEvaluationCache().getMisses();
+        }
+
+        // The colonies of the island model finish together, see executeIslands
+        if (notify && this.channel == null) {
+            this.fireExecutionFinished(state, result.best);
+        }
+
+        return result;
+    }
+
+    @Override
+    public Map<String, String> getParameterValues() {
+        Map<String, String> parameters = super.getParameterValues();
+        parameters.put("Bacteria", String.valueOf(this.sb));
+        parameters.put("StepSize", String.valueOf(this.stepSize));
+        parameters.put("ChemotacticCycles", String.valueOf(this.nc));
+        parameters.put("BacteriaReproduce", String.valueOf(this.bacteriaReproduce));
+        parameters.put("ScalingFactor", String.valueOf(this.scalingFactor));
+        parameters.put("ReproductionFrequency", String.valueOf(this.repcycle));
+        parameters.put("CoordinateBlockSize", String.valueOf(this.coordinateBlockSize));
+        parameters.put("Islands", String.valueOf(this.islands));
+        return parameters;
+    }
+
+    /**
+     * Writes the parameters of the run to a checkpoint, so that a run is only
+     * resumed with the same parameters.
+     *
+     * @param output the checkpoint.
+     */
+    private void putParameters(Checkpoint.Output output) {
+        output.putString(this.cnop.getNameProblem());
+        output.putInt(this.cnop.getNumberVariable());
+        output.putDoubles(this.getParameters());
+    }
+
+    /**
+     * Reads the parameters of the run saved in a checkpoint and checks that
+     * they are the parameters of this instance.
+     *
+     * @param input the checkpoint.
+     * @throws IllegalStateException if the parameters are different.
+     */
+    private void checkParameters(Checkpoint.Input input) {
+        String nameProblem = input.getString();
+        int numberVariable = input.getInt();
+        double[] parameters = input.getDoubles();
+        if (!nameProblem.equals(this.cnop.getNameProblem())
+                || numberVariable != this.cnop.getNumberVariable()
+                || !Arrays.equals(parameters, this.getParameters())) {
+            throw new IllegalStateException("The checkpoint " + this.checkpointFile
+                    + " belongs to a run with other CNOP or parameters.");
+        }
+    }
+
+    /**
+     * Returns the parameters on which the results of the executions depend.
+     * The migration settings are only taken into account with more than one
+     * island, and a topology other than the ones of {@link MigrationTopology}
+     * is not told apart from other custom topologies.
+     *
+     * @return the parameters.
+     */
+    private double[] getParameters() {
+        boolean migration = this.islands > 1;
+        int topology = (this.migrationTopology == MigrationTopology.RING) ? 0
+                : (this.migrationTopology == MigrationTopology.FULLY_CONNECTED) ? 1 : 2;
+        return new double[]{this.getExecutions(), this.sb, this.nc, this.getEvaluations(),
+            this.stepSize, this.scalingFactor, this.bacteriaReproduce, this.repcycle,
+            this.coordinateBlockSize, this.getConvergenceSampling(),
+            this.synchronousChemotaxis ? 1 : 0, this.compactStepSizes ? 1 : 0, this.islands,
+            migration ? this.migrationInterval : 0, migration ? this.emigrants : 0, migration ? topology : 0};
+    }
+
+    /**
+     * Saves a checkpoint of the execution in progress of this worker.
+     *
+     * @param i the number of the execution, starting at 0.
+     * @param nRandom the generator of random numbers of the execution.
+     * @param tsmbfoa the process of the execution.
+     * @param count the evaluations of the execution.
+     * @param bp whether the execution reached the best known value.
+     * @param state the progress of the execution.
+     * @param result the result of the execution so far.
+     */
+    private void saveExecution(int i, NRandom nRandom, ProcessTSMBFOA tsmbfoa, int count, int bp,
+            ExecutionState state, ExecutionResult result) {
+        Checkpoint.Output output = this.checkpoint.begin();
+        this.putParameters(output);
+        output.putInt(i);
+        output.putRandom(nRandom);
+        output.putInt(this.getGmax());
+        output.putInt(count);
+        output.putInt(bp);
+        output.putInt(result.sccp);
+        output.putLong(tsmbfoa.getEvaluations());
+        output.putState(state);
+        output.putTrace(result.convergence);
+        output.putPopulation(this.population);
+        try {
+            this.checkpoint.saveExecution();
+        } catch (UncheckedIOException e) {
+            System.err.println("The checkpoint of execution " + (i + 1) + " could not be saved: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Increases the percentage of advance after an execution finishes.
+     */
+    private synchronized void increaseAdvance() {
+        //se calcula el porcentaje de avance
+        this.completedExecutions++;
+        long advance = (100L * this.completedExecutions) / this.getExecutions();
+        this.setAdvance((int) Math.max(1, Math.min(99, advance)));
+    }
+
+    /**
+     * Merges the results of the executions of a run, in the order of the
+     * executions, keeping only what the run needs of each one.
+     */
+    private class RunMerger {
+
+        // Checking the median of the executions
+        private final int medianExecution = (getExecutions() > 1) ? (int) getExecutions() / 2 : 1;
+        private final int positionOF = cnop.getNumberVariable() * 2;
+        private final int positionSVR = cnop.getNumberVariable() * 2 + 1;
+        private double bestValueAux = Double.POSITIVE_INFINITY;
+
+        private final int[] sccp = new int[getExecutions()];
+        private final long[] executionTimeNanos = new long[getExecutions()];
+        private final int[] executionEvaluations = new int[getExecutions()];
+        private ExecutionResult last;
+
+        // The generator of the run and its start, saved in the checkpoints
+        private NRandom masterStart;
+        private long runStartNanos;
+
+        private RunMerger() {
+            cacheHits = 0;
+            cacheMisses = 0;
+        }
+
+        private void start(NRandom masterStart, long runStartNanos) {
+            this.masterStart = masterStart;
+            this.runStartNanos = runStartNanos;
+        }
+
+        /**
+         * Reads the results of the executions that finished from a checkpoint
+         * written with {@link #save(int)}.
+         */
+        private void restore(Checkpoint.Input input) {
+            System.arraycopy(input.getInts(), 0, this.sccp, 0, this.sccp.length);
+            System.arraycopy(input.getLongs(), 0, this.executionTimeNanos, 0, this.executionTimeNanos.length);
+            System.arraycopy(input.getInts(), 0, this.executionEvaluations, 0, this.executionEvaluations.length);
+            this.bestValueAux = input.getDouble();
+            cacheHits = input.getLong();
+            cacheMisses = input.getLong();
+            restoreResults(input, cnop);
+        }
+
+        /**
+         * Saves the results of the executions that finished, if there are
+         * checkpoints.
+         */
+        private void save(int completed) {
+            if (checkpoint == null) {
+                return;
+            }
+            Checkpoint.Output output = checkpoint.begin();
+            putParameters(output);
+            output.putRandom(this.masterStart);
+            output.putInt(completed);
+            output.putLong(System.nanoTime() - this.runStartNanos);
+            output.putInts(this.sccp);
+            output.putLongs(this.executionTimeNanos);
+            output.putInts(this.executionEvaluations);
+            output.putDouble(this.bestValueAux);
+            output.putLong(cacheHits);
+            output.putLong(cacheMisses);
+            saveResults(output);
+            try {
+                checkpoint.saveRun();
+            } catch (UncheckedIOException e) {
+                System.err.println("The checkpoint of the run could not be saved: " + e.getMessage());
+            }
+        }
+
+        private void merge(int i, ExecutionResult result) {
+            this.executionTimeNanos[i] = result.timeNanos;
+            this.executionEvaluations[i] = result.evaluations;
+            cacheHits += result.cacheHits;
+            cacheMisses += result.cacheMisses;
+
+            if ((i + 1) == this.medianExecution) {
+                addBestSolutionConvergenceMedia(result.convergence);
+            }
+
+            this.sccp[i] = result.sccp;
+
+            if (getExecutions() > 1) {
+                double[] aux = result.best;
+
+                addBestResults(aux);
+                //Se guarda la convergencia de la mejor solución en caso de la iteración ser mayor a 1
+
+                if (aux[this.positionOF] < this.bestValueAux && aux[this.positionSVR] == 0) {
+                    clearConvergenceBestSolution();
+                    this.bestValueAux = aux[this.positionOF];
+                    addBestSolutionConvergence(result.convergence);
+                }
+
+            } else {
+
+                for (double[] individual : result.individuals) {
+                    addBestResults(individual);
+                }
+
+                if (debug) {
+                    System.out.println("As there is 1 independent execution, the results are"
+                            + "\nevaluated with the only population generated.");
+                }
+
+            }
+
+            // Only the last execution keeps its population
+            if (this.last != null) {
+                this.last.population = null;
+                this.last.individuals = null;
+            }
+            this.last = result;
+            this.save(i + 1);
+        }
+    }
+
+    /**
+     * Result of one independent execution of the TS-MBFOA.
+     */
+    private static class ExecutionResult {
+
+        private double[] best;
+        private double[][] individuals;
+        private Population population;
+        private ConvergenceTrace convergence;
+        private int sccp;
+        private int generations;
+        private int evaluations;
+        private long timeNanos;
+        private long cacheHits;
+        private long cacheMisses;
+    }
+
     /**
      *
      * Prints the parameter values in a formatted string.
@@ -1,8 +1,10 @@
 package com.garcialopez.optimizationmodel;
 
 import com.garcialopez.parser.ParseCNOP;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import org.mariuszgromada.math.mxparser.Expression;
 import org.mariuszgromada.math.mxparser.License;
 
@@ -12,6 +14,15 @@ import org.mariuszgromada.math.mxparser.License;
  * <br>
  * It provides methods and attributes to define and manage a CNOP.
  * <br>
+ * A CNOP has two parts: the problem definition (function, variables, ranges
+ * and constraints), which is only written by the setters while the problem is
+ * built, and the evaluation state (the expressions evaluated with mxParser and
+ * the vectors of constraint values), which is written in each evaluation. Once
+ * built, a CNOP can be shared by many threads as long as each thread evaluates
+ * its own {@link #copy()}; the copy shares the definition and the compiled
+ * expressions, so the problem is never parsed again. The metaheuristics never
+ * evaluate the CNOP they receive, only copies of it.
+ * <br>
  *
  * @author <b>Adrian García-López</b><br>
  * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
@@ -19,7 +30,7 @@ import org.mariuszgromada.math.mxparser.License;
  * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
  * @version 1.0
  */
-public class CNOP {
+public class CNOP implements Cloneable {
 
     /* Non-Commercial Use Confirmation */
     boolean isCallSuccessful = License.iConfirmNonCommercialUse("JMetaBFOP");
@@ -43,14 +54,33 @@ public class CNOP {
     private String[][] constraintsEquality;
     private String[][] constraintsInequality;
 
-    private double sumConstraintViolation = 0;
-
     //Parameter solo para parser
     private ParseCNOP parseCNOP;
 
     private int sizeCInequality;
     private int sizeCEquality;
 
+    // Constraints model, built once in setConstraints
+    private double[] rightSideInequality;
+    private double[] rightSideEquality;
+    private byte[] comparatorInequality;
+    private double equalityTolerance = 0.0001;
+
+    // Vectors reused by the CNOPs coded by hand to store the constraints values
+    private double[] valuesInequality;
+    private double[] valuesEquality;
+
+    // Dependencies of the functions on the variables, built on the first
+    // incremental evaluation: the constraints of each variable and whether the
+    // objective function depends on it
+    private int[][] variableConstraints;
+    private boolean[] objectiveVariables;
+
+    // Constraints marked in an incremental evaluation
+    private boolean[] changedConstraints;
+    private int[] changedList;
+    private int evaluatedConstraints;
+
     /**
      * Empty constructor method for object instance.
      */
@@ -134,8 +164,10 @@ public class CNOP {
      * -(100 - (x1 - 5)^2 - (x2 - 5)^2 - (x3 - 5)^2)/100<br>
      * and more...<br><br>
      *
-     * the purpose is that mXparse is in charge of evaluating and substituting
-     * directly the values for each variable.
+     * the purpose is that the parser is in charge of evaluating and
+     * substituting directly the values for each variable. The summations and
+     * products are kept as written; they are compiled as loops and only
+     * extended if the function must be evaluated with mXparser.
      *
      * <br>Syntax allowed for summations and products is:<br> <br>
      *
@@ -145,7 +177,7 @@ public class CNOP {
      * @param function the function to set
      */
     public void setFunction(String function) {
-        this.function = Transform.extendFunction(function);
+        this.function = function;
     } //close setFunction
 
     /**
@@ -206,7 +238,12 @@ public class CNOP {
         this.orderVariables = Transform.extendVariables(varOrder);
 
         // Se guarda el número de variables de la función objetivo
-        this.numberVariableOF = new Expression(this.function).getMissingUserDefinedArguments().length;
+        try {
+            this.numberVariableOF = ParseCNOP.getArguments(this.function).size();
+        } catch (IllegalArgumentException e) {
+            this.numberVariableOF = new Expression(Transform.extendFunction(this.function))
+                    .getMissingUserDefinedArguments().length;
+        }
         this.setNumberVariable(this.getOrderVariables().size());
 
     }
@@ -248,8 +285,14 @@ public class CNOP {
      * @param variableRange the string representation of variable ranges
      */
     public void setVariableRange(String variableRange) {
-        this.variableRange = Transform.createRanges(variableRange);
-        this.setIsContinuousVariable(Transform.CONTINUOUS);
+        List<Boolean> continuous = new ArrayList<>();
+        this.variableRange = Transform.createRanges(variableRange, continuous);
+
+        boolean[] isContinuous = new boolean[continuous.size()];
+        for (int i = 0; i < isContinuous.length; i++) {
+            isContinuous[i] = continuous.get(i);
+        }
+        this.setIsContinuousVariable(isContinuous);
     }
 
     /**
@@ -297,6 +340,9 @@ public class CNOP {
     /**
      *
      * Sets the constraints for the CNOP.
+     * <br>
+     * The right sides and the comparators of the constraints are converted
+     * once to numbers, so that they are not parsed in each evaluation.
      *
      * @param constraints an instance of the Constraints class containing the
      * inequality and equality constraint matrices
@@ -309,6 +355,74 @@ public class CNOP {
 
         this.sizeCEquality = this.constraintsEquality.length;
 
+        this.rightSideInequality = new double[this.sizeCInequality];
+        this.comparatorInequality = new byte[this.sizeCInequality];
+        for (int i = 0; i < this.sizeCInequality; i++) {
+            this.comparatorInequality[i] = Constraints.getComparatorCode(this.constraintsInequality[i][1]);
+            this.rightSideInequality[i] = Double.parseDouble(this.constraintsInequality[i][2]);
+        }
+
+        this.rightSideEquality = new double[this.sizeCEquality];
+        for (int i = 0; i < this.sizeCEquality; i++) {
+            this.rightSideEquality[i] = Double.parseDouble(this.constraintsEquality[i][2]);
+        }
+
+        this.valuesInequality = new double[this.sizeCInequality];
+        this.valuesEquality = new double[this.sizeCEquality];
+
+    }
+
+    /**
+     * Method that returns the number of constraints of the CNOP.
+     *
+     * @return the number of inequality and equality constraints
+     */
+    public int getNumberConstraints() {
+        return this.sizeCInequality + this.sizeCEquality;
+    }
+
+    /**
+     * Method that returns the tolerance used to consider an equality
+     * constraint satisfied.
+     *
+     * @return the equalityTolerance
+     */
+    public double getEqualityTolerance() {
+        return equalityTolerance;
+    }
+
+    /**
+     * Method that sets the tolerance used to consider an equality constraint
+     * satisfied: |h(x)| - tolerance <= 0. The default is 0.0001.
+     *
+     * @param equalityTolerance the equalityTolerance to set
+     */
+    public void setEqualityTolerance(double equalityTolerance) {
+        this.equalityTolerance = equalityTolerance;
+    }
+
+    /**
+     * Returns the vector where a CNOP coded by hand stores the values of its
+     * inequality constraints before calling
+     * {@link #getSumConstraintViolation(double[], double[])}. The vector is
+     * reused in each evaluation.
+     *
+     * @return a vector with one position per inequality constraint.
+     */
+    protected double[] getInequalityValues() {
+        return valuesInequality;
+    }
+
+    /**
+     * Returns the vector where a CNOP coded by hand stores the values of its
+     * equality constraints before calling
+     * {@link #getSumConstraintViolation(double[], double[])}. The vector is
+     * reused in each evaluation.
+     *
+     * @return a vector with one position per equality constraint.
+     */
+    protected double[] getEqualityValues() {
+        return valuesEquality;
     }
 
     /**
@@ -316,7 +430,8 @@ public class CNOP {
      * Parses the CNOP function and sets up the constraints using the specified
      * function expression, order of variables, inequality constraints, and
      * equality constraints. This method is used when the CNOP is provided as a
-     * text string and utilizes the mxParser library for parsing and evaluation.
+     * text string. The expressions are compiled to bytecode once, and the
+     * mxParser library is used for the expressions that cannot be compiled.
      */
     public void parserCNOP() {
 
@@ -327,6 +442,38 @@ public class CNOP {
 
     }
 
+    /**
+     *
+     * Creates a copy of this CNOP that can be evaluated from another thread.
+     * <br>
+     * The problem definition is shared with the copy, while the evaluation
+     * state (the expressions evaluated with mxParser and the vectors of
+     * constraint values) is duplicated. The compiled expressions are shared,
+     * so nothing is compiled again; only the expressions that could not be
+     * compiled and fell back to mxParser are parsed again, because mxParser
+     * keeps the values of the arguments in the expression. Subclasses that
+     * keep their own evaluation state must override this method.
+     *
+     * @return a thread-confined copy of this CNOP.
+     */
+    public CNOP copy() {
+        try {
+            CNOP copy = (CNOP) super.clone();
+            if (this.parseCNOP != null) {
+                copy.parseCNOP = this.parseCNOP.copy();
+            }
+            if (this.valuesInequality != null) {
+                copy.valuesInequality = new double[this.sizeCInequality];
+                copy.valuesEquality = new double[this.sizeCEquality];
+            }
+            copy.changedConstraints = null;
+            copy.changedList = null;
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      *
      * Evaluates the objective function using the provided values and returns a
@@ -337,15 +484,14 @@ public class CNOP {
      * @return A matrix representing the evaluated objective function values.
      */
     public double[][] evaluateObjectiveFunction(double[][] values) {
-        int varNumber = this.getNumberVariable();
         int sizeValues = values[0].length;
         int indexFO = sizeValues - 2;
         int indexSVR = sizeValues - 1;
 
         for (double[] value : values) {
-            double[] valuesAux = Arrays.copyOfRange(value, 0, varNumber);
-            value[indexFO] = this.parseCNOP.evaluateOF(valuesAux);
-            value[indexSVR] = this.getSumConstraintViolation(valuesAux,
+            // the parser only reads the first numberVariable positions of the row
+            value[indexFO] = this.parseCNOP.evaluateOF(value);
+            value[indexSVR] = this.getSumConstraintViolation(value,
                     constraintsInequality,
                     constraintsEquality
             );
@@ -354,6 +500,385 @@ public class CNOP {
         return values;
     }
 
+    /**
+     *
+     * Evaluates all the candidates of a batch, storing the objective function
+     * value and the sum of constraint violations of each candidate in the
+     * batch.
+     * <br>
+     * The default implementation evaluates the candidates one by one with
+     * {@link #evaluateObjectiveFunction(double[][])}. CNOPs coded by hand can
+     * override this method to evaluate the whole batch with loops over the
+     * columns of {@link EvaluationBatch#getVariables()}; such loops can be
+     * auto-vectorized by the JIT compiler or split among several threads for
+     * expensive problems.
+     *
+     * @param batch the candidates to be evaluated.
+     */
+    public void evaluateBatch(EvaluationBatch batch) {
+        double[] fo = batch.getObjectiveFunction();
+        double[] svr = batch.getSumConstraintViolation();
+        int indexFO = this.getNumberVariable();
+        int indexSVR = indexFO + 1;
+
+        for (int i = 0; i < batch.getSize(); i++) {
+            double[][] row = this.evaluateObjectiveFunction(batch.getRow(i));
+            fo[i] = row[0][indexFO];
+            svr[i] = row[0][indexSVR];
+        }
+    }
+
+    /**
+     *
+     * Evaluates a candidate that differs from an evaluated candidate only in
+     * the variables from {@code from} to {@code to - 1}, as the new positions
+     * of the coordinate-block chemotaxis of the TS-MBFOA.
+     * <br>
+     * On entry the last two positions of the row hold the objective function
+     * value and the sum of constraint violations of the evaluated candidate; on
+     * return they hold the ones of the new candidate. The default
+     * implementation evaluates the whole candidate with
+     * {@link #evaluateObjectiveFunction(double[][])}; CNOPs whose functions can
+     * be updated from the changed variables override it, see
+     * {@link FunctionalCNOP}.
+     * <br>
+     *
+     * @param values a one-row matrix with the new candidate.
+     * @param from the first variable that changed.
+     * @param to the variable after the last one that changed.
+     * @param previous the values of the variables that changed in the
+     * evaluated candidate: {@code previous[j - from]} was the value of the
+     * variable j.
+     * @return the evaluated matrix.
+     */
+    public double[][] evaluateChange(double[][] values, int from, int to, double[] previous) {
+        return this.evaluateObjectiveFunction(values);
+    }
+
+    /**
+     *
+     * Returns true if the objective function and each constraint can be
+     * evaluated on their own with {@link #evaluateObjective(double[])} and
+     * {@link #evaluateConstraint(int, double[])}, so that
+     * {@link #evaluateChange(double[][], int, int, double[], double[])} only
+     * evaluates the functions that depend on the variables that changed.
+     * <br>
+     * This is the case of a CNOP given as text once {@link #parserCNOP()} has
+     * been called. CNOPs coded by hand that implement both methods override
+     * this one to return true.
+     *
+     * @return true if the functions can be evaluated one by one.
+     */
+    public boolean isIncrementalEvaluation() {
+        return this.parseCNOP != null;
+    }
+
+    /**
+     *
+     * Evaluates the objective function alone.
+     *
+     * @param values the values of the variables.
+     * @return the objective function value.
+     */
+    public double evaluateObjective(double[] values) {
+        return this.parseCNOP.evaluateOF(values);
+    }
+
+    /**
+     *
+     * Evaluates the left side of a constraint alone.
+     *
+     * @param index the index of the constraint: the inequality constraints
+     * first and then the equality constraints, in the order in which they
+     * were added.
+     * @param values the values of the variables.
+     * @return the value of the constraint.
+     */
+    public double evaluateConstraint(int index, double[] values) {
+        if (index < this.sizeCInequality) {
+            return this.parseCNOP.evaluateConstraintsInequality(index, values);
+        }
+        return this.parseCNOP.evaluateConstraintsEquality(index - this.sizeCInequality, values);
+    }
+
+    /**
+     *
+     * Calculates the violation of a constraint from its value, with its
+     * comparator and right side.
+     *
+     * @param index the index of the constraint, as in
+     * {@link #evaluateConstraint(int, double[])}.
+     * @param value the value of the constraint.
+     * @return the violation, 0 if the constraint is satisfied.
+     */
+    public double getConstraintViolation(int index, double value) {
+        if (index < this.sizeCInequality) {
+            return calculateSVR(value, this.comparatorInequality[index], this.rightSideInequality[index]);
+        }
+        return calculateSVR(value, Constraints.EQUAL, this.rightSideEquality[index - this.sizeCInequality]);
+    }
+
+    /**
+     *
+     * Returns the variables on which the objective function depends.
+     * <br>
+     * By default they are the arguments of {@link #getFunction()}, so CNOPs
+     * coded by hand must keep the text of their function.
+     *
+     * @return the positions of the variables, or null if the function may
+     * depend on all of them.
+     */
+    public int[] getObjectiveDependencies() {
+        return this.getDependencies(this.function);
+    }
+
+    /**
+     *
+     * Returns the variables on which each constraint depends, in the order of
+     * {@link #evaluateConstraint(int, double[])}.
+     * <br>
+     * By default they are the arguments of the text of each constraint, so
+     * CNOPs coded by hand must keep the text of their constraints, e.g. in
+     * G22 of the CEC 2006 most of the 20 constraints depend on 2 to 4 of the
+     * 22 variables.
+     *
+     * @return the positions of the variables of each constraint; a null
+     * position means that the constraint may depend on all of them.
+     */
+    public int[][] getConstraintDependencies() {
+        int[][] dependencies = new int[this.getNumberConstraints()][];
+        for (int i = 0; i < this.sizeCInequality; i++) {
+            dependencies[i] = this.getDependencies(this.constraintsInequality[i][0]);
+        }
+        for (int i = 0; i < this.sizeCEquality; i++) {
+            dependencies[this.sizeCInequality + i] = this.getDependencies(this.constraintsEquality[i][0]);
+        }
+        return dependencies;
+    }
+
+    /**
+     *
+     * Returns the positions of the variables that are arguments of a function.
+     * A variable that appears several times in the order of the variables
+     * gives all its positions.
+     *
+     * @param function the function as text.
+     * @return the positions, or null if the function cannot be parsed.
+     */
+    private int[] getDependencies(String function) {
+        if (function == null) {
+            return null;
+        }
+        List<String> order = this.getOrderVariables();
+        try {
+            Set<String> arguments = ParseCNOP.getArguments(function);
+            int[] positions = new int[order.size()];
+            int count = 0;
+            for (int j = 0; j < order.size(); j++) {
+                if (arguments.contains(order.get(j))) {
+                    positions[count++] = j;
+                }
+            }
+            return Arrays.copyOf(positions, count);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     *
+     * Builds, once, the constraints that depend on each variable and the
+     * variables of the objective function.
+     */
+    private void buildDependencies() {
+        int numberVariables = this.getNumberVariable();
+        int numberConstraints = this.getNumberConstraints();
+
+        this.objectiveVariables = new boolean[numberVariables];
+        int[] objective = this.getObjectiveDependencies();
+        if (objective == null) {
+            Arrays.fill(this.objectiveVariables, true);
+        } else {
+            for (int j : objective) {
+                this.objectiveVariables[j] = true;
+            }
+        }
+
+        // Inverse of the dependencies of the constraints
+        int[][] dependencies = this.getConstraintDependencies();
+        int[] all = new int[numberVariables];
+        Arrays.setAll(all, j -> j);
+        int[] counts = new int[numberVariables];
+        for (int i = 0; i < numberConstraints; i++) {
+            if (dependencies[i] == null) {
+                dependencies[i] = all;
+            }
+            for (int j : dependencies[i]) {
+                counts[j]++;
+            }
+        }
+        int[][] constraints = new int[numberVariables][];
+        for (int j = 0; j < numberVariables; j++) {
+            constraints[j] = new int[counts[j]];
+            counts[j] = 0;
+        }
+        for (int i = 0; i < numberConstraints; i++) {
+            for (int j : dependencies[i]) {
+                constraints[j][counts[j]++] = i;
+            }
+        }
+        this.variableConstraints = constraints;
+    }
+
+    /**
+     *
+     * Evaluates the violation of each constraint of a candidate, the values
+     * that {@link #evaluateChange(double[][], int, int, double[], double[])}
+     * keeps up to date.
+     *
+     * @param values the values of the variables.
+     * @param violations the vector where the violation of each constraint is
+     * written, with {@link #getNumberConstraints()} positions.
+     */
+    public void evaluateViolations(double[] values, double[] violations) {
+        for (int i = 0; i < violations.length; i++) {
+            violations[i] = this.getConstraintViolation(i, this.evaluateConstraint(i, values));
+        }
+    }
+
+    /**
+     *
+     * Updates the objective function value of a candidate after a change of
+     * the variables from {@code from} to {@code to - 1}. The function is
+     * evaluated again if it depends on a variable that changed its value.
+     *
+     * @param value the objective function value before the change.
+     * @param values the values of the variables after the change.
+     * @param from the first variable that changed.
+     * @param to the variable after the last one that changed.
+     * @param previous the values of the variables that changed before the
+     * change.
+     * @return the objective function value after the change.
+     */
+    protected double updateObjective(double value, double[] values, int from, int to, double[] previous) {
+        for (int j = from; j < to; j++) {
+            if (this.objectiveVariables[j] && values[j] != previous[j - from]) {
+                return this.evaluateObjective(values);
+            }
+        }
+        return value;
+    }
+
+    /**
+     *
+     * Evaluates a candidate that differs from an evaluated candidate only in
+     * the variables from {@code from} to {@code to - 1}, evaluating only the
+     * functions that depend on the variables whose value changed, see
+     * {@link #getObjectiveDependencies()} and
+     * {@link #getConstraintDependencies()}.
+     * <br>
+     * The violation of each constraint of the evaluated candidate is kept by
+     * the caller, e.g. one vector per bacterium; on entry {@code violations}
+     * holds them, together with the objective function value at the end of
+     * the row, and on return they hold the ones of the new candidate. The sum
+     * of constraint violations is the sum of the vector, in the same order as
+     * a complete evaluation, so the results are the same.
+     * <br>
+     * If {@link #isIncrementalEvaluation()} is false, the candidate is
+     * evaluated with
+     * {@link #evaluateChange(double[][], int, int, double[])} and the
+     * violations are evaluated again.
+     * <br>
+     * The number of constraints evaluated is returned by
+     * {@link #getEvaluatedConstraints()}.
+     *
+     * @param values a one-row matrix with the new candidate.
+     * @param from the first variable that may have changed.
+     * @param to the variable after the last one that may have changed.
+     * @param previous the values of the variables from {@code from} in the
+     * evaluated candidate: {@code previous[j - from]} was the value of the
+     * variable j.
+     * @param violations the violation of each constraint.
+     * @return the evaluated matrix.
+     */
+    public double[][] evaluateChange(double[][] values, int from, int to, double[] previous, double[] violations) {
+        if (!this.isIncrementalEvaluation()) {
+            values = this.evaluateChange(values, from, to, previous);
+            this.evaluateViolations(values[0], violations);
+            this.evaluatedConstraints = 2 * violations.length;
+            return values;
+        }
+        if (this.variableConstraints == null) {
+            this.buildDependencies();
+        }
+        if (this.changedConstraints == null) {
+            this.changedConstraints = new boolean[violations.length];
+            this.changedList = new int[violations.length];
+        }
+
+        double[] value = values[0];
+        int indexFO = value.length - 2;
+        int indexSVR = value.length - 1;
+
+        value[indexFO] = this.updateObjective(value[indexFO], value, from, to, previous);
+
+        // Constraints that depend on a variable that changed
+        int changed = 0;
+        for (int j = from; j < to; j++) {
+            if (value[j] != previous[j - from]) {
+                for (int i : this.variableConstraints[j]) {
+                    if (!this.changedConstraints[i]) {
+                        this.changedConstraints[i] = true;
+                        this.changedList[changed++] = i;
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < changed; k++) {
+            int i = this.changedList[k];
+            violations[i] = this.getConstraintViolation(i, this.evaluateConstraint(i, value));
+            this.changedConstraints[i] = false;
+        }
+        this.evaluatedConstraints = changed;
+
+        value[indexSVR] = this.sumViolations(violations);
+        return values;
+    }
+
+    /**
+     *
+     * Returns the number of constraints evaluated by the last call to
+     * {@link #evaluateChange(double[][], int, int, double[], double[])} of
+     * this instance: only the ones of the variables that changed in an
+     * incremental evaluation, or the complete evaluation and the violations
+     * otherwise.
+     *
+     * @return the number of constraints evaluated.
+     */
+    public int getEvaluatedConstraints() {
+        return this.evaluatedConstraints;
+    }
+
+    /**
+     *
+     * Adds the violations of the constraints, as the sum of constraint
+     * violations of a complete evaluation.
+     *
+     * @param violations the violation of each constraint.
+     * @return the sum of constraint violations, NaN if the CNOP has no
+     * constraints model.
+     */
+    protected double sumViolations(double[] violations) {
+        if (this.comparatorInequality == null) {
+            return Double.NaN;
+        }
+        double svrAux = 0;
+        for (double violation : violations) {
+            svrAux += violation;
+        }
+        return svrAux;
+    }
+
     /**
      *
      * Calculates the sum of constraint violations for the given variable values
@@ -370,10 +895,8 @@ public class CNOP {
             String[][] constraintsInequality,
             String[][] constraintsEquality) {
 
-        this.sumConstraintViolation = 0;
+        double sumConstraintViolation;
         double svrAux = 0;
-        String comparator;
-        double rightSide;
         double resultC;
 
         if (constraintsInequality != null || constraintsEquality != null) {
@@ -382,12 +905,7 @@ public class CNOP {
 
                 for (int i = 0; i < sizeCInequality; i++) {
                     resultC = this.parseCNOP.evaluateConstraintsInequality(i, values);
-
-                    comparator = constraintsInequality[i][1];
-
-                    rightSide = Double.parseDouble(constraintsInequality[i][2]);
-
-                    svrAux += calculateSVR(resultC, comparator, rightSide);
+                    svrAux += calculateSVR(resultC, this.comparatorInequality[i], this.rightSideInequality[i]);
                 }
 
             }
@@ -396,13 +914,12 @@ public class CNOP {
 
                 for (int i = 0; i < sizeCEquality; i++) {
                     resultC = this.parseCNOP.evaluateConstraintsEquality(i, values);
-                    rightSide = Double.parseDouble(constraintsEquality[i][2]);
-                    svrAux += calculateSVR(resultC, "=", rightSide);
+                    svrAux += calculateSVR(resultC, Constraints.EQUAL, this.rightSideEquality[i]);
                 }
             }
-            this.sumConstraintViolation = svrAux;
+            sumConstraintViolation = svrAux;
         } else {
-            this.sumConstraintViolation = Double.NaN;
+            sumConstraintViolation = Double.NaN;
         }
 
         return sumConstraintViolation;
@@ -411,7 +928,44 @@ public class CNOP {
     /**
      *
      * Calculates the sum of constraint violations for the given constraint
-     * parameters.
+     * values, using the right sides and comparators of the constraints set
+     * with {@link #setConstraints(Constraints)}.
+     * <br>
+     * This is the method used by the CNOPs coded by hand, together with
+     * {@link #getInequalityValues()} and {@link #getEqualityValues()}, so that
+     * no memory is allocated in each evaluation.
+     *
+     * @param constraintsIneq The array of inequality constraint values, in the
+     * order in which the constraints were added.
+     * @param constraintsEqua The array of equality constraint values, in the
+     * order in which the constraints were added.
+     * @return The sum of constraint violations.
+     */
+    public double getSumConstraintViolation(double[] constraintsIneq, double[] constraintsEqua) {
+
+        if (this.comparatorInequality == null) {
+            return Double.NaN;
+        }
+
+        double svrAux = 0;
+
+        for (int i = 0; i < constraintsIneq.length; i++) {
+            svrAux += calculateSVR(constraintsIneq[i], this.comparatorInequality[i], this.rightSideInequality[i]);
+        }
+
+        for (int i = 0; i < constraintsEqua.length; i++) {
+            svrAux += calculateSVR(constraintsEqua[i], Constraints.EQUAL, this.rightSideEquality[i]);
+        }
+
+        return svrAux;
+    }
+
+    /**
+     *
+     * Calculates the sum of constraint violations for the given constraint
+     * parameters. The comparators are converted to codes in each call, the
+     * CNOPs coded by hand use
+     * {@link #getSumConstraintViolation(double[], double[])} instead.
      *
      * @param constraintsIneq The array of inequality constraint values.
      * @param constraintsEqua The array of equality constraint values.
@@ -430,9 +984,9 @@ public class CNOP {
             double[] rightSideEqua,
             String[] comparatorIneq) {
 
-        this.sumConstraintViolation = 0;
+        double sumConstraintViolation;
         double svrAux = 0;
-        String comparator;
+        byte comparator;
         double rightSide;
 
         if (constraintsIneq != null || constraintsEqua != null) {
@@ -442,7 +996,7 @@ public class CNOP {
                 for (int i = 0; i < constraintsIneq.length; i++) {
                     double resultC = constraintsIneq[i];
 
-                    comparator = comparatorIneq[i];
+                    comparator = Constraints.getComparatorCode(comparatorIneq[i]);
                     rightSide = rightSideIneq[i];
 
                     svrAux += calculateSVR(resultC, comparator, rightSide);
@@ -455,12 +1009,12 @@ public class CNOP {
                 for (int i = 0; i < constraintsEqua.length; i++) {
                     double resultC = constraintsEqua[i];
                     rightSide = rightSideEqua[i];
-                    svrAux += calculateSVR(resultC, "=", rightSide);
+                    svrAux += calculateSVR(resultC, Constraints.EQUAL, rightSide);
                 }
             }
-            this.sumConstraintViolation = svrAux;
+            sumConstraintViolation = svrAux;
         } else {
-            this.sumConstraintViolation = Double.NaN;
+            sumConstraintViolation = Double.NaN;
         }
 
         return sumConstraintViolation;
@@ -473,27 +1027,27 @@ public class CNOP {
      *
      * @param resultC The result of the constraint evaluation.
      *
-     * @param comparator The comparator ("<", "<=", ">", ">=", or "=") used for
-     * the constraint.
+     * @param comparator The code of the comparator used for the constraint,
+     * see {@link Constraints#getComparatorCode(String)}.
      *
      * @param rightSide The right side value of the constraint.
      *
      * @return The constraint violation value.
      */
-    private double calculateSVR(double resultC, String comparator, double rightSide) {
+    private double calculateSVR(double resultC, byte comparator, double rightSide) {
         double violation = 0.0;
 
         switch (comparator) {
-            case ">=":
-            case ">":
+            case Constraints.GREATER_EQUAL:
+            case Constraints.GREATER:
                 violation = Math.max(0, resultC + rightSide);
                 break;
-            case "<=":
-            case "<":
+            case Constraints.LESS_EQUAL:
+            case Constraints.LESS:
                 violation = Math.max(0, resultC - rightSide);
                 break;
-            case "=":
-                violation = Math.max(0, Math.abs(resultC) - 0.0001);
+            case Constraints.EQUAL:
+                violation = Math.max(0, Math.abs(resultC) - this.equalityTolerance);
                 break;
         }
 
@@ -1,7 +1,6 @@
 package com.garcialopez.optimizationmodel;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -16,6 +15,13 @@ import java.util.List;
  */
 public class Constraints {
 
+    /* Codes of the comparators, see getComparatorCode */
+    public static final byte LESS_EQUAL = 0;
+    public static final byte LESS = 1;
+    public static final byte GREATER_EQUAL = 2;
+    public static final byte GREATER = 3;
+    public static final byte EQUAL = 4;
+
     private final String regularExpression = "(?<!<|>|=)(?=[<>=])\\s*|\\s*(?<=<|>|=)(?![<>=])\\s*";
 
     private final List<String> constraints;
@@ -71,11 +77,11 @@ public class Constraints {
      * constraints. The inequality matrix represents the constraints that
      * contain the operators "<=", ">=", "<", or ">". The method checks if there
      * are any inequality constraints stored. If so, it initializes the
-     * inequality matrix, splits the constraints into parts, extends the
-     * function in the first part, and populates the inequality matrix. Finally,
-     * it removes the processed constraints from the stored constraints list and
-     * returns the inequality matrix. If there are no inequality constraints, it
-     * returns an empty matrix.
+     * inequality matrix, splits the constraints into parts and populates the
+     * inequality matrix; the summations and products of the function are kept
+     * as written. Finally, it removes the processed constraints from the stored
+     * constraints list and returns the inequality matrix. If there are no
+     * inequality constraints, it returns an empty matrix.
      * <br>
      *
      * @return the inequality matrix as a 2D array of strings.
@@ -94,8 +100,6 @@ public class Constraints {
 
                     parts = this.constraints.get(i).split(regularExpression);
                     constraintsInequality[countAux] = parts;
-                    constraintsInequality[countAux][0] = Transform
-                            .extendFunction(constraintsInequality[countAux][0]);
                     countAux++;
                     this.constraints.remove(i);
                     i--;
@@ -104,8 +108,6 @@ public class Constraints {
 
                     parts = this.constraints.get(i).split(regularExpression);
                     constraintsInequality[countAux] = parts;
-                    constraintsInequality[countAux][0] = Transform
-                            .extendFunction(constraintsInequality[countAux][0]);
                     countAux++;
                     this.constraints.remove(i);
                     i--;
@@ -114,8 +116,6 @@ public class Constraints {
 
                     parts = this.constraints.get(i).split(regularExpression);
                     constraintsInequality[countAux] = parts;
-                    constraintsInequality[countAux][0] = Transform
-                            .extendFunction(constraintsInequality[countAux][0]);
                     countAux++;
                     this.constraints.remove(i);
                     i--;
@@ -124,8 +124,6 @@ public class Constraints {
 
                     parts = this.constraints.get(i).split(regularExpression);
                     constraintsInequality[countAux] = parts;
-                    constraintsInequality[countAux][0] = Transform
-                            .extendFunction(constraintsInequality[countAux][0]);
                     countAux++;
                     this.constraints.remove(i);
                     i--;
@@ -145,11 +143,11 @@ public class Constraints {
      * constraints. The equality matrix represents the constraints that contain
      * the "=" operator but do not contain the operators "<=" or ">=". The
      * method checks if there are any equality constraints stored. If so, it
-     * initializes the equality matrix, splits the constraints into parts,
-     * extends the function in the first part, and populates the equality
-     * matrix. Finally, it removes the processed constraints from the stored
-     * constraints list and returns the equality matrix. If there are no
-     * equality constraints, it returns an empty matrix.
+     * initializes the equality matrix, splits the constraints into parts and
+     * populates the equality matrix; the summations and products of the
+     * function are kept as written. Finally, it removes the processed
+     * constraints from the stored constraints list and returns the equality
+     * matrix. If there are no equality constraints, it returns an empty matrix.
      * <br>
      *
      * @return the equality matrix as a 2D array of strings.
@@ -165,11 +163,7 @@ public class Constraints {
                 if (this.constraints.get(i).contains("=") && !this.constraints.get(i).contains("<=") && !this.constraints.get(i).contains(">=")) {
 
                     parts = this.constraints.get(i).split(regularExpression);
-                    System.out.println("asdASD: " + Arrays.toString(parts));
                     constraintsEquality[countAux] = parts;
-                    constraintsEquality[countAux][0] = Transform
-                            .extendFunction(constraintsEquality[countAux][0]);
-
                     countAux++;
                     this.constraints.remove(i);
                     i--;
@@ -182,6 +176,31 @@ public class Constraints {
         return new String[0][];
     }
 
+    /**
+     * Returns the code of a comparator, so that the comparator is not compared
+     * as a string in each evaluation.
+     *
+     * @param comparator the comparator: "<=", "<", ">=", ">" or "=".
+     * @return the code of the comparator.
+     * @throws IllegalArgumentException if the comparator is not valid.
+     */
+    public static byte getComparatorCode(String comparator) {
+        switch (comparator.trim()) {
+            case "<=":
+                return LESS_EQUAL;
+            case "<":
+                return LESS;
+            case ">=":
+                return GREATER_EQUAL;
+            case ">":
+                return GREATER;
+            case "=":
+                return EQUAL;
+            default:
+                throw new IllegalArgumentException("Invalid comparator: " + comparator);
+        }
+    }
+
     /**
      * Returns the number of constraints.
      *
@@ -0,0 +1,192 @@
+package com.garcialopez.optimizationmodel;
+
+/**
+ * EvaluationBatch class holds a group of candidate solutions that are
+ * evaluated together by {@link CNOP#evaluateBatch(EvaluationBatch)}.
+ * <br>
+ * The values of the design variables are stored column by column
+ * (structure of arrays): all the values of the first variable, then all the
+ * values of the second variable, and so on. This way a CNOP can evaluate the
+ * whole batch with simple loops over primitive arrays, which the JIT compiler
+ * can auto-vectorize.
+ * <br>
+ * <pre>{@code
+ * double[] x = batch.getVariables();
+ * int c = batch.getCapacity();
+ * for (int i = 0; i < batch.getSize(); i++) {
+ *     fo[i] = x[i] + x[c + i]; // x1 + x2 of candidate i
+ * }
+ * }</pre>
+ * A batch is not thread-safe, each thread must use its own batch.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class EvaluationBatch {
+
+    private final int numberVariable;
+    private final int capacity;
+    private int size;
+
+    private final double[] variables;
+    private final double[] objectiveFunction;
+    private final double[] sumConstraintViolation;
+
+    // Row used to evaluate the candidates one by one, see CNOP.evaluateBatch
+    private final double[][] row;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param numberVariable the number of design variables of the CNOP.
+     * @param capacity the maximum number of candidates of the batch.
+     */
+    public EvaluationBatch(int numberVariable, int capacity) {
+        this.numberVariable = numberVariable;
+        this.capacity = capacity;
+        this.size = 0;
+        this.variables = new double[numberVariable * capacity];
+        this.objectiveFunction = new double[capacity];
+        this.sumConstraintViolation = new double[capacity];
+        this.row = new double[1][numberVariable + 2];
+    }
+
+    /**
+     * Returns the number of design variables.
+     *
+     * @return the number of variables.
+     */
+    public int getNumberVariable() {
+        return numberVariable;
+    }
+
+    /**
+     * Returns the maximum number of candidates of the batch. It is also the
+     * length of each column in {@link #getVariables()}.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of candidates currently in the batch.
+     *
+     * @return the size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the number of candidates currently in the batch.
+     *
+     * @param size the size, between 0 and the capacity.
+     */
+    public void setSize(int size) {
+        if (size < 0 || size > this.capacity) {
+            throw new IllegalArgumentException("The size must be between 0 and " + this.capacity);
+        }
+        this.size = size;
+    }
+
+    /**
+     * Returns the values of the design variables stored column by column. The
+     * value of variable j for candidate i is at position
+     * {@code j * getCapacity() + i}.
+     *
+     * @return the values of the variables.
+     */
+    public double[] getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the value of a variable of a candidate.
+     *
+     * @param candidate the position of the candidate.
+     * @param variable the position of the variable.
+     * @return the value of the variable.
+     */
+    public double getVariable(int candidate, int variable) {
+        return this.variables[variable * this.capacity + candidate];
+    }
+
+    /**
+     * Sets the value of a variable of a candidate.
+     *
+     * @param candidate the position of the candidate.
+     * @param variable the position of the variable.
+     * @param value the value to set.
+     */
+    public void setVariable(int candidate, int variable, double value) {
+        this.variables[variable * this.capacity + candidate] = value;
+    }
+
+    /**
+     * Returns the objective function value of each candidate, filled by the
+     * evaluation.
+     *
+     * @return the objective function values.
+     */
+    public double[] getObjectiveFunction() {
+        return objectiveFunction;
+    }
+
+    /**
+     * Returns the sum of constraint violations of each candidate, filled by the
+     * evaluation.
+     *
+     * @return the sums of constraint violations.
+     */
+    public double[] getSumConstraintViolation() {
+        return sumConstraintViolation;
+    }
+
+    /**
+     * Copies the design variables of an individual (a row of the population)
+     * into a candidate of the batch.
+     *
+     * @param candidate the position of the candidate.
+     * @param individual the row; only its first positions are read.
+     */
+    public void setCandidate(int candidate, double[] individual) {
+        for (int j = 0; j < this.numberVariable; j++) {
+            this.variables[j * this.capacity + candidate] = individual[j];
+        }
+    }
+
+    /**
+     * Copies the objective function value and the sum of constraint violations
+     * of a candidate into the last two positions of an individual.
+     *
+     * @param candidate the position of the candidate.
+     * @param individual the row of the population.
+     */
+    public void getResult(int candidate, double[] individual) {
+        individual[individual.length - 2] = this.objectiveFunction[candidate];
+        individual[individual.length - 1] = this.sumConstraintViolation[candidate];
+    }
+
+    /**
+     * Returns a row with the design variables of a candidate followed by two
+     * positions for the objective function and the sum of constraint
+     * violations. The row is reused for every candidate.
+     *
+     * @param candidate the position of the candidate.
+     * @return a one-row matrix, as expected by
+     * {@link CNOP#evaluateObjectiveFunction(double[][])}.
+     */
+    double[][] getRow(int candidate) {
+        double[] values = this.row[0];
+        for (int j = 0; j < this.numberVariable; j++) {
+            values[j] = this.variables[j * this.capacity + candidate];
+        }
+        return this.row;
+    }
+
+}
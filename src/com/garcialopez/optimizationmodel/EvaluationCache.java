@@ -0,0 +1,296 @@
+package com.garcialopez.optimizationmodel;
+
+import java.util.Arrays;
+
+/**
+ * EvaluationCache class keeps the objective function value and the sum of
+ * constraint violations of the last evaluated candidates, so that a candidate
+ * that is generated again is not evaluated again. It is useful for problems
+ * with discrete variables, where the bacteria often return to the same
+ * positions.
+ * <br>
+ * The candidates are identified by the values of their design variables. With
+ * a quantum greater than zero, the values are rounded to multiples of the
+ * quantum, so that continuous variables that differ in less than the quantum
+ * share the result; with zero (the default) the values must be identical.
+ * <br>
+ * The cache is a hash table with open addressing over primitive arrays, so it
+ * allocates no memory after it is created. When it is full, an entry is
+ * replaced with the CLOCK algorithm: the entries found since the last pass of
+ * the clock are kept.
+ * <br>
+ * A cache is not thread-safe, each execution must use its own cache.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class EvaluationCache {
+
+    private final int numberVariable;
+    private final int capacity;
+    private final double quantum;
+
+    // Entries: the key of each candidate and its results
+    private final long[] keys;
+    private final int[] hashes;
+    private final double[] objectiveFunction;
+    private final double[] sumConstraintViolation;
+    private final boolean[] referenced;
+    private int size;
+    private int hand;
+
+    // Hash table with the entry + 1 of each position, 0 if it is empty
+    private final int[] table;
+    private final int mask;
+
+    // Key of the candidate being searched
+    private final long[] key;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache that compares the exact values of the variables.
+     *
+     * @param numberVariable the number of design variables of the CNOP.
+     * @param capacity the maximum number of candidates kept.
+     */
+    public EvaluationCache(int numberVariable, int capacity) {
+        this(numberVariable, capacity, 0);
+    }
+
+    /**
+     * Creates a cache that rounds the values of the variables to multiples of
+     * a quantum.
+     *
+     * @param numberVariable the number of design variables of the CNOP.
+     * @param capacity the maximum number of candidates kept.
+     * @param quantum the quantum, 0 to compare the exact values.
+     */
+    public EvaluationCache(int numberVariable, int capacity, double quantum) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the cache must be at least 1.");
+        }
+        if (quantum < 0) {
+            throw new IllegalArgumentException("The quantum of the cache can not be negative.");
+        }
+        this.numberVariable = numberVariable;
+        this.capacity = capacity;
+        this.quantum = quantum;
+
+        this.keys = new long[capacity * numberVariable];
+        this.hashes = new int[capacity];
+        this.objectiveFunction = new double[capacity];
+        this.sumConstraintViolation = new double[capacity];
+        this.referenced = new boolean[capacity];
+
+        // at most half of the table is used, so the searches are short
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        this.table = new int[tableSize];
+        this.mask = tableSize - 1;
+
+        this.key = new long[numberVariable];
+    }
+
+    /**
+     * Searches a candidate. If it is found, its objective function value and
+     * its sum of constraint violations are written in the last two positions
+     * of the row.
+     *
+     * @param values the row of the candidate; the first positions are the
+     * design variables.
+     * @return true if the candidate was found.
+     */
+    public boolean lookup(double[] values) {
+        int hash = this.createKey(values);
+        int entry = this.find(hash);
+        if (entry < 0) {
+            this.misses++;
+            return false;
+        }
+        this.hits++;
+        this.referenced[entry] = true;
+        values[values.length - 2] = this.objectiveFunction[entry];
+        values[values.length - 1] = this.sumConstraintViolation[entry];
+        return true;
+    }
+
+    /**
+     * Keeps the results of an evaluated candidate, replacing an entry if the
+     * cache is full.
+     *
+     * @param values the row of the candidate, with the objective function
+     * value and the sum of constraint violations in its last two positions.
+     */
+    public void store(double[] values) {
+        int hash = this.createKey(values);
+        int entry = this.find(hash);
+
+        if (entry < 0) {
+            entry = (this.size < this.capacity) ? this.size++ : this.evict();
+            System.arraycopy(this.key, 0, this.keys, entry * this.numberVariable, this.numberVariable);
+            this.hashes[entry] = hash;
+
+            int position = hash & this.mask;
+            while (this.table[position] != 0) {
+                position = (position + 1) & this.mask;
+            }
+            this.table[position] = entry + 1;
+        }
+
+        this.referenced[entry] = false;
+        this.objectiveFunction[entry] = values[values.length - 2];
+        this.sumConstraintViolation[entry] = values[values.length - 1];
+    }
+
+    /**
+     * Removes all the candidates and resets the counters.
+     */
+    public void clear() {
+        Arrays.fill(this.table, 0);
+        Arrays.fill(this.referenced, false);
+        this.size = 0;
+        this.hand = 0;
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * Returns the number of candidates kept.
+     *
+     * @return the size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of candidates kept.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of searches that found the candidate.
+     *
+     * @return the hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of searches that did not find the candidate.
+     *
+     * @return the misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the percentage of searches that found the candidate.
+     *
+     * @return the hit rate, between 0 and 100.
+     */
+    public double getHitRate() {
+        long searches = this.hits + this.misses;
+        return (searches == 0) ? 0 : (100.0 * this.hits) / searches;
+    }
+
+    /**
+     * Calculates the key of a candidate in {@link #key} and returns its hash.
+     *
+     * @param values the row of the candidate.
+     * @return the hash of the key.
+     */
+    private int createKey(double[] values) {
+        long hash = 0;
+        for (int j = 0; j < this.numberVariable; j++) {
+            double value = values[j];
+            long k = (this.quantum > 0)
+                    ? Math.round(value / this.quantum)
+                    : Double.doubleToLongBits(value == 0 ? 0.0 : value);
+            this.key[j] = k;
+            hash = (hash ^ k) * 0x9E3779B97F4A7C15L;
+        }
+        hash ^= (hash >>> 32);
+        return (int) hash;
+    }
+
+    /**
+     * Searches the entry of the key in {@link #key}.
+     *
+     * @param hash the hash of the key.
+     * @return the entry, or -1 if it is not in the cache.
+     */
+    private int find(int hash) {
+        int position = hash & this.mask;
+        while (this.table[position] != 0) {
+            int entry = this.table[position] - 1;
+            if (this.hashes[entry] == hash && this.isKey(entry)) {
+                return entry;
+            }
+            position = (position + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    private boolean isKey(int entry) {
+        int offset = entry * this.numberVariable;
+        for (int j = 0; j < this.numberVariable; j++) {
+            if (this.keys[offset + j] != this.key[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Chooses the entry to replace with the CLOCK algorithm and removes it
+     * from the hash table.
+     *
+     * @return the free entry.
+     */
+    private int evict() {
+        while (this.referenced[this.hand]) {
+            this.referenced[this.hand] = false;
+            this.hand = (this.hand + 1) % this.capacity;
+        }
+        int entry = this.hand;
+        this.hand = (this.hand + 1) % this.capacity;
+
+        // position of the entry in the table
+        int position = this.hashes[entry] & this.mask;
+        while (this.table[position] != entry + 1) {
+            position = (position + 1) & this.mask;
+        }
+
+        // the following entries are moved back, so that no search is cut
+        int free = position;
+        int next = position;
+        while (true) {
+            next = (next + 1) & this.mask;
+            if (this.table[next] == 0) {
+                break;
+            }
+            int home = this.hashes[this.table[next] - 1] & this.mask;
+            boolean stays = (free <= next)
+                    ? (free < home && home <= next)
+                    : (free < home || home <= next);
+            if (!stays) {
+                this.table[free] = this.table[next];
+                free = next;
+            }
+        }
+        this.table[free] = 0;
+        return entry;
+    }
+
+}
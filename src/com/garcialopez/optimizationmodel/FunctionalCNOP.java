@@ -0,0 +1,310 @@
+package com.garcialopez.optimizationmodel;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FunctionalCNOP class represents a CNOP whose objective function and
+ * constraints are written in Java, as {@link IncrementalFunction} objects
+ * (usually lambdas over the vector of variables), instead of as text
+ * expressions. Nothing is parsed, so it is the way to define problems with
+ * thousands of variables, e.g.:
+ * <pre>
+ * FunctionalCNOP cnop = new FunctionalCNOP(1000);
+ * cnop.setObjectiveFunction(IncrementalFunction.separable((j, v) -&gt; v * v, 1000));
+ * cnop.addInequalityConstraint(x -&gt; 1 - x[0] - x[1]);
+ * cnop.setVariableRange(-5, 5);
+ * </pre>
+ * The inequality constraints are satisfied when g(x) &lt;= 0 and the equality
+ * constraints when |h(x)| - tolerance &lt;= 0, see
+ * {@link #setEqualityTolerance(double)}. The variables are named x1 to xn.
+ * <br>
+ * When only a few variables change, {@link #evaluateChange} updates the
+ * objective function with
+ * {@link IncrementalFunction#update(double, double[], int, int, double[])}.
+ * The constraints can declare the variables on which they depend, e.g.
+ * {@code cnop.addInequalityConstraint(x -> 1 - x[0] - x[1], 0, 1)}, so that
+ * only the constraints of the variables that changed are evaluated again.
+ * <br>
+ * The functions are shared by the copies of the CNOP, so they must not keep
+ * state between evaluations when the executions run in several threads.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public class FunctionalCNOP extends CNOP {
+
+    private IncrementalFunction objectiveFunction;
+    private final List<IncrementalFunction> inequalityConstraints = new ArrayList<>();
+    private final List<IncrementalFunction> equalityConstraints = new ArrayList<>();
+    private final List<int[]> inequalityDependencies = new ArrayList<>();
+    private final List<int[]> equalityDependencies = new ArrayList<>();
+    private double[][] variableRange;
+
+    /**
+     * Creates a CNOP of minimization with the given number of variables.
+     *
+     * @param numberVariable the number of design variables.
+     */
+    public FunctionalCNOP(int numberVariable) {
+        if (numberVariable < 1) {
+            throw new IllegalArgumentException("The CNOP must have at least one variable.");
+        }
+        this.setNumberVariable(numberVariable);
+    }
+
+    /**
+     * Returns the objective function.
+     *
+     * @return the objective function
+     */
+    public IncrementalFunction getObjectiveFunction() {
+        return objectiveFunction;
+    }
+
+    /**
+     * Sets the objective function.
+     *
+     * @param objectiveFunction the objective function to set
+     */
+    public void setObjectiveFunction(IncrementalFunction objectiveFunction) {
+        this.objectiveFunction = objectiveFunction;
+    }
+
+    /**
+     * Adds an inequality constraint g(x) &lt;= 0.
+     *
+     * @param constraint the function g.
+     */
+    public void addInequalityConstraint(IncrementalFunction constraint) {
+        this.inequalityConstraints.add(constraint);
+        this.inequalityDependencies.add(null);
+    }
+
+    /**
+     * Adds an inequality constraint g(x) &lt;= 0 that only depends on some
+     * variables.
+     *
+     * @param constraint the function g.
+     * @param variables the positions of the variables on which g depends,
+     * from 0.
+     */
+    public void addInequalityConstraint(IncrementalFunction constraint, int... variables) {
+        this.inequalityConstraints.add(constraint);
+        this.inequalityDependencies.add(this.checkDependencies(variables));
+    }
+
+    /**
+     * Adds an equality constraint h(x) = 0.
+     *
+     * @param constraint the function h.
+     */
+    public void addEqualityConstraint(IncrementalFunction constraint) {
+        this.equalityConstraints.add(constraint);
+        this.equalityDependencies.add(null);
+    }
+
+    /**
+     * Adds an equality constraint h(x) = 0 that only depends on some
+     * variables.
+     *
+     * @param constraint the function h.
+     * @param variables the positions of the variables on which h depends,
+     * from 0.
+     */
+    public void addEqualityConstraint(IncrementalFunction constraint, int... variables) {
+        this.equalityConstraints.add(constraint);
+        this.equalityDependencies.add(this.checkDependencies(variables));
+    }
+
+    /**
+     * Validates the positions of the variables of a constraint.
+     *
+     * @param variables the positions.
+     * @return a copy of the positions.
+     */
+    private int[] checkDependencies(int[] variables) {
+        for (int j : variables) {
+            if (j < 0 || j >= this.getNumberVariable()) {
+                throw new IllegalArgumentException("Variable " + j + " out of range.");
+            }
+        }
+        return variables.clone();
+    }
+
+    /**
+     * Sets the same continuous range for all the variables.
+     *
+     * @param lower the lower bound of the variables.
+     * @param upper the upper bound of the variables.
+     */
+    public void setVariableRange(double lower, double upper) {
+        double[][] ranges = new double[this.getNumberVariable()][];
+        boolean[] continuous = new boolean[ranges.length];
+        double[] range = {lower, upper};
+        for (int j = 0; j < ranges.length; j++) {
+            // the ranges are only read, so all the variables share one
+            ranges[j] = range;
+            continuous[j] = true;
+        }
+        this.setVariableRange(ranges, continuous);
+    }
+
+    /**
+     * Sets the range of each variable: the bounds of a continuous variable or
+     * the values of a discrete one.
+     *
+     * @param variableRange the range of each variable.
+     * @param continuous whether each variable is continuous.
+     */
+    public void setVariableRange(double[][] variableRange, boolean[] continuous) {
+        if (variableRange.length != this.getNumberVariable() || continuous.length != this.getNumberVariable()) {
+            throw new IllegalArgumentException("There must be one range for each variable.");
+        }
+        this.variableRange = variableRange;
+        this.setIsContinuousVariable(continuous);
+    }
+
+    @Override
+    public double[][] getVariableRange() {
+        return (this.variableRange != null) ? this.variableRange : super.getVariableRange();
+    }
+
+    /**
+     * Returns the names of the variables, x1 to xn. The names are created when
+     * they are read, so that no memory is used for them.
+     *
+     * @return the names of the variables.
+     */
+    @Override
+    public List<String> getOrderVariables() {
+        int numberVariable = this.getNumberVariable();
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= numberVariable) {
+                    throw new IndexOutOfBoundsException("Variable " + index);
+                }
+                return "x" + (index + 1);
+            }
+
+            @Override
+            public int size() {
+                return numberVariable;
+            }
+        };
+    }
+
+    @Override
+    public int getNumberConstraints() {
+        return this.inequalityConstraints.size() + this.equalityConstraints.size();
+    }
+
+    @Override
+    public boolean isIncrementalEvaluation() {
+        return true;
+    }
+
+    @Override
+    public double evaluateObjective(double[] values) {
+        return this.objectiveFunction.evaluate(values);
+    }
+
+    @Override
+    public double evaluateConstraint(int index, double[] values) {
+        int sizeInequality = this.inequalityConstraints.size();
+        if (index < sizeInequality) {
+            return this.inequalityConstraints.get(index).evaluate(values);
+        }
+        return this.equalityConstraints.get(index - sizeInequality).evaluate(values);
+    }
+
+    @Override
+    public double getConstraintViolation(int index, double value) {
+        if (index < this.inequalityConstraints.size()) {
+            return Math.max(0, value);
+        }
+        return Math.max(0, Math.abs(value) - this.getEqualityTolerance());
+    }
+
+    /**
+     * Returns null, the objective function is updated with
+     * {@link IncrementalFunction#update(double, double[], int, int, double[])}
+     * instead.
+     *
+     * @return null.
+     */
+    @Override
+    public int[] getObjectiveDependencies() {
+        return null;
+    }
+
+    @Override
+    public int[][] getConstraintDependencies() {
+        int[][] dependencies = new int[this.getNumberConstraints()][];
+        int sizeInequality = this.inequalityDependencies.size();
+        for (int i = 0; i < dependencies.length; i++) {
+            dependencies[i] = (i < sizeInequality) ? this.inequalityDependencies.get(i)
+                    : this.equalityDependencies.get(i - sizeInequality);
+        }
+        return dependencies;
+    }
+
+    @Override
+    protected double updateObjective(double value, double[] values, int from, int to, double[] previous) {
+        return this.objectiveFunction.update(value, values, from, to, previous);
+    }
+
+    @Override
+    protected double sumViolations(double[] violations) {
+        double svr = 0;
+        for (double violation : violations) {
+            svr += violation;
+        }
+        return svr;
+    }
+
+    @Override
+    public double[][] evaluateObjectiveFunction(double[][] values) {
+        int sizeValues = values[0].length;
+        int indexFO = sizeValues - 2;
+        int indexSVR = sizeValues - 1;
+
+        for (double[] value : values) {
+            value[indexFO] = this.objectiveFunction.evaluate(value);
+            value[indexSVR] = this.getSumConstraintViolation(value);
+        }
+        return values;
+    }
+
+    @Override
+    public double[][] evaluateChange(double[][] values, int from, int to, double[] previous) {
+        double[] value = values[0];
+        int indexFO = value.length - 2;
+        int indexSVR = value.length - 1;
+
+        value[indexFO] = this.objectiveFunction.update(value[indexFO], value, from, to, previous);
+        value[indexSVR] = this.getSumConstraintViolation(value);
+        return values;
+    }
+
+    /**
+     * Calculates the sum of constraint violations of a candidate.
+     *
+     * @param values the values of the variables.
+     * @return the sum of constraint violations, 0 if there are no
+     * constraints.
+     */
+    private double getSumConstraintViolation(double[] values) {
+        double svr = 0;
+        for (int i = 0; i < this.getNumberConstraints(); i++) {
+            svr += this.getConstraintViolation(i, this.evaluateConstraint(i, values));
+        }
+        return svr;
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.garcialopez.optimizationmodel;
+
+/**
+ * IncrementalFunction interface represents the objective function or a
+ * constraint of a {@link FunctionalCNOP}, written in Java over the vector of
+ * design variables instead of as a text expression.
+ * <br>
+ * A function can also be updated after a change of a few variables, which is
+ * what happens in the coordinate-block chemotaxis of the TS-MBFOA, so that a
+ * problem with thousands of variables is not evaluated completely in each
+ * swim. By default the update evaluates the whole function again; a function
+ * overrides {@link #update(double, double[], int, int, double[])} when it can
+ * calculate the change from the variables that changed, as the functions
+ * created with {@link #separable(Term, int)}.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface IncrementalFunction {
+
+    /**
+     * Evaluates the function.
+     *
+     * @param x the values of the variables; the array may be longer than the
+     * number of variables (e.g. a row of the population), the extra positions
+     * must be ignored.
+     * @return the value of the function.
+     */
+    double evaluate(double[] x);
+
+    /**
+     * Calculates the value of the function after a change of the variables
+     * from {@code from} to {@code to - 1}.
+     *
+     * @param value the value of the function before the change.
+     * @param x the values of the variables after the change.
+     * @param from the first variable that changed.
+     * @param to the variable after the last one that changed.
+     * @param previous the values of the variables that changed before the
+     * change: {@code previous[j - from]} was the value of {@code x[j]}.
+     * @return the value of the function after the change.
+     */
+    default double update(double value, double[] x, int from, int to, double[] previous) {
+        return this.evaluate(x);
+    }
+
+    /**
+     * Term of a separable function, the contribution of one variable.
+     */
+    @FunctionalInterface
+    interface Term {
+
+        /**
+         * Returns the contribution of a variable to the function.
+         *
+         * @param variable the position of the variable.
+         * @param value the value of the variable.
+         * @return the contribution.
+         */
+        double apply(int variable, double value);
+    }
+
+    /**
+     * Creates a separable function, the sum of one term per variable, e.g.
+     * {@code separable((j, v) -> v * v)} for the sphere function. An update
+     * only calculates the terms of the variables that changed.
+     * <br>
+     * Each update adds the difference of the terms to the previous value, so
+     * rounding errors can accumulate over many updates; they stay in the order
+     * of the rounding error of the terms.
+     *
+     * @param term the term of each variable.
+     * @param numberVariable the number of variables.
+     * @return the function.
+     */
+    static IncrementalFunction separable(Term term, int numberVariable) {
+        return new IncrementalFunction() {
+            @Override
+            public double evaluate(double[] x) {
+                double sum = 0;
+                for (int j = 0; j < numberVariable; j++) {
+                    sum += term.apply(j, x[j]);
+                }
+                return sum;
+            }
+
+            @Override
+            public double update(double value, double[] x, int from, int to, double[] previous) {
+                for (int j = from; j < to; j++) {
+                    value += term.apply(j, x[j]) - term.apply(j, previous[j - from]);
+                }
+                return value;
+            }
+        };
+    }
+
+}
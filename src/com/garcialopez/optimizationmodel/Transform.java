@@ -24,8 +24,23 @@ import org.mariuszgromada.math.mxparser.Expression;
  */
 public class Transform {
 
+    /**
+     * Continuity of the variables of the last ranges created with
+     * {@link #createRanges(String)}.
+     *
+     * @deprecated this field is shared by all the threads, so its value is
+     * wrong when two CNOPs are created at the same time. Use
+     * {@link CNOP#isContinuousVariable()} instead.
+     */
+    @Deprecated
     public static boolean[] CONTINUOUS;
 
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Pattern LOOP = Pattern.compile("\\b(\\w+)\\{(\\w+),(\\d+),(\\d+),([^{}]+)}");
+    private static final Pattern VARIABLES = Pattern.compile("[{},-]");
+    private static final Pattern RANGES = Pattern.compile("ran\\[(\\d+)-(\\d+):(.*?)]");
+    private static final Pattern BRACES = Pattern.compile("\\{(.*?)\\}");
+
     /**
      * Extends a summarized mathematical expression by replacing function calls
      * with their expanded forms.
@@ -33,18 +48,24 @@ public class Transform {
      * @param function A summarized mathematical expression.
      * @return An extended mathematical expression.
      *
-     * Example: Input: "5 * sum{x,1,4,xi} - prod{x,1,4,(xi+i)}" Output: "5 *
-     * (x1+x2+x3+x4) - ((x1+1)*(x2+2)*(x3+3)*(x4+4))"
+     * Example: Input: "5 * sum{x,1,4,xi} - prod{x,1,4,xi+i}" Output: "5 *
+     * ((x1)+(x2)+(x3)+(x4)) - ((x1+1)*(x2+2)*(x3+3)*(x4+4))"
+     * <br>
+     * Each term is enclosed in parentheses, so the body is a single operand of
+     * the summation or product, as in the loops of the parser package.
+     * <br>
+     * The result grows with the number of terms, so it is only needed to
+     * evaluate the function with mXparser: the compiler of the parser package
+     * keeps the summations and products as loops.
      */
     public static String extendFunction(String function) {
-        function = function.replaceAll("\\s", "");
+        function = SPACES.matcher(function).replaceAll("");
         if (function.contains("sum")
                 || function.contains("prod")) {
-            Pattern functionPattern = Pattern.compile("\\b(\\w+)\\{(\\w+),(\\d+),(\\d+),([^{}]+)}");
-            Matcher functionMatcher = functionPattern.matcher(function);
-
-            int i = 0;
-            List<String> functionExpressions = new ArrayList<>();
+            // each template is replaced in a single pass over the function
+            Matcher functionMatcher = LOOP.matcher(function);
+            StringBuilder extended = new StringBuilder(function.length());
+            int last = 0;
 
             while (functionMatcher.find()) {
                 String functionName = functionMatcher.group(1);
@@ -52,19 +73,20 @@ public class Transform {
                 int start = Integer.parseInt(functionMatcher.group(3));
                 int end = Integer.parseInt(functionMatcher.group(4));
                 String body = functionMatcher.group(5);
+                String operator = functionName.equals("sum") ? "+" : "*";
 
-                String functionExpression = IntStream.rangeClosed(start, end)
-                        .mapToObj(j -> body.replaceAll(variableName + "i", variableName + j).replaceAll("i", String.valueOf(j)))
-                        .collect(Collectors.joining(functionName.equals("sum") ? "+" : "*"));
-
-                functionExpressions.add(functionExpression);
-                function = functionMatcher.replaceFirst("|" + i++ + "|");
-                functionMatcher.reset(function);
-            }
-
-            for (int j = 0; j < functionExpressions.size(); j++) {
-                function = function.replace("|" + j + "|", "(" + functionExpressions.get(j) + ")");
+                extended.append(function, last, functionMatcher.start()).append('(');
+                for (int j = start; j <= end; j++) {
+                    if (j > start) {
+                        extended.append(operator);
+                    }
+                    extended.append('(').append(body.replace(variableName + "i", variableName + j)
+                            .replace("i", String.valueOf(j))).append(')');
+                }
+                extended.append(')');
+                last = functionMatcher.end();
             }
+            function = extended.append(function, last, function.length()).toString();
 
         }
         return function;
@@ -81,13 +103,13 @@ public class Transform {
      * "y1", "y2", "z"]
      */
     public static List<String> extendVariables(String input) {
-        input = input.replaceAll("\\s+", "");
+        input = SPACES.matcher(input).replaceAll("");
         return (input.contains("var"))
                 ? Arrays.stream(input.split(";"))
                         .map(String::trim)
                         .flatMap(token -> {
                             if (token.startsWith("var")) {
-                                String[] iterTokens = token.split("[{},-]");
+                                String[] iterTokens = VARIABLES.split(token);
                                 String variable = iterTokens[1];
                                 int start = Integer.parseInt(iterTokens[2]);
                                 int end = Integer.parseInt(iterTokens[3]);
@@ -122,15 +144,36 @@ public class Transform {
      * [2.0, 4.0, 6.0, 8.0], [0.0, 5.0]]
      */
     public static double[][] createRanges(String ranges) {
+        List<Boolean> continuo = new ArrayList<>();
+        double[][] arreglo = createRanges(ranges, continuo);
+
+        boolean[] continuous = new boolean[continuo.size()];
+        for (int i = 0; i < continuo.size(); i++) {
+            continuous[i] = continuo.get(i);
+        }
+        CONTINUOUS = continuous;
+        return arreglo;
+    }
+
+    /**
+     * Converts a string of sets into a matrix of numeric values, as
+     * {@link #createRanges(String)}, adding to a list whether each set is
+     * continuous or discrete. Nothing is shared between calls, so it can be
+     * used from several threads.
+     *
+     * @param ranges The string containing the sets of values to process.
+     * @param continuo The list where the continuity of each set is added.
+     * @return A matrix of numeric values representing the processed sets.
+     */
+    static double[][] createRanges(String ranges, List<Boolean> continuo) {
         // Eliminar espacios en blanco de la cadena de entrada
-        ranges = ranges.replaceAll("\\s", "");
+        ranges = SPACES.matcher(ranges).replaceAll("");
         if (ranges.contains("ran")) {
             ranges = extendRanges(ranges);
         }
 
         String[] sets = ranges.split(";");
-        List<Boolean> continuo = new ArrayList<>();
-        double[][] arreglo = Arrays.stream(sets)
+        return Arrays.stream(sets)
                 .map(conjunto -> {
 
                     if (conjunto.startsWith("(")) {
@@ -166,12 +209,6 @@ public class Transform {
                 })
                 .toArray(double[][]::new);
 
-        CONTINUOUS = new boolean[continuo.size()];
-        for (int i = 0; i < continuo.size(); i++) {
-            CONTINUOUS[i] = continuo.get(i);
-        }
-        return arreglo;
-
     }
 
     /**
@@ -188,11 +225,8 @@ public class Transform {
      */
     public static String extendRanges(String ranges) {
 
-        // Definir expresión regular para analizar la cadena de entrada
-        String patron = "ran\\[(\\d+)-(\\d+):(.*?)]";
         // Generar una cadena con los valores de cada variable
-        Pattern pattern = Pattern.compile(patron);
-        Matcher matcher = pattern.matcher(ranges);
+        Matcher matcher = RANGES.matcher(ranges);
 
         StringBuilder result = new StringBuilder();
         AtomicReference<Integer> endFin = new AtomicReference(0);
@@ -203,8 +237,8 @@ public class Transform {
                     String rango = matchResult.group(3);
                     result.append(ranges, endFin.get(), matchResult.start())
                             .append(IntStream.rangeClosed(start, end)
-                                    .mapToObj(i -> rango.replaceAll("\\$\\{" + i + "}", Integer.toString(i))
-                                    .replaceAll("\\{(.*?)\\}", "$1"))
+                                    .mapToObj(i -> BRACES.matcher(rango.replace("${" + i + "}", Integer.toString(i)))
+                                    .replaceAll("$1"))
                                     .collect(Collectors.joining(";")));
                     endFin.set(matchResult.end());
                 });
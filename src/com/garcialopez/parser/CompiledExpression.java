@@ -0,0 +1,28 @@
+package com.garcialopez.parser;
+
+/**
+ * A mathematical expression (objective function or constraint) that has been
+ * compiled to JVM bytecode by the {@link ExpressionCompiler}.
+ * <br>
+ * Implementations are generated at run time, hold no mutable state and can be
+ * shared between threads.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public interface CompiledExpression {
+
+    /**
+     * Evaluates the expression.
+     *
+     * @param x the values of the variables, in the order given when the
+     * expression was compiled. The array may be longer than the number of
+     * variables (e.g. a full population row), extra positions are ignored.
+     * @return the result of evaluating the expression.
+     */
+    public abstract double evaluate(double[] x);
+
+}
@@ -0,0 +1,548 @@
+package com.garcialopez.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ExpressionCompiler class translates an objective function or constraint
+ * into a class that evaluates it directly as JVM bytecode.
+ * <br>
+ * The expression is parsed only once and the generated class implements
+ * {@link CompiledExpression}. Summations and products are compiled as loops,
+ * so the size of the generated code depends on the template and not on the
+ * number of variables. The JIT
+ * compiler then treats the expression like hand-written Java code, avoiding the
+ * per-evaluation cost of setting arguments and interpreting the expression with
+ * mXparser.
+ * <br>
+ * The generated classes are hidden classes, so they are unloaded when the
+ * compiled expression is no longer referenced.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+public final class ExpressionCompiler {
+
+    private static final String CLASS_NAME = "com/garcialopez/parser/GeneratedExpression";
+    private static final String INTERFACE_NAME = "com/garcialopez/parser/CompiledExpression";
+
+    /* JVM instructions used by the generated code */
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ICONST_0 = 0x03;
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int ILOAD = 0x15;
+    private static final int DLOAD = 0x18;
+    private static final int DALOAD = 0x31;
+    private static final int ISTORE = 0x36;
+    private static final int DSTORE = 0x39;
+    private static final int IADD = 0x60;
+    private static final int DADD = 0x63;
+    private static final int DMUL = 0x6b;
+    private static final int IINC = 0x84;
+    private static final int I2D = 0x87;
+    private static final int IF_ICMPGT = 0xa3;
+    private static final int GOTO = 0xa7;
+    private static final int DRETURN = 0xaf;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * Compiles an expression.
+     *
+     * @param expression the expression as a string. The summations and
+     * products can be written as templates, {@code sum{x,from,to,body}} and
+     * {@code prod{x,from,to,body}}.
+     * @param variables the order of the design variables. The variable at
+     * position i is read from {@code x[i]} by the compiled expression.
+     * @return the compiled expression.
+     * @throws IllegalArgumentException if the expression uses a construction
+     * that is not supported by the compiler.
+     */
+    public static CompiledExpression compile(String expression, List<String> variables) {
+        try {
+            ExpressionNode root = new ExpressionParser(expression, variables).parse();
+            byte[] bytes = generateClass(root);
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (CompiledExpression) lookup.lookupClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | IOException | LinkageError e) {
+            throw new IllegalArgumentException("Expression cannot be compiled: " + expression, e);
+        } catch (StackOverflowError e) {
+            throw new IllegalArgumentException("Expression too deeply nested: " + expression);
+        }
+    }
+
+    /**
+     * Generates the class file of the compiled expression.
+     *
+     * @param root the root of the syntax tree.
+     * @return the bytes of the class file.
+     */
+    private static byte[] generateClass(ExpressionNode root) throws IOException {
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classInfo(CLASS_NAME);
+        int superClass = pool.classInfo("java/lang/Object");
+        int interfaceClass = pool.classInfo(INTERFACE_NAME);
+        int code = pool.utf8("Code");
+        StackMap stackMap = new StackMap(thisClass, pool.classInfo("[D"));
+
+        // constructor: calls Object.<init>()
+        ByteArrayOutputStream init = new ByteArrayOutputStream();
+        init.write(ALOAD_0);
+        init.write(INVOKESPECIAL);
+        writeShort(init, pool.methodRef("java/lang/Object", "<init>", "()V"));
+        init.write(RETURN);
+
+        // evaluate(double[]): straight-line code, except for the loops
+        Code evaluate = new Code();
+        emit(root, evaluate, pool, stackMap, 0);
+        evaluate.write(DRETURN);
+
+        if (evaluate.size() > 65535) {
+            throw new IOException("method too large");
+        }
+        int stackMapName = (stackMap.count > 0) ? pool.utf8("StackMapTable") : 0;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(52);
+
+        int initName = pool.utf8("<init>");
+        int initDescriptor = pool.utf8("()V");
+        int evaluateName = pool.utf8("evaluate");
+        int evaluateDescriptor = pool.utf8("([D)D");
+        pool.write(out);
+
+        out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(interfaceClass);
+        out.writeShort(0); // fields
+        out.writeShort(2); // methods
+        writeMethod(out, initName, initDescriptor, code, 1, 1, init.toByteArray(), 0, null);
+        writeMethod(out, evaluateName, evaluateDescriptor, code, root.maxStack(), stackMap.maxLocals,
+                evaluate.toByteArray(), stackMapName, stackMap);
+        out.writeShort(0); // attributes
+        out.flush();
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Emits the instructions that leave the value of a node on the stack.
+     *
+     * @param stack the number of values already on the stack.
+     */
+    private static void emit(ExpressionNode node, Code out, ConstantPool pool, StackMap stackMap, int stack)
+            throws IOException {
+        if (node instanceof ExpressionNode.Constant) {
+            out.write(LDC2_W);
+            writeShort(out, pool.doubleInfo(((ExpressionNode.Constant) node).value));
+
+        } else if (node instanceof ExpressionNode.Variable) {
+            out.write(ALOAD_1);
+            pushInt(out, pool, ((ExpressionNode.Variable) node).index);
+            out.write(DALOAD);
+
+        } else if (node instanceof ExpressionNode.LoopVariable) {
+            ExpressionNode.LoopVariable variable = (ExpressionNode.LoopVariable) node;
+            out.write(ALOAD_1);
+            out.write(ILOAD);
+            out.write(indexSlot(variable.depth));
+            if (variable.offset != 0) {
+                pushInt(out, pool, variable.offset);
+                out.write(IADD);
+            }
+            out.write(DALOAD);
+
+        } else if (node instanceof ExpressionNode.LoopIndex) {
+            out.write(ILOAD);
+            out.write(indexSlot(((ExpressionNode.LoopIndex) node).depth));
+            out.write(I2D);
+
+        } else if (node instanceof ExpressionNode.Loop) {
+            emitLoop((ExpressionNode.Loop) node, out, pool, stackMap, stack);
+
+        } else {
+            ExpressionNode.Operation operation = (ExpressionNode.Operation) node;
+            for (int i = 0; i < operation.operands.length; i++) {
+                emit(operation.operands[i], out, pool, stackMap, stack + i);
+            }
+            Operator operator = operation.operator;
+            if (operator.getOpcode() != 0) {
+                out.write(operator.getOpcode());
+            } else {
+                out.write(INVOKESTATIC);
+                writeShort(out, pool.methodRef(operator.getOwner(), operator.getMethod(), operator.getDescriptor()));
+            }
+        }
+    }
+
+    /**
+     * Emits a summation or a product. The index and the accumulated value are
+     * kept in local variables chosen by the nesting level of the loop:
+     * <pre>
+     *     acc = 0 (1 for a product); i = from;
+     *     head: if (i &gt; to) goto end;
+     *     acc = body + acc (body * acc for a product); i++; goto head;
+     *     end: push acc
+     * </pre>
+     */
+    private static void emitLoop(ExpressionNode.Loop loop, Code out, ConstantPool pool, StackMap stackMap, int stack)
+            throws IOException {
+        int index = indexSlot(loop.depth);
+        int accumulator = index + 1;
+        stackMap.maxLocals = Math.max(stackMap.maxLocals, accumulator + 2);
+
+        out.write(loop.product ? DCONST_1 : DCONST_0);
+        out.write(DSTORE);
+        out.write(accumulator);
+        pushInt(out, pool, loop.from);
+        out.write(ISTORE);
+        out.write(index);
+
+        int head = out.size();
+        stackMap.frame(head, loop.depth + 1, stack);
+        out.write(ILOAD);
+        out.write(index);
+        pushInt(out, pool, loop.to);
+        int branch = out.size();
+        out.write(IF_ICMPGT);
+        writeShort(out, 0);
+
+        emit(loop.body, out, pool, stackMap, stack);
+        out.write(DLOAD);
+        out.write(accumulator);
+        out.write(loop.product ? DMUL : DADD);
+        out.write(DSTORE);
+        out.write(accumulator);
+        out.write(IINC);
+        out.write(index);
+        out.write(1);
+        out.write(GOTO);
+        writeShort(out, jump(out.size() - 1, head));
+
+        int end = out.size();
+        out.patchShort(branch + 1, jump(branch, end));
+        stackMap.frame(end, loop.depth + 1, stack);
+        out.write(DLOAD);
+        out.write(accumulator);
+    }
+
+    /**
+     * Returns the local variable of the index of a loop; the next two hold its
+     * accumulated value. The locals 0 and 1 are this and the array of values.
+     */
+    private static int indexSlot(int depth) throws IOException {
+        int slot = 2 + 3 * depth;
+        if (slot + 2 > 255) {
+            throw new IOException("loops too deeply nested");
+        }
+        return slot;
+    }
+
+    private static int jump(int from, int to) throws IOException {
+        int offset = to - from;
+        if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+            throw new IOException("method too large");
+        }
+        return offset;
+    }
+
+    private static void pushInt(ByteArrayOutputStream out, ConstantPool pool, int value) {
+        if (value >= -1 && value <= 5) {
+            out.write(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            out.write(BIPUSH);
+            out.write(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            out.write(SIPUSH);
+            writeShort(out, value);
+        } else {
+            out.write(LDC_W);
+            writeShort(out, pool.intInfo(value));
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int code,
+            int maxStack, int maxLocals, byte[] instructions, int stackMapName, StackMap stackMap)
+            throws IOException {
+        byte[] frames = (stackMap == null || stackMap.count == 0) ? null : stackMap.toByteArray();
+        out.writeShort(0x0001); // public
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(code);
+        out.writeInt(12 + instructions.length + ((frames == null) ? 0 : 8 + frames.length));
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(instructions.length);
+        out.write(instructions);
+        out.writeShort(0); // exception table
+        if (frames == null) {
+            out.writeShort(0); // attributes
+        } else {
+            out.writeShort(1);
+            out.writeShort(stackMapName);
+            out.writeInt(2 + frames.length);
+            out.writeShort(stackMap.count);
+            out.write(frames);
+        }
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write((value >>> 8) & 0xFF);
+        out.write(value & 0xFF);
+    }
+
+    /**
+     * Instructions of a method, where the target of a branch can be written
+     * once it is known.
+     */
+    private static final class Code extends ByteArrayOutputStream {
+
+        void patchShort(int position, int value) {
+            this.buf[position] = (byte) (value >>> 8);
+            this.buf[position + 1] = (byte) value;
+        }
+    }
+
+    /**
+     * Frames of the StackMapTable attribute, required by the verifier at the
+     * targets of the branches of the loops. Each frame is a full frame: this,
+     * the array of values and the index and accumulated value of each loop as
+     * locals, and only doubles on the stack.
+     */
+    private static final class StackMap {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final int thisClass;
+        private final int arrayClass;
+        private int count;
+        private int lastOffset = -1;
+        private int maxLocals = 2;
+
+        StackMap(int thisClass, int arrayClass) {
+            this.thisClass = thisClass;
+            this.arrayClass = arrayClass;
+        }
+
+        void frame(int offset, int loops, int stack) {
+            this.bytes.write(255); // full_frame
+            writeShort(this.bytes, offset - this.lastOffset - 1);
+            this.lastOffset = offset;
+
+            writeShort(this.bytes, 2 + 2 * loops);
+            this.bytes.write(7); // Object
+            writeShort(this.bytes, this.thisClass);
+            this.bytes.write(7);
+            writeShort(this.bytes, this.arrayClass);
+            for (int i = 0; i < loops; i++) {
+                this.bytes.write(1); // Integer
+                this.bytes.write(3); // Double
+            }
+
+            writeShort(this.bytes, stack);
+            for (int i = 0; i < stack; i++) {
+                this.bytes.write(3);
+            }
+            this.count++;
+        }
+
+        byte[] toByteArray() {
+            return this.bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Constant pool of the generated class.
+     */
+    private static final class ConstantPool {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<Object, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            Integer index = this.entries.get(value);
+            if (index == null) {
+                index = this.add(1);
+                this.writeUtf8(value);
+                this.entries.put(value, index);
+            }
+            return index;
+        }
+
+        int classInfo(String name) {
+            String key = "class:" + name;
+            Integer index = this.entries.get(key);
+            if (index == null) {
+                int nameIndex = this.utf8(name);
+                index = this.add(1);
+                this.write(7, nameIndex);
+                this.entries.put(key, index);
+            }
+            return index;
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            String key = "method:" + owner + "." + name + descriptor;
+            Integer index = this.entries.get(key);
+            if (index == null) {
+                int classIndex = this.classInfo(owner);
+                int nameIndex = this.utf8(name);
+                int descriptorIndex = this.utf8(descriptor);
+                int nameAndType = this.add(1);
+                this.write(12, nameIndex, descriptorIndex);
+                index = this.add(1);
+                this.write(10, classIndex, nameAndType);
+                this.entries.put(key, index);
+            }
+            return index;
+        }
+
+        int intInfo(int value) {
+            String key = "int:" + value;
+            Integer index = this.entries.get(key);
+            if (index == null) {
+                index = this.add(1);
+                try {
+                    this.out.writeByte(3);
+                    this.out.writeInt(value);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                this.entries.put(key, index);
+            }
+            return index;
+        }
+
+        int doubleInfo(double value) {
+            Long key = Double.doubleToRawLongBits(value);
+            Integer index = this.entries.get(key);
+            if (index == null) {
+                index = this.add(2); // doubles take two entries
+                try {
+                    this.out.writeByte(6);
+                    this.out.writeDouble(value);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                this.entries.put(key, index);
+            }
+            return index;
+        }
+
+        void write(DataOutputStream target) throws IOException {
+            if (this.count > 65535) {
+                throw new IOException("constant pool too large");
+            }
+            this.out.flush();
+            target.writeShort(this.count);
+            this.bytes.writeTo(target);
+        }
+
+        private int add(int slots) {
+            int index = this.count;
+            this.count += slots;
+            return index;
+        }
+
+        private void writeUtf8(String value) {
+            try {
+                this.out.writeByte(1);
+                this.out.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void write(int tag, int... values) {
+            try {
+                this.out.writeByte(tag);
+                for (int value : values) {
+                    this.out.writeShort(value);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /*
+     * Functions called from the generated code. The logical and relational
+     * operators follow mXparser: true is 1, false is 0 and NaN propagates.
+     */
+    static double log2(double a) {
+        return Math.log(a) / Math.log(2.0);
+    }
+
+    static double log(double base, double a) {
+        return Math.log(a) / Math.log(base);
+    }
+
+    static double ifElse(double condition, double a, double b) {
+        if (Double.isNaN(condition)) {
+            return Double.NaN;
+        }
+        return (condition != 0) ? a : b;
+    }
+
+    static double less(double a, double b) {
+        return (Double.isNaN(a) || Double.isNaN(b)) ? Double.NaN : (a < b) ? 1 : 0;
+    }
+
+    static double lessEqual(double a, double b) {
+        return (Double.isNaN(a) || Double.isNaN(b)) ? Double.NaN : (a <= b) ? 1 : 0;
+    }
+
+    static double greater(double a, double b) {
+        return (Double.isNaN(a) || Double.isNaN(b)) ? Double.NaN : (a > b) ? 1 : 0;
+    }
+
+    static double greaterEqual(double a, double b) {
+        return (Double.isNaN(a) || Double.isNaN(b)) ? Double.NaN : (a >= b) ? 1 : 0;
+    }
+
+    static double equal(double a, double b) {
+        return (Double.isNaN(a) || Double.isNaN(b)) ? Double.NaN : (a == b) ? 1 : 0;
+    }
+
+    static double notEqual(double a, double b) {
+        return (Double.isNaN(a) || Double.isNaN(b)) ? Double.NaN : (a != b) ? 1 : 0;
+    }
+
+    static double and(double a, double b) {
+        return (Double.isNaN(a) || Double.isNaN(b)) ? Double.NaN : (a != 0 && b != 0) ? 1 : 0;
+    }
+
+    static double or(double a, double b) {
+        return (Double.isNaN(a) || Double.isNaN(b)) ? Double.NaN : (a != 0 || b != 0) ? 1 : 0;
+    }
+
+    static double not(double a) {
+        return Double.isNaN(a) ? Double.NaN : (a == 0) ? 1 : 0;
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.garcialopez.parser;
+
+/**
+ * Node of the syntax tree built by the {@link ExpressionParser}. A tree is made
+ * of constants, references to design variables, operations over other nodes
+ * and loops, which keep the summations and products unexpanded.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+abstract class ExpressionNode {
+
+    /**
+     * Returns the maximum number of operand stack slots needed to evaluate the
+     * node. A {@code double} value uses two slots.
+     *
+     * @return the stack size.
+     */
+    abstract int maxStack();
+
+    /**
+     * Creates an operation node, folding it into a constant when all the
+     * operands are constants.
+     *
+     * @param operator the operator.
+     * @param operands the operands.
+     * @return the new node.
+     */
+    static ExpressionNode operation(Operator operator, ExpressionNode... operands) {
+        double[] values = new double[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            if (!(operands[i] instanceof Constant)) {
+                return new Operation(operator, operands);
+            }
+            values[i] = ((Constant) operands[i]).value;
+        }
+        return new Constant(operator.apply(values));
+    }
+
+    /**
+     * A numeric constant.
+     */
+    static final class Constant extends ExpressionNode {
+
+        final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        int maxStack() {
+            return 2;
+        }
+    }
+
+    /**
+     * A design variable, identified by its position in the order of variables.
+     */
+    static final class Variable extends ExpressionNode {
+
+        final int index;
+
+        Variable(int index) {
+            this.index = index;
+        }
+
+        @Override
+        int maxStack() {
+            return 2;
+        }
+    }
+
+    /**
+     * An operator or function applied to one or more operands.
+     */
+    static final class Operation extends ExpressionNode {
+
+        final Operator operator;
+        final ExpressionNode[] operands;
+
+        Operation(Operator operator, ExpressionNode[] operands) {
+            this.operator = operator;
+            this.operands = operands;
+        }
+
+        @Override
+        int maxStack() {
+            int stack = 0;
+            for (int i = 0; i < operands.length; i++) {
+                // the previous operands are already on the stack
+                stack = Math.max(stack, 2 * i + operands[i].maxStack());
+            }
+            return stack;
+        }
+    }
+
+    /**
+     * A summation or product of a body over a range of the index {@code i},
+     * as {@code sum{x,from,to,body}} and {@code prod{x,from,to,body}}. The
+     * body is kept once, whatever the number of values of the index.
+     */
+    static final class Loop extends ExpressionNode {
+
+        final boolean product;
+        final int from;
+        final int to;
+        // nesting level of the loop, which selects its local variables
+        final int depth;
+        final ExpressionNode body;
+
+        Loop(boolean product, int from, int to, int depth, ExpressionNode body) {
+            this.product = product;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+            this.body = body;
+        }
+
+        @Override
+        int maxStack() {
+            // the body and then the accumulated value
+            return Math.max(body.maxStack(), 4);
+        }
+    }
+
+    /**
+     * The index {@code i} of a loop, as a number.
+     */
+    static final class LoopIndex extends ExpressionNode {
+
+        final int depth;
+
+        LoopIndex(int depth) {
+            this.depth = depth;
+        }
+
+        @Override
+        int maxStack() {
+            return 2;
+        }
+    }
+
+    /**
+     * A design variable selected by the index of a loop, as {@code xi}. The
+     * variable read is the one at position {@code i + offset}.
+     */
+    static final class LoopVariable extends ExpressionNode {
+
+        final int depth;
+        final int offset;
+
+        LoopVariable(int depth, int offset) {
+            this.depth = depth;
+            this.offset = offset;
+        }
+
+        @Override
+        int maxStack() {
+            // the array, the index and the offset
+            return 3;
+        }
+    }
+
+}
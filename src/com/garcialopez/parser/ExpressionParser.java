@@ -0,0 +1,407 @@
+package com.garcialopez.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recursive descent parser that converts the text of an objective function or
+ * constraint into a tree of {@link ExpressionNode}. The accepted syntax is the
+ * subset of mXparser used by the CNOPs: numbers, design variables, the
+ * constants {@code pi} and {@code e}, the operators
+ * {@code + - * / ^ < <= > >= = <> & | ~} and the functions listed in
+ * {@link Operator}.
+ * <br>
+ * Summations and products are parsed from their templates,
+ * {@code sum{x,from,to,body}} and {@code prod{x,from,to,body}}, into a single
+ * {@link ExpressionNode.Loop}: inside the body, {@code i} is the index and
+ * {@code xi} is the variable {@code x} followed by the index, as in
+ * {@code Transform.extendFunction}. The body is parsed once, so the size of the
+ * tree depends on the template and not on the number of variables. Any other
+ * construction is rejected with an {@link IllegalArgumentException}, so that
+ * the caller can fall back to mXparser.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+class ExpressionParser {
+
+    private final String text;
+    // position of each design variable, null to accept any argument
+    private final Map<String, Integer> variables;
+    private final Set<String> arguments = new LinkedHashSet<>();
+    // range of the index of each loop being parsed
+    private final List<int[]> loops = new ArrayList<>();
+    private int position;
+
+    /**
+     * Creates a parser for the given expression.
+     *
+     * @param text the expression.
+     * @param variables the order of the design variables, or null to accept
+     * any argument (see {@link #parseArguments()}).
+     */
+    ExpressionParser(String text, List<String> variables) {
+        this.text = text;
+        this.position = 0;
+        if (variables == null) {
+            this.variables = null;
+        } else {
+            this.variables = new HashMap<>();
+            for (int i = 0; i < variables.size(); i++) {
+                this.variables.putIfAbsent(variables.get(i), i);
+            }
+        }
+    }
+
+    /**
+     * Parses the whole expression.
+     *
+     * @return the root of the syntax tree.
+     */
+    ExpressionNode parse() {
+        ExpressionNode node = this.parseOr();
+        this.skipSpaces();
+        if (this.position < this.text.length()) {
+            throw this.error("unexpected '" + this.text.charAt(this.position) + "'");
+        }
+        return node;
+    }
+
+    /**
+     * Parses the whole expression and returns the names of its arguments, in
+     * order of appearance. The parser must have been created without order of
+     * variables.
+     *
+     * @return the names of the arguments.
+     */
+    Set<String> parseArguments() {
+        this.parse();
+        return this.arguments;
+    }
+
+    private ExpressionNode parseOr() {
+        ExpressionNode node = this.parseAnd();
+        while (this.accept("||") || this.accept("|")) {
+            node = ExpressionNode.operation(Operator.OR, node, this.parseAnd());
+        }
+        return node;
+    }
+
+    private ExpressionNode parseAnd() {
+        ExpressionNode node = this.parseComparison();
+        while (this.accept("&&") || this.accept("&")) {
+            node = ExpressionNode.operation(Operator.AND, node, this.parseComparison());
+        }
+        return node;
+    }
+
+    private ExpressionNode parseComparison() {
+        ExpressionNode node = this.parseAdditive();
+        while (true) {
+            Operator operator;
+            if (this.accept("<=")) {
+                operator = Operator.LESS_EQUAL;
+            } else if (this.accept(">=")) {
+                operator = Operator.GREATER_EQUAL;
+            } else if (this.accept("<>") || this.accept("!=") || this.accept("~=")) {
+                operator = Operator.NOT_EQUAL;
+            } else if (this.accept("==") || this.accept("=")) {
+                operator = Operator.EQUAL;
+            } else if (this.accept("<")) {
+                operator = Operator.LESS;
+            } else if (this.accept(">")) {
+                operator = Operator.GREATER;
+            } else {
+                return node;
+            }
+            node = ExpressionNode.operation(operator, node, this.parseAdditive());
+        }
+    }
+
+    private ExpressionNode parseAdditive() {
+        ExpressionNode node = this.parseMultiplicative();
+        while (true) {
+            if (this.accept("+")) {
+                node = ExpressionNode.operation(Operator.ADD, node, this.parseMultiplicative());
+            } else if (this.accept("-")) {
+                node = ExpressionNode.operation(Operator.SUBTRACT, node, this.parseMultiplicative());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private ExpressionNode parseMultiplicative() {
+        ExpressionNode node = this.parseUnary();
+        while (true) {
+            if (this.accept("*")) {
+                node = ExpressionNode.operation(Operator.MULTIPLY, node, this.parseUnary());
+            } else if (this.accept("/")) {
+                node = ExpressionNode.operation(Operator.DIVIDE, node, this.parseUnary());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private ExpressionNode parseUnary() {
+        if (this.accept("-")) {
+            return ExpressionNode.operation(Operator.NEGATE, this.parseUnary());
+        }
+        if (this.accept("+")) {
+            return this.parseUnary();
+        }
+        if (this.accept("~")) {
+            return ExpressionNode.operation(Operator.NOT, this.parseUnary());
+        }
+        return this.parsePower();
+    }
+
+    private ExpressionNode parsePower() {
+        ExpressionNode base = this.parsePrimary();
+        if (this.accept("^")) {
+            // right associative: a^b^c = a^(b^c) and -a^b = -(a^b)
+            return ExpressionNode.operation(Operator.POWER, base, this.parseUnary());
+        }
+        return base;
+    }
+
+    private ExpressionNode parsePrimary() {
+        this.skipSpaces();
+        if (this.position >= this.text.length()) {
+            throw this.error("unexpected end of expression");
+        }
+        char c = this.text.charAt(this.position);
+
+        if (this.accept("(")) {
+            ExpressionNode node = this.parseOr();
+            this.expect(")");
+            return node;
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return new ExpressionNode.Constant(this.parseNumber());
+        }
+        if (Character.isLetter(c) || c == '_') {
+            String name = this.parseIdentifier();
+            if (this.accept("(")) {
+                return this.parseFunction(name);
+            }
+            if ((name.equals("sum") || name.equals("prod")) && this.accept("{")) {
+                return this.parseLoop(name.equals("prod"));
+            }
+            if (!this.loops.isEmpty()) {
+                ExpressionNode node = this.parseLoopArgument(name);
+                if (node != null) {
+                    return node;
+                }
+            }
+            switch (name) {
+                case "pi":
+                    return new ExpressionNode.Constant(Math.PI);
+                case "e":
+                    return new ExpressionNode.Constant(Math.E);
+                default:
+                    return this.argument(name);
+            }
+        }
+        throw this.error("unexpected '" + c + "'");
+    }
+
+    private ExpressionNode argument(String name) {
+        if (this.variables == null) {
+            this.arguments.add(name);
+            return new ExpressionNode.Variable(0);
+        }
+        Integer index = this.variables.get(name);
+        if (index == null) {
+            throw this.error("unknown argument '" + name + "'");
+        }
+        return new ExpressionNode.Variable(index);
+    }
+
+    /**
+     * Parses a summation or a product after its opening brace:
+     * {@code x,from,to,body}.
+     */
+    private ExpressionNode parseLoop(boolean product) {
+        this.skipSpaces();
+        if (this.parseIdentifier().isEmpty()) {
+            throw this.error("variable of the loop expected");
+        }
+        this.expect(",");
+        int from = this.parseBound();
+        this.expect(",");
+        int to = this.parseBound();
+        this.expect(",");
+
+        int depth = this.loops.size();
+        this.loops.add(new int[]{from, to});
+        ExpressionNode body = this.parseOr();
+        this.loops.remove(depth);
+        this.expect("}");
+
+        return new ExpressionNode.Loop(product, from, to, depth, body);
+    }
+
+    private int parseBound() {
+        this.skipSpaces();
+        int start = this.position;
+        while (this.position < this.text.length() && Character.isDigit(this.text.charAt(this.position))) {
+            this.position++;
+        }
+        try {
+            return Integer.parseInt(this.text.substring(start, this.position));
+        } catch (NumberFormatException e) {
+            throw this.error("invalid bound of the loop");
+        }
+    }
+
+    /**
+     * Resolves the index {@code i} and the indexed variables such as
+     * {@code xi} inside the body of the innermost loop.
+     *
+     * @return the node, or null if the name does not depend on the index.
+     */
+    private ExpressionNode parseLoopArgument(String name) {
+        int depth = this.loops.size() - 1;
+        int from = this.loops.get(depth)[0];
+        int to = this.loops.get(depth)[1];
+
+        if (name.equals("i")) {
+            return new ExpressionNode.LoopIndex(depth);
+        }
+        if (name.length() < 2 || !name.endsWith("i")) {
+            return null;
+        }
+        String prefix = name.substring(0, name.length() - 1);
+
+        if (this.variables == null) {
+            if (name.equals("pi")) {
+                return null;
+            }
+            for (int j = from; j <= to; j++) {
+                this.arguments.add(prefix + j);
+            }
+            return new ExpressionNode.Variable(0);
+        }
+
+        Integer first = this.variables.get(prefix + from);
+        if (first == null) {
+            return null;
+        }
+        // the variable of each index must follow the variable of the previous one
+        for (int j = from + 1; j <= to; j++) {
+            Integer index = this.variables.get(prefix + j);
+            if (index == null) {
+                throw this.error("unknown argument '" + prefix + j + "'");
+            }
+            if (index != first + (j - from)) {
+                throw this.error("the variables of '" + name + "' are not consecutive");
+            }
+        }
+        return new ExpressionNode.LoopVariable(depth, first - from);
+    }
+
+    private ExpressionNode parseFunction(String name) {
+        List<ExpressionNode> arguments = new ArrayList<>();
+        if (!this.accept(")")) {
+            do {
+                arguments.add(this.parseOr());
+            } while (this.accept(","));
+            this.expect(")");
+        }
+
+        Operator operator = Operator.function(name);
+        if (operator == null) {
+            throw this.error("unsupported function '" + name + "'");
+        }
+
+        if ((operator == Operator.MIN || operator == Operator.MAX) && arguments.size() >= 1) {
+            // min and max accept any number of arguments
+            ExpressionNode node = arguments.get(0);
+            for (int i = 1; i < arguments.size(); i++) {
+                node = ExpressionNode.operation(operator, node, arguments.get(i));
+            }
+            return node;
+        }
+
+        if (arguments.size() != operator.getArity()) {
+            throw this.error("function '" + name + "' expects " + operator.getArity() + " arguments");
+        }
+        return ExpressionNode.operation(operator, arguments.toArray(new ExpressionNode[0]));
+    }
+
+    private double parseNumber() {
+        int start = this.position;
+        while (this.position < this.text.length()
+                && (Character.isDigit(this.text.charAt(this.position)) || this.text.charAt(this.position) == '.')) {
+            this.position++;
+        }
+        // scientific notation, e.g. 1.5e-3
+        if (this.position < this.text.length()
+                && (this.text.charAt(this.position) == 'e' || this.text.charAt(this.position) == 'E')) {
+            int exponent = this.position + 1;
+            if (exponent < this.text.length()
+                    && (this.text.charAt(exponent) == '+' || this.text.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < this.text.length() && Character.isDigit(this.text.charAt(exponent))) {
+                this.position = exponent;
+                while (this.position < this.text.length() && Character.isDigit(this.text.charAt(this.position))) {
+                    this.position++;
+                }
+            }
+        }
+        if (this.position < this.text.length()
+                && (Character.isLetter(this.text.charAt(this.position)) || this.text.charAt(this.position) == '_')) {
+            throw this.error("implied multiplication is not supported");
+        }
+        try {
+            return Double.parseDouble(this.text.substring(start, this.position));
+        } catch (NumberFormatException e) {
+            throw this.error("invalid number '" + this.text.substring(start, this.position) + "'");
+        }
+    }
+
+    private String parseIdentifier() {
+        int start = this.position;
+        while (this.position < this.text.length()
+                && (Character.isLetterOrDigit(this.text.charAt(this.position)) || this.text.charAt(this.position) == '_')) {
+            this.position++;
+        }
+        return this.text.substring(start, this.position);
+    }
+
+    private boolean accept(String token) {
+        this.skipSpaces();
+        if (this.text.startsWith(token, this.position)) {
+            this.position += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!this.accept(token)) {
+            throw this.error("'" + token + "' expected");
+        }
+    }
+
+    private void skipSpaces() {
+        while (this.position < this.text.length() && Character.isWhitespace(this.text.charAt(this.position))) {
+            this.position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + this.position + " of: " + this.text);
+    }
+
+}
@@ -0,0 +1,258 @@
+package com.garcialopez.parser;
+
+/**
+ * Operators and built-in functions of the CNOP expression language that can be
+ * compiled by the {@link ExpressionCompiler}. The names follow the mXparser
+ * syntax used for objective functions and constraints.
+ * <br>
+ * Each operator is translated either to a single JVM instruction or to a call
+ * of a static method taking and returning {@code double} values.
+ *
+ * @author <b>Adrian García-López</b><br>
+ * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
+ * GitHub</a><br>
+ * <a href="mailto:joseadrian_g97@hotmail.com">joseadrian_g97@hotmail.com</a><br>
+ * @version 1.0
+ */
+enum Operator {
+
+    ADD("+", 2, 0x63),
+    SUBTRACT("-", 2, 0x67),
+    MULTIPLY("*", 2, 0x6b),
+    DIVIDE("/", 2, 0x6f),
+    NEGATE("-", 1, 0x77),
+    POWER("^", 2, Operator.MATH, "pow"),
+    SIN("sin", 1, Operator.MATH, "sin"),
+    COS("cos", 1, Operator.MATH, "cos"),
+    TAN("tan", 1, Operator.MATH, "tan"),
+    ASIN("asin", 1, Operator.MATH, "asin"),
+    ACOS("acos", 1, Operator.MATH, "acos"),
+    ATAN("atan", 1, Operator.MATH, "atan"),
+    SINH("sinh", 1, Operator.MATH, "sinh"),
+    COSH("cosh", 1, Operator.MATH, "cosh"),
+    TANH("tanh", 1, Operator.MATH, "tanh"),
+    EXP("exp", 1, Operator.MATH, "exp"),
+    LN("ln", 1, Operator.MATH, "log"),
+    LOG10("log10", 1, Operator.MATH, "log10"),
+    LOG2("log2", 1, Operator.COMPILER, "log2"),
+    LOG("log", 2, Operator.COMPILER, "log"),
+    SQRT("sqrt", 1, Operator.MATH, "sqrt"),
+    ABS("abs", 1, Operator.MATH, "abs"),
+    SGN("sgn", 1, Operator.MATH, "signum"),
+    FLOOR("floor", 1, Operator.MATH, "floor"),
+    CEIL("ceil", 1, Operator.MATH, "ceil"),
+    MIN("min", 2, Operator.MATH, "min"),
+    MAX("max", 2, Operator.MATH, "max"),
+    IF("if", 3, Operator.COMPILER, "ifElse"),
+    LESS("<", 2, Operator.COMPILER, "less"),
+    LESS_EQUAL("<=", 2, Operator.COMPILER, "lessEqual"),
+    GREATER(">", 2, Operator.COMPILER, "greater"),
+    GREATER_EQUAL(">=", 2, Operator.COMPILER, "greaterEqual"),
+    EQUAL("=", 2, Operator.COMPILER, "equal"),
+    NOT_EQUAL("<>", 2, Operator.COMPILER, "notEqual"),
+    AND("&", 2, Operator.COMPILER, "and"),
+    OR("|", 2, Operator.COMPILER, "or"),
+    NOT("~", 1, Operator.COMPILER, "not");
+
+    private static final String MATH = "java/lang/Math";
+    private static final String COMPILER = "com/garcialopez/parser/ExpressionCompiler";
+
+    private final String symbol;
+    private final int arity;
+    private final int opcode;
+    private final String owner;
+    private final String method;
+
+    private Operator(String symbol, int arity, int opcode) {
+        this.symbol = symbol;
+        this.arity = arity;
+        this.opcode = opcode;
+        this.owner = null;
+        this.method = null;
+    }
+
+    private Operator(String symbol, int arity, String owner, String method) {
+        this.symbol = symbol;
+        this.arity = arity;
+        this.opcode = 0;
+        this.owner = owner;
+        this.method = method;
+    }
+
+    /**
+     * Returns the symbol or function name used in the expression text.
+     *
+     * @return the symbol.
+     */
+    String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the number of operands.
+     *
+     * @return the arity.
+     */
+    int getArity() {
+        return arity;
+    }
+
+    /**
+     * Returns the JVM instruction that implements the operator, or 0 when the
+     * operator is implemented by a static method.
+     *
+     * @return the opcode.
+     */
+    int getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * Returns the internal name of the class declaring the static method.
+     *
+     * @return the owner class.
+     */
+    String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Returns the name of the static method implementing the operator.
+     *
+     * @return the method name.
+     */
+    String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the JVM descriptor of the static method implementing the
+     * operator.
+     *
+     * @return the method descriptor.
+     */
+    String getDescriptor() {
+        return "(" + "D".repeat(arity) + ")D";
+    }
+
+    /**
+     * Applies the operator to constant operands. It is used to fold constant
+     * sub-expressions such as {@code 4.4 * 10^7} at compile time.
+     *
+     * @param a the operands.
+     * @return the result of the operation.
+     */
+    double apply(double[] a) {
+        switch (this) {
+            case ADD:
+                return a[0] + a[1];
+            case SUBTRACT:
+                return a[0] - a[1];
+            case MULTIPLY:
+                return a[0] * a[1];
+            case DIVIDE:
+                return a[0] / a[1];
+            case NEGATE:
+                return -a[0];
+            case POWER:
+                return Math.pow(a[0], a[1]);
+            case SIN:
+                return Math.sin(a[0]);
+            case COS:
+                return Math.cos(a[0]);
+            case TAN:
+                return Math.tan(a[0]);
+            case ASIN:
+                return Math.asin(a[0]);
+            case ACOS:
+                return Math.acos(a[0]);
+            case ATAN:
+                return Math.atan(a[0]);
+            case SINH:
+                return Math.sinh(a[0]);
+            case COSH:
+                return Math.cosh(a[0]);
+            case TANH:
+                return Math.tanh(a[0]);
+            case EXP:
+                return Math.exp(a[0]);
+            case LN:
+                return Math.log(a[0]);
+            case LOG10:
+                return Math.log10(a[0]);
+            case LOG2:
+                return ExpressionCompiler.log2(a[0]);
+            case LOG:
+                return ExpressionCompiler.log(a[0], a[1]);
+            case SQRT:
+                return Math.sqrt(a[0]);
+            case ABS:
+                return Math.abs(a[0]);
+            case SGN:
+                return Math.signum(a[0]);
+            case FLOOR:
+                return Math.floor(a[0]);
+            case CEIL:
+                return Math.ceil(a[0]);
+            case MIN:
+                return Math.min(a[0], a[1]);
+            case MAX:
+                return Math.max(a[0], a[1]);
+            case IF:
+                return ExpressionCompiler.ifElse(a[0], a[1], a[2]);
+            case LESS:
+                return ExpressionCompiler.less(a[0], a[1]);
+            case LESS_EQUAL:
+                return ExpressionCompiler.lessEqual(a[0], a[1]);
+            case GREATER:
+                return ExpressionCompiler.greater(a[0], a[1]);
+            case GREATER_EQUAL:
+                return ExpressionCompiler.greaterEqual(a[0], a[1]);
+            case EQUAL:
+                return ExpressionCompiler.equal(a[0], a[1]);
+            case NOT_EQUAL:
+                return ExpressionCompiler.notEqual(a[0], a[1]);
+            case AND:
+                return ExpressionCompiler.and(a[0], a[1]);
+            case OR:
+                return ExpressionCompiler.or(a[0], a[1]);
+            case NOT:
+                return ExpressionCompiler.not(a[0]);
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Looks up a built-in function by the name used in the expression text.
+     * mXparser aliases such as {@code arcsin} or {@code tg} are accepted.
+     *
+     * @param name the function name.
+     * @return the operator, or {@code null} if the function is not supported.
+     */
+    static Operator function(String name) {
+        switch (name) {
+            case "tg":
+                return TAN;
+            case "arcsin":
+                return ASIN;
+            case "arccos":
+                return ACOS;
+            case "arctan":
+            case "arctg":
+                return ATAN;
+            case "lg":
+                return LOG10;
+            case "signum":
+                return SGN;
+            default:
+                for (Operator operator : values()) {
+                    if (operator.owner != null && Character.isLetter(operator.symbol.charAt(0))
+                            && operator.symbol.equals(name)) {
+                        return operator;
+                    }
+                }
+                return null;
+        }
+    }
+
+}
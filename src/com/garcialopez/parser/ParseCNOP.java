@@ -1,13 +1,21 @@
 package com.garcialopez.parser;
 
+import com.garcialopez.optimizationmodel.Transform;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import org.mariuszgromada.math.mxparser.Argument;
 import org.mariuszgromada.math.mxparser.Expression;
 
 /**
  * The ParseCNOP class is responsible for parsing mathematical functions and
  * constraints using the mxparser library.
+ * <br>
+ * By default, the objective function and the constraints are compiled to JVM
+ * bytecode with the {@link ExpressionCompiler}, so that they are parsed only
+ * once. Expressions using a construction not supported by the compiler are
+ * evaluated with mxparser, extending their summations and products with
+ * {@link Transform#extendFunction(String)} only in that case.
  *
  * @author <b>Adrian García-López</b><br>
  * <a href="https://github.com/garcialopez" target="_blank">JMetaBFOP on
@@ -22,11 +30,26 @@ public class ParseCNOP {
     private ArrayList<Expression> expressionConstInequality;
     private ArrayList<Expression> expressionConstEquality;
 
+    private final boolean compile;
+    private CompiledExpression compiledOF;
+    private CompiledExpression[] compiledConstInequality;
+    private CompiledExpression[] compiledConstEquality;
+
     /**
      * Constructor method for parsing the function.
      */
     public ParseCNOP() {
-        //...
+        this(true);
+    }
+
+    /**
+     * Constructor method for parsing the function.
+     *
+     * @param compile true to compile the expressions to bytecode, false to
+     * always evaluate them with mxparser.
+     */
+    public ParseCNOP(boolean compile) {
+        this.compile = compile;
     }
 
     /**
@@ -37,7 +60,8 @@ public class ParseCNOP {
      */
     public void setExpressionOF(String expressionOF, List<String> variables) {
         this.variables = variables;
-        this.expressionOF = this.loadFunction(expressionOF);
+        this.compiledOF = this.compileFunction(expressionOF);
+        this.expressionOF = (this.compiledOF == null) ? this.loadFunction(expressionOF) : null;
     }
 
     /**
@@ -48,6 +72,7 @@ public class ParseCNOP {
      */
     public void setExpressionOF(Expression expression) {
         this.expressionOF = expression;
+        this.compiledOF = null;
     }
 
     /**
@@ -62,29 +87,73 @@ public class ParseCNOP {
             String[][] constraintsEquality) {
 
         if (constraintsInequality != null) {
-            this.expressionConstInequality = new ArrayList();
-            for (String[] constraintsIne : constraintsInequality) {
-                this.expressionConstInequality.add(this.loadFunction(constraintsIne[0]));
+            this.expressionConstInequality = new ArrayList<>();
+            this.compiledConstInequality = new CompiledExpression[constraintsInequality.length];
+            for (int i = 0; i < constraintsInequality.length; i++) {
+                this.compiledConstInequality[i] = this.compileFunction(constraintsInequality[i][0]);
+                this.expressionConstInequality.add((this.compiledConstInequality[i] == null)
+                        ? this.loadFunction(constraintsInequality[i][0]) : null);
             }
 
         }
 
         if (constraintsEquality != null) {
-            this.expressionConstEquality = new ArrayList();
-            for (String[] constraintsEqu : constraintsEquality) {
-                this.expressionConstEquality.add(this.loadFunction(constraintsEqu[0]));
+            this.expressionConstEquality = new ArrayList<>();
+            this.compiledConstEquality = new CompiledExpression[constraintsEquality.length];
+            for (int i = 0; i < constraintsEquality.length; i++) {
+                this.compiledConstEquality[i] = this.compileFunction(constraintsEquality[i][0]);
+                this.expressionConstEquality.add((this.compiledConstEquality[i] == null)
+                        ? this.loadFunction(constraintsEquality[i][0]) : null);
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of this parser that can be used from another thread.
+     * <br>
+     * The compiled expressions hold no state and are shared with the copy. The
+     * expressions evaluated with mxparser are parsed again, because their
+     * argument values are modified on every evaluation.
+     *
+     * @return a copy of this parser.
+     */
+    public ParseCNOP copy() {
+        ParseCNOP copy = new ParseCNOP(this.compile);
+        copy.variables = this.variables;
+        copy.compiledOF = this.compiledOF;
+        copy.compiledConstInequality = this.compiledConstInequality;
+        copy.compiledConstEquality = this.compiledConstEquality;
+        copy.expressionOF = this.copyFunction(this.expressionOF);
+
+        if (this.expressionConstInequality != null) {
+            copy.expressionConstInequality = new ArrayList<>();
+            for (Expression expression : this.expressionConstInequality) {
+                copy.expressionConstInequality.add(this.copyFunction(expression));
             }
         }
+
+        if (this.expressionConstEquality != null) {
+            copy.expressionConstEquality = new ArrayList<>();
+            for (Expression expression : this.expressionConstEquality) {
+                copy.expressionConstEquality.add(this.copyFunction(expression));
+            }
+        }
+        return copy;
     }
 
     /**
      * Evaluates the objective function with the given variable values.
      *
-     * @param values The values of the variables in the objective function.
+     * @param values The values of the variables in the objective function. The
+     * array may be longer than the number of variables (e.g. a row of the
+     * population), the extra positions are ignored.
      * @return The result of evaluating the objective function.
      */
     public double evaluateOF(double[] values) {
-        this.setExpressionOF(this.setArguments(this.expressionOF, values));
+        if (this.compiledOF != null) {
+            return this.compiledOF.evaluate(values);
+        }
+        this.setArguments(this.expressionOF, values);
         return this.expressionOF.calculate();
     }
 
@@ -98,6 +167,10 @@ public class ParseCNOP {
      */
     public double evaluateConstraintsInequality(int index, double[] values) {
 
+        if (this.compiledConstInequality[index] != null) {
+            return this.compiledConstInequality[index].evaluate(values);
+        }
+
         this.expressionConstInequality.set(index,
                 this.setArguments(this.expressionConstInequality.get(index),
                         values)
@@ -118,6 +191,9 @@ public class ParseCNOP {
     public double evaluateConstraintsEquality(int index, double[] values) {
 
         if (this.expressionConstEquality != null) {
+            if (this.compiledConstEquality[index] != null) {
+                return this.compiledConstEquality[index].evaluate(values);
+            }
             this.expressionConstEquality.set(index,
                     this.setArguments(this.expressionConstEquality.get(index),
                             values)
@@ -139,13 +215,81 @@ public class ParseCNOP {
      * @return The modified expression.
      */
     private Expression setArguments(Expression expression, double[] values) {
-        for (int i = 0; i < values.length; i++) {
+        for (int i = 0; i < this.variables.size(); i++) {
             expression.setArgumentValue(this.variables.get(i), values[i]);
         }
         return expression;
 
     }
 
+    /**
+     * Returns true if the objective function and all the constraints have been
+     * compiled to bytecode.
+     *
+     * @return true if no expression is evaluated with mxparser.
+     */
+    public boolean isCompiled() {
+        if (this.compiledOF == null) {
+            return false;
+        }
+        if (this.compiledConstInequality != null) {
+            for (CompiledExpression expression : this.compiledConstInequality) {
+                if (expression == null) {
+                    return false;
+                }
+            }
+        }
+        if (this.compiledConstEquality != null) {
+            for (CompiledExpression expression : this.compiledConstEquality) {
+                if (expression == null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compiles the function to bytecode.
+     *
+     * @param function The function expression as a string.
+     * @return The compiled expression, or null if compilation is disabled or
+     * the function uses a construction not supported by the compiler.
+     */
+    private CompiledExpression compileFunction(String function) {
+        if (!this.compile) {
+            return null;
+        }
+        try {
+            return ExpressionCompiler.compile(function, this.variables);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the names of the arguments of a function, in order of
+     * appearance, without extending its summations and products.
+     *
+     * @param function The function expression as a string.
+     * @return The names of the arguments.
+     * @throws IllegalArgumentException if the function uses a construction
+     * not supported by the compiler.
+     */
+    public static Set<String> getArguments(String function) {
+        return new ExpressionParser(function, null).parseArguments();
+    }
+
+    /**
+     * Parses again the function of an mxparser expression.
+     *
+     * @param expression The expression to copy, may be null.
+     * @return A new Expression object, or null if the expression is null.
+     */
+    private Expression copyFunction(Expression expression) {
+        return (expression == null) ? null : this.loadFunction(expression.getExpressionString());
+    }
+
     /**
      * Parses the function and adds the variables to the expression.
      *
@@ -154,7 +298,7 @@ public class ParseCNOP {
      */
     private Expression loadFunction(String function) {
 
-        Expression expressionFOAux = new Expression(function);
+        Expression expressionFOAux = new Expression(Transform.extendFunction(function));
 
         if (expressionFOAux.checkLexSyntax()) {
 